@@ -0,0 +1,32 @@
+plugins {
+  id("java")
+  id("me.champeau.jmh") version "0.7.2"
+}
+
+group = "com.integer"
+version = rootProject.version
+
+repositories {
+  mavenCentral()
+}
+
+java {
+  sourceCompatibility = JavaVersion.VERSION_17
+  targetCompatibility = JavaVersion.VERSION_17
+}
+
+dependencies {
+  jmh(project(":core"))
+}
+
+// Run with: ./gradlew :benchmarks:jmh  (narrow down with -Pjmh.includes=<regex>)
+jmh {
+  jmhVersion.set("1.37")
+  warmupIterations.set(3)
+  iterations.set(5)
+  fork.set(1)
+  // Allocation rate and GC counts next to the throughput and latency figures
+  profilers.add("gc")
+  resultFormat.set("JSON")
+  providers.gradleProperty("jmh.includes").orNull?.let { includes.add(it) }
+}
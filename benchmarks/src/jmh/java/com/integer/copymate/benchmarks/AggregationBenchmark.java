@@ -0,0 +1,68 @@
+package com.integer.copymate.benchmarks;
+
+import com.integer.copymate.core.TokenBudgetPacker;
+import com.integer.copymate.core.TrigramIndex;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Whole-selection computations that run once per action: packing a selection into a token budget,
+ * and building and querying the path filter index.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class AggregationBenchmark {
+
+    @Param({"10000", "100000"})
+    public int entries;
+
+    private int[] pathCost;
+    private int[] outlineCost;
+    private int[] fullCost;
+    private List<String> paths;
+    private TrigramIndex index;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        pathCost = new int[entries];
+        outlineCost = new int[entries];
+        fullCost = new int[entries];
+        paths = new ArrayList<>(entries);
+        for (int i = 0; i < entries; i++) {
+            pathCost[i] = 10 + random.nextInt(10);
+            fullCost[i] = pathCost[i] + random.nextInt(5000);
+            outlineCost[i] = i % 2 == 0 ? pathCost[i] + fullCost[i] / 8 : -1;
+            paths.add("src/p0_" + (i % 4) + "/p1_" + (i / 4 % 4) + "/p2_" + (i / 16 % 4) + "/Generated" + i + ".java");
+        }
+        index = TrigramIndex.build(paths);
+    }
+
+    @Benchmark
+    public TokenBudgetPacker.Level[] packTokenBudget() {
+        return TokenBudgetPacker.pack(pathCost, outlineCost, fullCost, entries * 200L);
+    }
+
+    @Benchmark
+    public TrigramIndex buildPathIndex() {
+        return TrigramIndex.build(paths);
+    }
+
+    @Benchmark
+    public int[] searchPathIndex() {
+        return index.search("p2_3/Generated5", 500);
+    }
+}
@@ -0,0 +1,60 @@
+package com.integer.copymate.benchmarks;
+
+import com.integer.copymate.core.BundleWriter;
+import com.integer.copymate.core.StructureWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Output assembly over a repository on disk: the Copy Content bundle in its four modes and the
+ * Copy Structure listing. Files are served from the OS page cache after the first iteration, so
+ * these measure reading, extraction and assembly rather than disk latency.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AssemblyBenchmark {
+    private static final long MAX_BYTES = 1024 * 1024;
+    private static final int THREADS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    @Benchmark
+    public int copyContent(RepositoryState repository) throws IOException {
+        return write(repository, false, false, 0);
+    }
+
+    @Benchmark
+    public int copyMethodsOnly(RepositoryState repository) throws IOException {
+        return write(repository, true, false, 0);
+    }
+
+    @Benchmark
+    public int copyStrippingComments(RepositoryState repository) throws IOException {
+        return write(repository, false, true, 0);
+    }
+
+    @Benchmark
+    public int copyWithTokenBudget(RepositoryState repository) throws IOException {
+        return write(repository, false, false, 100_000);
+    }
+
+    private static int write(RepositoryState repository, boolean methodsOnly, boolean stripComments, int budget)
+            throws IOException {
+        StringBuilder out = new StringBuilder();
+        BundleWriter.onDisk(repository.walker, methodsOnly, stripComments, budget, MAX_BYTES, StandardCharsets.UTF_8,
+                THREADS).write(repository.files, out);
+        return out.length();
+    }
+
+    @Benchmark
+    public int copyStructure(RepositoryState repository) throws IOException {
+        StringBuilder out = new StringBuilder();
+        new StructureWriter<>(repository.walker, true, 0, 0).write(List.of(repository.root), out);
+        return out.length();
+    }
+}
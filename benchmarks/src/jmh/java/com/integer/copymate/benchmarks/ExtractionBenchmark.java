@@ -0,0 +1,61 @@
+package com.integer.copymate.benchmarks;
+
+import com.integer.copymate.core.JavaSignatureExtractor;
+import com.integer.copymate.core.TokenEstimator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signature extraction and token estimation on in-memory Java sources, without any I/O.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class ExtractionBenchmark {
+
+    @Param({"100"})
+    public int sourceCount;
+
+    @Param({"2048", "32768"})
+    public int sourceBytes;
+
+    private List<String> sources;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        sources = new ArrayList<>(sourceCount);
+        for (int i = 0; i < sourceCount; i++) {
+            sources.add(SyntheticRepository.javaSource("bench", "Generated" + i, sourceBytes, random));
+        }
+    }
+
+    @Benchmark
+    public void extractSignatures(Blackhole blackhole) {
+        for (String source : sources) {
+            blackhole.consume(JavaSignatureExtractor.extract(source));
+        }
+    }
+
+    @Benchmark
+    public long estimateTokens() {
+        long tokens = 0;
+        for (String source : sources) {
+            tokens += TokenEstimator.estimate(source);
+        }
+        return tokens;
+    }
+}
@@ -0,0 +1,54 @@
+package com.integer.copymate.benchmarks;
+
+import com.integer.copymate.core.PathWalker;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.List;
+
+/**
+ * A synthetic repository on disk, generated once per trial from the benchmark parameters.
+ */
+@State(Scope.Benchmark)
+public class RepositoryState {
+    static final List<String> IGNORE_PATTERNS = List.of(".git/", ".idea/", ".gradle/", "node_modules/");
+
+    @Param({"2000"})
+    public int fileCount;
+
+    @Param({"4"})
+    public int depth;
+
+    @Param({"4096"})
+    public int fileBytes;
+
+    @Param({"0.5"})
+    public double javaRatio;
+
+    public Path root;
+    public PathWalker<Path> walker;
+    public List<Path> files;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        Path parent = Paths.get(System.getProperty("java.io.tmpdir"));
+        root = new SyntheticRepository(fileCount, depth, fileBytes, javaRatio, 42).generate(parent);
+        walker = PathWalker.create(root, IGNORE_PATTERNS);
+        files = walker.expand(List.of(root));
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() throws IOException {
+        if (root != null && Files.exists(root)) {
+            SyntheticRepository.delete(root);
+        }
+    }
+}
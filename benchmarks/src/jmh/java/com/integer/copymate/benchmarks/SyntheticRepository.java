@@ -0,0 +1,182 @@
+package com.integer.copymate.benchmarks;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Random;
+
+/**
+ * Generates a synthetic project tree for the benchmarks.
+ * <p>
+ * Files are spread over a directory tree of the given depth with four subdirectories per level. Java
+ * files contain packages, Javadoc, annotations, fields, nested types and method bodies with strings and
+ * comments holding braces, so the signature scanner meets the same constructs as in real code; the other
+ * files are plain text and Markdown. A {@code .gitignore} and an ignored {@code build/} directory are
+ * added so traversal benchmarks include pruning. Output is deterministic for a given seed.
+ */
+public final class SyntheticRepository {
+    private static final int FAN_OUT = 4;
+    private static final String[] WORDS = {
+            "copy", "mate", "file", "tree", "node", "path", "content", "signature", "token", "budget",
+            "select", "render", "index", "cache", "stream", "buffer", "project", "module", "value", "result"
+    };
+
+    private final int fileCount;
+    private final int depth;
+    private final int fileBytes;
+    private final double javaRatio;
+    private final long seed;
+
+    /**
+     * @param fileCount number of files to generate
+     * @param depth     number of directory levels below the root
+     * @param fileBytes approximate size of every file
+     * @param javaRatio share of Java files, from 0 to 1
+     */
+    public SyntheticRepository(int fileCount, int depth, int fileBytes, double javaRatio, long seed) {
+        this.fileCount = fileCount;
+        this.depth = depth;
+        this.fileBytes = fileBytes;
+        this.javaRatio = javaRatio;
+        this.seed = seed;
+    }
+
+    /**
+     * Write the tree into a new directory below the given parent.
+     *
+     * @return the root of the generated tree
+     */
+    public Path generate(Path parent) throws IOException {
+        Path root = Files.createTempDirectory(parent, "copy-mate-repo");
+        Random random = new Random(seed);
+
+        Files.writeString(root.resolve(".gitignore"), "build/\n*.log\n");
+        Path build = Files.createDirectories(root.resolve("build/classes"));
+        for (int i = 0; i < 10; i++) {
+            Files.writeString(build.resolve("Ignored" + i + ".class"), "ignored");
+        }
+
+        for (int i = 0; i < fileCount; i++) {
+            StringBuilder packageName = new StringBuilder("bench");
+            Path directory = root.resolve("src");
+            for (int level = 0, rest = i; level < depth; level++, rest /= FAN_OUT) {
+                String segment = "p" + level + "_" + (rest % FAN_OUT);
+                directory = directory.resolve(segment);
+                packageName.append('.').append(segment);
+            }
+            Files.createDirectories(directory);
+
+            if (random.nextDouble() < javaRatio) {
+                String className = "Generated" + i;
+                Files.writeString(directory.resolve(className + ".java"),
+                        javaSource(packageName.toString(), className, fileBytes, random), StandardCharsets.UTF_8);
+            } else {
+                Files.writeString(directory.resolve("notes" + i + (i % 2 == 0 ? ".md" : ".txt")),
+                        text(fileBytes, random), StandardCharsets.UTF_8);
+            }
+        }
+        return root;
+    }
+
+    /**
+     * A Java source file of roughly the given size.
+     */
+    public static String javaSource(String packageName, String className, int targetBytes, Random random) {
+        StringBuilder source = new StringBuilder(targetBytes + 512);
+        source.append("package ").append(packageName).append(";\n\n")
+                .append("import java.util.List;\nimport java.util.Map;\n\n")
+                .append("/**\n * Generated class {@code ").append(className).append("} for benchmarks.\n */\n")
+                .append("@SuppressWarnings(\"unused\")\n")
+                .append("public class ").append(className).append(" implements Comparable<").append(className).append("> {\n")
+                .append("    private static final String BRACES = \"{ not a block }\";\n")
+                .append("    private final Map<String, List<Integer>> values;\n\n")
+                .append("    public ").append(className).append("(Map<String, List<Integer>> values) {\n")
+                .append("        this.values = values;\n    }\n\n");
+
+        int method = 0;
+        while (source.length() < targetBytes) {
+            String name = word(random) + Character.toUpperCase(word(random).charAt(0)) + method++;
+            source.append("    /**\n     * Computes the ").append(word(random)).append(" of a ").append(word(random))
+                    .append(".\n     */\n")
+                    .append("    @Deprecated\n")
+                    .append("    public <T extends Comparable<T>> List<T> ").append(name)
+                    .append("(List<T> input, int limit) throws IllegalStateException {\n")
+                    .append("        // Braces in comments { and strings must not change the depth\n")
+                    .append("        String text = \"").append(word(random)).append(" } ").append(word(random)).append("\";\n")
+                    .append("        if (input.size() > limit) {\n")
+                    .append("            return input.subList(0, limit);\n")
+                    .append("        }\n")
+                    .append("        Runnable task = new Runnable() {\n")
+                    .append("            @Override\n            public void run() {\n")
+                    .append("                System.out.println(text + '}');\n")
+                    .append("            }\n        };\n")
+                    .append("        task.run();\n")
+                    .append("        return input;\n")
+                    .append("    }\n\n");
+        }
+
+        source.append("    @Override\n    public int compareTo(").append(className).append(" other) {\n")
+                .append("        return Integer.compare(values.size(), other.values.size());\n    }\n\n")
+                .append("    public enum Mode { FAST, SLOW; }\n\n")
+                .append("    interface Listener {\n        void changed(String path);\n    }\n")
+                .append("}\n");
+        return source.toString();
+    }
+
+    /**
+     * Prose-like text of roughly the given size.
+     */
+    public static String text(int targetBytes, Random random) {
+        StringBuilder text = new StringBuilder(targetBytes + 64);
+        while (text.length() < targetBytes) {
+            int words = 8 + random.nextInt(8);
+            for (int i = 0; i < words; i++) {
+                text.append(word(random)).append(i == words - 1 ? ".\n" : " ");
+            }
+        }
+        return text.toString();
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+
+    /**
+     * Delete a generated tree.
+     */
+    public static void delete(Path root) throws IOException {
+        Files.walkFileTree(root, new SimpleFileVisitor<>() {
+            @Override
+            public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) throws IOException {
+                Files.delete(file);
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult postVisitDirectory(Path directory, IOException e) throws IOException {
+                Files.delete(directory);
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Generate a tree for manual profiling:
+     * {@code <parent> [fileCount] [depth] [fileBytes] [javaRatio]}.
+     */
+    public static void main(String[] args) throws IOException {
+        Path parent = Paths.get(args.length > 0 ? args[0] : ".");
+        SyntheticRepository repository = new SyntheticRepository(
+                args.length > 1 ? Integer.parseInt(args[1]) : 10_000,
+                args.length > 2 ? Integer.parseInt(args[2]) : 4,
+                args.length > 3 ? Integer.parseInt(args[3]) : 4096,
+                args.length > 4 ? Double.parseDouble(args[4]) : 0.5,
+                42);
+        System.out.println(repository.generate(parent));
+    }
+}
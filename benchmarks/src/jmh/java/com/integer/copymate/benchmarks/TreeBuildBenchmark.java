@@ -0,0 +1,45 @@
+package com.integer.copymate.benchmarks;
+
+import com.integer.copymate.core.PathWalker;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tree building: listing a directory level by level as the file tree does, and expanding a selection
+ * into its files as Copy Content does. A fresh walker is used per call so .gitignore files are re-read.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class TreeBuildBenchmark {
+
+    @Benchmark
+    public int listTree(RepositoryState repository) throws IOException {
+        PathWalker<Path> walker = PathWalker.create(repository.root, RepositoryState.IGNORE_PATTERNS);
+        return countChildren(walker, repository.root);
+    }
+
+    private static int countChildren(PathWalker<Path> walker, Path directory) throws IOException {
+        int count = 0;
+        for (Path child : walker.listChildren(directory)) {
+            count++;
+            if (Files.isDirectory(child)) {
+                count += countChildren(walker, child);
+            }
+        }
+        return count;
+    }
+
+    @Benchmark
+    public List<Path> expandSelection(RepositoryState repository) throws IOException {
+        PathWalker<Path> walker = PathWalker.create(repository.root, RepositoryState.IGNORE_PATTERNS);
+        return walker.expand(List.of(repository.root));
+    }
+}
@@ -11,6 +11,11 @@ repositories {
   mavenCentral()
 }
 
+dependencies {
+  // Traversal, content loading, signature extraction and output assembly
+  implementation(project(":core"))
+}
+
 // Configure Gradle IntelliJ Plugin
 // Read more: https://plugins.jetbrains.com/docs/intellij/tools-gradle-intellij-plugin.html
 intellij {
@@ -0,0 +1,35 @@
+plugins {
+  id("java-library")
+  id("application")
+}
+
+group = "com.integer"
+version = rootProject.version
+
+repositories {
+  mavenCentral()
+}
+
+// UI-free engine shared by the plugin and the command-line launcher
+java {
+  sourceCompatibility = JavaVersion.VERSION_17
+  targetCompatibility = JavaVersion.VERSION_17
+}
+
+tasks.withType<JavaCompile> {
+  options.encoding = "UTF-8"
+}
+
+dependencies {
+  testImplementation("org.junit.jupiter:junit-jupiter:5.10.2")
+  testRuntimeOnly("org.junit.platform:junit-platform-launcher")
+}
+
+tasks.test {
+  useJUnitPlatform()
+}
+
+application {
+  mainClass.set("com.integer.copymate.core.CopyMateCli")
+  applicationName = "copy-mate"
+}
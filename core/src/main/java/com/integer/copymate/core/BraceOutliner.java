@@ -0,0 +1,536 @@
+package com.integer.copymate.core;
+
+import java.util.Arrays;
+
+/**
+ * Single-pass outline scanner shared by the brace-delimited languages (Kotlin, TypeScript/JavaScript, Go).
+ * <p>
+ * The source is read once. Comments and literals are consumed by the language, declarations spanning
+ * several lines are collapsed onto one, and every statement is classified when it ends or opens a brace:
+ * containers (classes, interfaces, structs...) are descended into with their members indented below them,
+ * functions are printed without their bodies, and statements that are not declarations are dropped.
+ * Bodies that are skipped are only scanned for their closing brace.
+ */
+abstract class BraceOutliner {
+    private static final String INDENT = "    ";
+    private static final int MAX_INITIALIZER = 256;
+
+    /**
+     * What a statement is, decided from its keywords.
+     */
+    enum Kind {
+        CONTAINER,
+        MEMBER,
+        DROP
+    }
+
+    protected final CharSequence src;
+    protected final int length;
+    protected int pos;
+
+    private final StringBuilder out;
+    private final StringBuilder stmt = new StringBuilder(128);
+    private boolean[] enumContainers = new boolean[16];
+    private int level;
+    private int bracketDepth;
+    private int cutAt = -1;
+    private boolean keepInitializer;
+    private boolean skipping;
+    private char lastSignificant = ';';
+
+    protected BraceOutliner(CharSequence src) {
+        this.src = src;
+        this.length = src.length();
+        this.out = new StringBuilder(Math.min(length / 4 + 64, 1 << 16));
+    }
+
+    // ---- Language hooks ----
+
+    /**
+     * Consume a comment or literal starting at {@link #pos}, if there is one.
+     * Literals are passed to {@link #literal(int)}; comments are simply skipped.
+     *
+     * @return true if something was consumed
+     */
+    protected abstract boolean skipCommentOrLiteral();
+
+    /**
+     * Classify a statement with its annotations and modifiers removed.
+     *
+     * @param words the statement split on spaces, modifiers already dropped
+     * @param inContainer whether the statement is directly inside a container
+     */
+    protected abstract Kind classify(String[] words, boolean inContainer);
+
+    /**
+     * @return true if a line break after the given statement text does not end the statement
+     */
+    protected abstract boolean continuesAfterNewline(CharSequence statement);
+
+    /**
+     * Whether a word at the start of a statement is a modifier to look past when classifying.
+     */
+    protected abstract boolean isModifier(String word);
+
+    /**
+     * Whether the initializer of this statement is part of its signature, as for type aliases.
+     */
+    protected boolean keepsInitializer(String[] words) {
+        return false;
+    }
+
+    /**
+     * Whether line breaks end statements inside brackets too, as in Go's grouped declarations.
+     */
+    protected boolean insertsSemicolons() {
+        return false;
+    }
+
+    /**
+     * Whether an '@' at the current position starts an annotation or decorator to drop.
+     */
+    protected boolean annotations() {
+        return false;
+    }
+
+    // ---- Helpers for the hooks ----
+
+    /**
+     * Record a literal that ends at {@code end} and started at {@link #pos}, and move past it.
+     */
+    protected final void literal(int end) {
+        if (!skipping && recording()) {
+            stmt.append(src, pos, end);
+        }
+        pos = end;
+        lastSignificant = '"';
+    }
+
+    protected final char lastSignificant() {
+        return lastSignificant;
+    }
+
+    protected final char peek(int offset) {
+        int index = pos + offset;
+        return index < length ? src.charAt(index) : '\0';
+    }
+
+    /**
+     * @return the index just past a line comment starting at {@link #pos}
+     */
+    protected final int lineCommentEnd() {
+        int end = pos;
+        while (end < length && src.charAt(end) != '\n') {
+            end++;
+        }
+        return end;
+    }
+
+    /**
+     * @return the index just past a block comment starting at {@link #pos}
+     */
+    protected final int blockCommentEnd(boolean nested) {
+        int depth = 0;
+        int i = pos;
+        while (i < length) {
+            if (src.charAt(i) == '/' && i + 1 < length && src.charAt(i + 1) == '*') {
+                if (depth > 0 && !nested) {
+                    i += 2;
+                    continue;
+                }
+                depth++;
+                i += 2;
+            } else if (src.charAt(i) == '*' && i + 1 < length && src.charAt(i + 1) == '/') {
+                depth--;
+                i += 2;
+                if (depth == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return the index just past a quoted literal starting at {@link #pos}, honoring backslash escapes;
+     * single-line literals also end at a line break so a stray quote cannot swallow the file
+     */
+    protected final int quotedEnd(char quote, boolean multiline) {
+        int i = pos + 1;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == quote) {
+                return i + 1;
+            }
+            if (c == '\n' && !multiline) {
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    // ---- Scanner ----
+
+    protected final String run() {
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (mayStartCommentOrLiteral(c) && skipCommentOrLiteral()) {
+                continue;
+            }
+            if (c == '@' && annotations() && isAtTokenStart()) {
+                skipAnnotation();
+                continue;
+            }
+
+            switch (c) {
+                case '(':
+                case '[':
+                    bracketDepth++;
+                    append(c);
+                    break;
+                case ')':
+                case ']':
+                    bracketDepth = Math.max(0, bracketDepth - 1);
+                    trimTrailingSpace();
+                    if (insertsSemicolons() && endsWith(';') && stmt.length() > cutAt) {
+                        stmt.setLength(stmt.length() - 1);
+                    }
+                    append(c);
+                    break;
+                case '{':
+                    if (bracketDepth > 0 || keepInitializer) {
+                        bracketDepth++;
+                        appendSpace();
+                        append(c);
+                    } else {
+                        openBrace();
+                        continue;
+                    }
+                    break;
+                case '}':
+                    if (bracketDepth > 0) {
+                        bracketDepth--;
+                        appendSpace();
+                        append(c);
+                    } else {
+                        closeBrace();
+                    }
+                    break;
+                case ';':
+                    if (bracketDepth > 0) {
+                        append(c);
+                    } else {
+                        endStatement();
+                    }
+                    break;
+                case '\n':
+                    if (bracketDepth == 0 && !continuesAfterNewline(stmt) && !nextLineContinues()) {
+                        endStatement();
+                    } else if (bracketDepth > 0 && insertsSemicolons() && !continuesAfterNewline(stmt)
+                            && !endsWith('(')) {
+                        // Keep the lines of a grouped declaration apart
+                        trimTrailingSpace();
+                        append(';');
+                        appendSpace();
+                    } else {
+                        appendSpace();
+                    }
+                    break;
+                case '=':
+                    if (bracketDepth == 0 && cutAt < 0 && !keepInitializer && isAssignment()) {
+                        if (keepsInitializer(words(stmt.toString().trim()))) {
+                            keepInitializer = true;
+                        } else {
+                            cutAt = stmt.length();
+                        }
+                    }
+                    append(c);
+                    break;
+                default:
+                    if (Character.isWhitespace(c)) {
+                        appendSpace();
+                    } else {
+                        append(c);
+                    }
+            }
+            pos++;
+        }
+        endStatement();
+        while (level > 0) {
+            level--;
+            indent();
+            out.append(level == 0 ? "}\n\n" : "}\n");
+        }
+        return out.toString();
+    }
+
+    private void openBrace() {
+        String header = stmt.toString().trim();
+        boolean arrow = header.endsWith("=>");
+        if (cutAt >= 0 && !arrow) {
+            // Initializer block or lambda; the statement goes on after it
+            skipBody();
+            return;
+        }
+
+        String[] words = words(header);
+        Kind kind = words.length == 0 ? Kind.DROP : classify(words, level > 0);
+        if (kind == Kind.CONTAINER) {
+            indent();
+            out.append(display(header)).append(" {\n");
+            pushContainer((" " + header + " ").contains(" enum "));
+            pos++;
+        } else {
+            if (kind == Kind.MEMBER) {
+                indent();
+                out.append(display(header)).append(" {}\n");
+            }
+            skipBody();
+        }
+        resetStatement();
+    }
+
+    private void closeBrace() {
+        endStatement();
+        if (level > 0) {
+            level--;
+            indent();
+            out.append(level == 0 ? "}\n\n" : "}\n");
+        }
+    }
+
+    private void endStatement() {
+        boolean enumConstants = level > 0 && enumContainers[level - 1];
+        String text = (cutAt >= 0 && !enumConstants ? stmt.substring(0, cutAt) : stmt.toString()).trim();
+        while (text.endsWith(",") || text.endsWith(";")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        if (!text.isEmpty()) {
+            String[] words = words(text);
+            if (enumConstants) {
+                // The first statement of an enum body lists its constants
+                indent();
+                out.append(text).append('\n');
+                enumContainers[level - 1] = false;
+            } else if (words.length > 0 && classify(words, level > 0) != Kind.DROP) {
+                indent();
+                out.append(display(text)).append('\n');
+            }
+        }
+        resetStatement();
+    }
+
+    private void resetStatement() {
+        stmt.setLength(0);
+        cutAt = -1;
+        keepInitializer = false;
+        bracketDepth = 0;
+    }
+
+    /**
+     * Skip from the '{' at {@link #pos} past its matching '}'.
+     */
+    private void skipBody() {
+        skipping = true;
+        int depth = 0;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (mayStartCommentOrLiteral(c) && skipCommentOrLiteral()) {
+                continue;
+            }
+            pos++;
+            if (c == '{') {
+                depth++;
+            } else if (c == '}') {
+                depth--;
+                if (depth == 0) {
+                    break;
+                }
+            }
+            if (!Character.isWhitespace(c)) {
+                lastSignificant = c;
+            }
+        }
+        lastSignificant = '}';
+        skipping = false;
+    }
+
+    private static boolean mayStartCommentOrLiteral(char c) {
+        return c == '/' || c == '"' || c == '\'' || c == '`';
+    }
+
+    private void skipAnnotation() {
+        pos++;
+        while (pos < length && (Character.isJavaIdentifierPart(src.charAt(pos)) || src.charAt(pos) == '.'
+                || src.charAt(pos) == ':')) {
+            pos++;
+        }
+        if (pos < length && src.charAt(pos) == '(') {
+            skipping = true;
+            int depth = 0;
+            while (pos < length) {
+                if (skipCommentOrLiteral()) {
+                    continue;
+                }
+                char c = src.charAt(pos++);
+                if (c == '(') {
+                    depth++;
+                } else if (c == ')' && --depth == 0) {
+                    break;
+                }
+            }
+            skipping = false;
+        }
+    }
+
+    private boolean endsWith(char c) {
+        int last = stmt.length() - 1;
+        while (last >= 0 && stmt.charAt(last) == ' ') {
+            last--;
+        }
+        return last >= 0 && stmt.charAt(last) == c;
+    }
+
+    private boolean isAtTokenStart() {
+        return stmt.length() == 0 || stmt.charAt(stmt.length() - 1) == ' ';
+    }
+
+    private boolean isAssignment() {
+        char next = peek(1);
+        char previous = pos > 0 ? src.charAt(pos - 1) : '\0';
+        return next != '=' && next != '>' && "=!<>+-*/%&|^:?".indexOf(previous) < 0;
+    }
+
+    /**
+     * Whether the next non-blank line starts with a token that can only continue the statement.
+     */
+    private boolean nextLineContinues() {
+        int i = pos + 1;
+        while (i < length && Character.isWhitespace(src.charAt(i))) {
+            i++;
+        }
+        if (i >= length) {
+            return false;
+        }
+        char c = src.charAt(i);
+        if (c == '.' && !(i + 1 < length && src.charAt(i + 1) == '.')) {
+            return true;
+        }
+        if (c == '?' || c == ':' || c == '{' || c == '|' || c == '&') {
+            return stmt.length() > 0;
+        }
+        if (c == '=' && i + 1 < length && src.charAt(i + 1) != '=') {
+            return stmt.length() > 0;
+        }
+        return stmt.length() > 0 && (startsWithWord(i, "where") || startsWithWord(i, "extends")
+                || startsWithWord(i, "implements"));
+    }
+
+    private boolean startsWithWord(int from, String word) {
+        int end = from + word.length();
+        if (end > length) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (src.charAt(from + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return end == length || !Character.isJavaIdentifierPart(src.charAt(end));
+    }
+
+    private void append(char c) {
+        lastSignificant = c;
+        if (recording()) {
+            stmt.append(c);
+        }
+    }
+
+    private void appendSpace() {
+        int last = stmt.length() - 1;
+        if (recording() && last >= 0 && stmt.charAt(last) != ' ' && stmt.charAt(last) != '(' && stmt.charAt(last) != '[') {
+            stmt.append(' ');
+        }
+    }
+
+    private void trimTrailingSpace() {
+        int last = stmt.length() - 1;
+        if (last > cutAt && stmt.charAt(last) == ' ') {
+            stmt.setLength(last);
+        }
+    }
+
+    /**
+     * Text after a cut is only kept far enough to recognise an arrow function header.
+     */
+    private boolean recording() {
+        return cutAt < 0 || stmt.length() < cutAt + MAX_INITIALIZER;
+    }
+
+    private void pushContainer(boolean isEnum) {
+        if (level == enumContainers.length) {
+            enumContainers = Arrays.copyOf(enumContainers, level * 2);
+        }
+        enumContainers[level++] = isEnum;
+    }
+
+    private void indent() {
+        for (int i = 0; i < level; i++) {
+            out.append(INDENT);
+        }
+    }
+
+    /**
+     * The statement as printed: trailing separators removed.
+     */
+    private static String display(String header) {
+        String text = header.trim();
+        while (text.endsWith(";") || text.endsWith(",")) {
+            text = text.substring(0, text.length() - 1).trim();
+        }
+        return text;
+    }
+
+    /**
+     * Split a statement into words and drop its leading modifiers.
+     */
+    private String[] words(String statement) {
+        String[] all = statement.isEmpty() ? new String[0] : statement.split(" ");
+        int first = 0;
+        while (first < all.length - 1 && isModifier(all[first])) {
+            first++;
+        }
+        return Arrays.copyOfRange(all, first, all.length);
+    }
+
+    protected static boolean contains(String[] words, String word) {
+        for (String candidate : words) {
+            if (candidate.equals(word)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The keyword a statement starts with, up to the first non-identifier character.
+     */
+    protected static String keyword(String[] words) {
+        if (words.length == 0) {
+            return "";
+        }
+        String first = words[0];
+        int end = 0;
+        while (end < first.length() && Character.isJavaIdentifierPart(first.charAt(end))) {
+            end++;
+        }
+        return first.substring(0, end);
+    }
+}
@@ -0,0 +1,36 @@
+package com.integer.copymate.core;
+
+/**
+ * The per-file entries of a "Copy Content" bundle.
+ */
+public final class BundleFormat {
+
+    private BundleFormat() {
+    }
+
+    public static String contentEntry(String path, CharSequence text) {
+        return "File Path: " + path + "\nContent:\n" + text + "\n\n";
+    }
+
+    public static String signaturesEntry(String path, CharSequence signatures) {
+        return "File Path: " + path + "\nMethod Signatures:\n" + signatures + "\n\n";
+    }
+
+    /**
+     * Entry for a file left out by the token budget.
+     */
+    public static String pathOnlyEntry(String path) {
+        return "File Path: " + path + "\n(content omitted to fit the token budget)\n\n";
+    }
+
+    /**
+     * Written once after the entries when the token budget has no room even for the paths of some files.
+     */
+    public static String omittedNotice(int count) {
+        return "(" + count + (count == 1 ? " more file" : " more files") + " omitted to fit the token budget)\n\n";
+    }
+
+    public static String errorEntry(String path, String message) {
+        return "File Path: " + path + "\nError reading file: " + message + "\n\n";
+    }
+}
@@ -0,0 +1,270 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Assembles a "Copy Content" bundle, for the plugin and the command line alike.
+ * <p>
+ * Each file is prepared as an {@link Entry} from a {@link Source}, which decides how files are read.
+ * With a token budget, every file is prepared as full content, as a signature outline and as path only,
+ * and {@link TokenBudgetPacker} picks the level per file. Full content can be minified by
+ * {@link SourceMinifier}. {@link #write} reads the files on a fixed pool of worker threads; hosts with
+ * their own threading call {@link #prepare} and {@link #append} instead.
+ *
+ * @param <F> the file handle
+ */
+public final class BundleWriter<F> {
+
+    /**
+     * Reads the files of a bundle.
+     */
+    public interface Source<F> {
+
+        /**
+         * @return the path shown in the file's entry
+         */
+        String path(F file);
+
+        boolean hasOutline(F file);
+
+        /**
+         * @return the signature outline of a file for which {@link #hasOutline} is true
+         */
+        String outline(F file) throws IOException;
+
+        /**
+         * @return the text to copy, a binary marker, or the head and tail of a file above the size cap
+         */
+        String content(F file) throws IOException;
+
+        default String minify(F file, String text, SourceMinifier.Syntax syntax) {
+            return SourceMinifier.minify(text, syntax);
+        }
+    }
+
+    private final Source<F> source;
+    private final boolean methodsOnly;
+    private final boolean stripComments;
+    private final int tokenBudget;
+    private final int threads;
+
+    /**
+     * @param methodsOnly   whether files with an outline are reduced to their signatures
+     * @param stripComments whether full content is minified
+     * @param tokenBudget   maximum estimated tokens of the output, 0 to copy everything
+     * @param threads       reader threads used by {@link #write}
+     */
+    public BundleWriter(Source<F> source, boolean methodsOnly, boolean stripComments, int tokenBudget, int threads) {
+        this.source = source;
+        this.methodsOnly = methodsOnly;
+        this.stripComments = stripComments;
+        this.tokenBudget = tokenBudget;
+        this.threads = Math.max(1, threads);
+    }
+
+    /**
+     * Bundle files on disk, outlining the languages known to {@link Outlines}.
+     *
+     * @param maxBytes size above which only the head and tail of a file are copied
+     */
+    public static BundleWriter<Path> onDisk(PathWalker<Path> walker, boolean methodsOnly, boolean stripComments,
+                                            int tokenBudget, long maxBytes, Charset charset, int threads) {
+        return new BundleWriter<>(new DiskSource(walker, maxBytes, charset), methodsOnly, stripComments,
+                tokenBudget, threads);
+    }
+
+    /**
+     * Write the bundle of the given files, which must already be expanded by {@link PathWalker#expand}.
+     *
+     * @return the number of files written, without those omitted to fit the token budget
+     */
+    public int write(List<F> files, Appendable out) throws IOException {
+        Entry[] entries = new Entry[files.size()];
+
+        ExecutorService readers = Executors.newFixedThreadPool(threads, runnable -> {
+            Thread thread = new Thread(runnable, "copy-mate-reader");
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            List<Future<Entry>> parts = new ArrayList<>(files.size());
+            for (F file : files) {
+                parts.add(readers.submit(() -> prepare(file, methodsOnly)));
+            }
+            for (int i = 0; i < parts.size(); i++) {
+                entries[i] = join(parts.get(i));
+            }
+        } finally {
+            readers.shutdownNow();
+        }
+
+        return append(entries, out);
+    }
+
+    /**
+     * Read one file at every level the settings call for. Safe to call from several threads.
+     *
+     * @param signaturesOnly whether a file with an outline is reduced to its signatures
+     */
+    public Entry prepare(F file, boolean signaturesOnly) {
+        String path = source.path(file);
+        Entry entry = new Entry(BundleFormat.pathOnlyEntry(path));
+        boolean hasOutline = source.hasOutline(file);
+
+        try {
+            // Outline in signature mode, and as a cheaper alternative under a budget
+            if (hasOutline && (signaturesOnly || tokenBudget > 0)) {
+                entry.set(TokenBudgetPacker.Level.OUTLINE, BundleFormat.signaturesEntry(path, source.outline(file)));
+            }
+            // Full content for other files, and for outlined files unless restricted to signatures
+            if (!hasOutline || !signaturesOnly) {
+                String text = source.content(file);
+                SourceMinifier.Syntax syntax = stripComments ? SourceMinifier.forFileName(path) : null;
+                entry.set(TokenBudgetPacker.Level.FULL,
+                        BundleFormat.contentEntry(path, syntax != null ? source.minify(file, text, syntax) : text));
+            }
+        } catch (IOException e) {
+            entry.set(TokenBudgetPacker.Level.FULL, BundleFormat.errorEntry(path, e.getMessage()));
+        }
+
+        if (tokenBudget > 0) {
+            entry.estimateTokens();
+        }
+        return entry;
+    }
+
+    /**
+     * Append prepared entries in order, each at the level the token budget allows. Files the budget
+     * has no room for at all are counted in a notice at the end.
+     *
+     * @return the number of files written
+     */
+    public int append(Entry[] entries, Appendable out) throws IOException {
+        TokenBudgetPacker.Level[] levels = tokenBudget > 0 ? pack(entries) : null;
+        int omitted = 0;
+        for (int i = 0; i < entries.length; i++) {
+            if (levels == null) {
+                out.append(entries[i].preferred());
+            } else if (levels[i] == TokenBudgetPacker.Level.OMITTED) {
+                omitted++;
+            } else {
+                out.append(entries[i].at(levels[i]));
+            }
+        }
+        if (omitted > 0) {
+            out.append(BundleFormat.omittedNotice(omitted));
+        }
+        return entries.length - omitted;
+    }
+
+    private TokenBudgetPacker.Level[] pack(Entry[] entries) {
+        int[] pathCost = new int[entries.length];
+        int[] outlineCost = new int[entries.length];
+        int[] fullCost = new int[entries.length];
+        for (int i = 0; i < entries.length; i++) {
+            pathCost[i] = entries[i].tokens[TokenBudgetPacker.Level.PATH.ordinal()];
+            outlineCost[i] = entries[i].tokens[TokenBudgetPacker.Level.OUTLINE.ordinal()];
+            fullCost[i] = entries[i].tokens[TokenBudgetPacker.Level.FULL.ordinal()];
+        }
+        // Charge the notice for the largest count it can show
+        int omittedCost = TokenEstimator.estimate(BundleFormat.omittedNotice(entries.length));
+        return TokenBudgetPacker.pack(pathCost, outlineCost, fullCost, tokenBudget, omittedCost);
+    }
+
+    private static <T> T join(Future<T> part) throws IOException {
+        try {
+            return part.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while reading files", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        }
+    }
+
+    /**
+     * The text of one file at each level it was prepared for.
+     */
+    public static final class Entry {
+        private final String[] texts = new String[TokenBudgetPacker.Level.values().length];
+        private final int[] tokens = new int[TokenBudgetPacker.Level.values().length];
+
+        private Entry(String pathOnly) {
+            texts[TokenBudgetPacker.Level.PATH.ordinal()] = pathOnly;
+        }
+
+        private void set(TokenBudgetPacker.Level level, String text) {
+            texts[level.ordinal()] = text;
+        }
+
+        /**
+         * The richest prepared level, used when there is no budget.
+         */
+        private String preferred() {
+            String full = texts[TokenBudgetPacker.Level.FULL.ordinal()];
+            return full != null ? full : texts[TokenBudgetPacker.Level.OUTLINE.ordinal()];
+        }
+
+        private String at(TokenBudgetPacker.Level level) {
+            return texts[level.ordinal()];
+        }
+
+        private void estimateTokens() {
+            for (int i = 0; i < texts.length; i++) {
+                tokens[i] = texts[i] == null ? -1 : TokenEstimator.estimate(texts[i]);
+            }
+        }
+    }
+
+    private static final class DiskSource implements Source<Path> {
+        private final PathWalker<Path> walker;
+        private final long maxBytes;
+        private final Charset charset;
+
+        DiskSource(PathWalker<Path> walker, long maxBytes, Charset charset) {
+            this.walker = walker;
+            this.maxBytes = maxBytes;
+            this.charset = charset;
+        }
+
+        @Override
+        public String path(Path file) {
+            return walker.relativePath(file);
+        }
+
+        @Override
+        public boolean hasOutline(Path file) {
+            return Outlines.forFileName(file.getFileName().toString()) != null;
+        }
+
+        /**
+         * Scans the text {@link #content} would copy, so binary files and the size cap are handled alike.
+         */
+        @Override
+        public String outline(Path file) throws IOException {
+            ContentLoader.Loaded loaded = ContentLoader.load(file, maxBytes, charset);
+            if (loaded.isBinary()) {
+                return loaded.getText();
+            }
+            Function<CharSequence, String> outliner = Outlines.forFileName(file.getFileName().toString());
+            return outliner.apply(loaded.getText());
+        }
+
+        @Override
+        public String content(Path file) throws IOException {
+            return ContentLoader.load(file, maxBytes, charset).getText();
+        }
+    }
+}
@@ -0,0 +1,141 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Loads the text to copy for a file: binary files are recognised from a short prefix and replaced by
+ * a marker, and files above the size cap are reduced to a head and tail window streamed from the file.
+ */
+public final class ContentLoader {
+    public static final int SNIFF_BYTES = 8 * 1024;
+
+    private ContentLoader() {
+    }
+
+    /**
+     * @param maxBytes size above which only the head and tail of the file are loaded
+     */
+    public static Loaded load(Path file, long maxBytes, Charset charset) throws IOException {
+        long length = Files.size(file);
+        try (InputStream in = Files.newInputStream(file)) {
+            byte[] prefix = in.readNBytes((int) Math.min(SNIFF_BYTES, length));
+            if (looksBinary(prefix, prefix.length, charset)) {
+                return Loaded.binary(length);
+            }
+        }
+        if (length <= maxBytes) {
+            return Loaded.complete(new String(Files.readAllBytes(file), charset));
+        }
+        try (InputStream in = Files.newInputStream(file)) {
+            return Loaded.truncated(readWindow(in, length, maxBytes, charset));
+        }
+    }
+
+    /**
+     * Whether a file prefix contains a NUL byte. UTF-16 and UTF-32 text legitimately contains them.
+     */
+    public static boolean looksBinary(byte[] prefix, int length, Charset charset) {
+        String name = charset.name();
+        if (name.startsWith("UTF-16") || name.startsWith("UTF-32")) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (prefix[i] == 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public static String binaryMarker(long length) {
+        return "[Binary file skipped: " + length + " bytes]";
+    }
+
+    /**
+     * Read the first and last {@code maxBytes / 2} bytes of a stream of the given length,
+     * starting the tail on a line boundary.
+     */
+    public static String readWindow(InputStream in, long length, long maxBytes, Charset charset) throws IOException {
+        int window = (int) (maxBytes / 2);
+        byte[] head = in.readNBytes(window);
+        long toSkip = length - head.length - window;
+        while (toSkip > 0) {
+            long skipped = in.skip(toSkip);
+            if (skipped <= 0) {
+                break;
+            }
+            toSkip -= skipped;
+        }
+        byte[] tail = in.readNBytes(window);
+
+        String headText = new String(head, charset);
+        String tailText = new String(tail, charset);
+        // Start the tail on a line boundary rather than in the middle of a character or line
+        int firstLine = tailText.indexOf('\n');
+        if (firstLine >= 0) {
+            tailText = tailText.substring(firstLine + 1);
+        }
+        return headAndTail(headText, tailText);
+    }
+
+    public static String headAndTail(CharSequence head, CharSequence tail) {
+        return new StringBuilder(head.length() + tail.length() + 64)
+                .append(head)
+                .append("\n\n... [middle of file omitted, it exceeds the copy size limit] ...\n\n")
+                .append(tail)
+                .toString();
+    }
+
+    /**
+     * The text to copy for a file, and whether it is the file's complete content.
+     */
+    public static final class Loaded {
+        private final String text;
+        private final boolean binary;
+        private final boolean truncated;
+
+        private Loaded(String text, boolean binary, boolean truncated) {
+            this.text = text;
+            this.binary = binary;
+            this.truncated = truncated;
+        }
+
+        public static Loaded complete(String text) {
+            return new Loaded(text, false, false);
+        }
+
+        /**
+         * @param text the head and tail window of a file above the size cap
+         */
+        public static Loaded truncated(String text) {
+            return new Loaded(text, false, true);
+        }
+
+        public static Loaded binary(long length) {
+            return new Loaded(binaryMarker(length), true, false);
+        }
+
+        /**
+         * @return the text, the head and tail window, or the binary marker
+         */
+        public String getText() {
+            return text;
+        }
+
+        public boolean isBinary() {
+            return binary;
+        }
+
+        public boolean isTruncated() {
+            return truncated;
+        }
+
+        public boolean isComplete() {
+            return !binary && !truncated;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.integer.copymate.core;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Command-line launcher that writes a Copy Mate bundle for a directory tree, for CI and scripts.
+ */
+public final class CopyMateCli {
+    private static final String USAGE = String.join("\n",
+            "Usage: copy-mate [options] <root> [path...]",
+            "",
+            "Writes the content (or structure) of the given paths below <root>, all of <root> by default.",
+            "",
+            "Options:",
+            "  -o, --output <file>     write to a file instead of stdout",
+            "  --structure             write the directory structure instead of file content",
+            "  --glyphs                draw the structure with tree lines",
+            "  --max-depth <n>         deepest structure level to list, 0 for no limit",
+            "  --max-entries <n>       maximum number of structure lines, 0 for no limit",
+            "  --methods-only          reduce source files to their signatures",
+            "  --strip-comments        drop comments, blank lines and repeated spaces from source files",
+            "  --budget <tokens>       fit the content into an estimated token budget",
+            "  --max-kb <n>            files above this size are copied as head and tail (default 1024)",
+            "  --ignore <patterns>     semicolon-separated .gitignore-style patterns to skip",
+            "                          (default .git/;.idea/;.gradle/;node_modules/)",
+            "  --charset <name>        charset of the files (default UTF-8)",
+            "  --threads <n>           number of reader threads");
+
+    private CopyMateCli() {
+    }
+
+    public static void main(String[] args) {
+        try {
+            System.exit(run(args));
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.println(USAGE);
+            System.exit(2);
+        } catch (IOException e) {
+            System.err.println("copy-mate: " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
+    static int run(String[] args) throws IOException {
+        Path output = null;
+        boolean structure = false;
+        boolean glyphs = false;
+        int maxDepth = 0;
+        int maxEntries = 0;
+        boolean methodsOnly = false;
+        boolean stripComments = false;
+        int budget = 0;
+        long maxKb = 1024;
+        String ignore = ".git/;.idea/;.gradle/;node_modules/";
+        Charset charset = StandardCharsets.UTF_8;
+        int threads = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+        List<String> positional = new ArrayList<>();
+
+        for (int i = 0; i < args.length; i++) {
+            String arg = args[i];
+            switch (arg) {
+                case "-h":
+                case "--help":
+                    System.out.println(USAGE);
+                    return 0;
+                case "-o":
+                case "--output":
+                    output = Paths.get(value(args, ++i, arg));
+                    break;
+                case "--structure":
+                    structure = true;
+                    break;
+                case "--glyphs":
+                    glyphs = true;
+                    break;
+                case "--max-depth":
+                    maxDepth = intValue(args, ++i, arg);
+                    break;
+                case "--max-entries":
+                    maxEntries = intValue(args, ++i, arg);
+                    break;
+                case "--methods-only":
+                    methodsOnly = true;
+                    break;
+                case "--strip-comments":
+                    stripComments = true;
+                    break;
+                case "--budget":
+                    budget = intValue(args, ++i, arg);
+                    break;
+                case "--max-kb":
+                    maxKb = intValue(args, ++i, arg);
+                    break;
+                case "--ignore":
+                    ignore = value(args, ++i, arg);
+                    break;
+                case "--charset":
+                    charset = Charset.forName(value(args, ++i, arg));
+                    break;
+                case "--threads":
+                    threads = intValue(args, ++i, arg);
+                    break;
+                default:
+                    if (arg.startsWith("-")) {
+                        throw new IllegalArgumentException("Unknown option: " + arg);
+                    }
+                    positional.add(arg);
+            }
+        }
+        if (positional.isEmpty()) {
+            throw new IllegalArgumentException("Missing <root>");
+        }
+
+        Path root = Paths.get(positional.get(0));
+        if (!Files.isDirectory(root)) {
+            throw new IllegalArgumentException("Not a directory: " + root);
+        }
+        // The output file may lie inside the tree, and must not end up in its own bundle
+        Set<Path> excluded = output == null ? Set.of() : Set.of(output.toAbsolutePath().normalize());
+        PathWalker<Path> walker = PathWalker.create(root.toAbsolutePath().normalize(),
+                DiskFileAccess.excluding(excluded), Arrays.asList(ignore.split(";")));
+        List<Path> selection = new ArrayList<>();
+        for (String path : positional.subList(1, positional.size())) {
+            Path selected = walker.getRoot().resolve(path).normalize();
+            if (!excluded.contains(selected)) {
+                selection.add(selected);
+            }
+        }
+        if (selection.isEmpty()) {
+            selection.add(walker.getRoot());
+        }
+
+        try (Writer out = output == null
+                ? new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                : Files.newBufferedWriter(output, StandardCharsets.UTF_8)) {
+            if (structure) {
+                new StructureWriter<>(walker, glyphs, maxDepth, maxEntries).write(selection, out);
+            } else {
+                BundleWriter.onDisk(walker, methodsOnly, stripComments, budget, maxKb * 1024, charset, threads)
+                        .write(walker.expand(selection), out);
+            }
+        }
+        return 0;
+    }
+
+    private static String value(String[] args, int index, String option) {
+        if (index >= args.length) {
+            throw new IllegalArgumentException("Missing value for " + option);
+        }
+        return args[index];
+    }
+
+    private static int intValue(String[] args, int index, String option) {
+        try {
+            return Integer.parseInt(value(args, index, option));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Not a number for " + option + ": " + args[index]);
+        }
+    }
+}
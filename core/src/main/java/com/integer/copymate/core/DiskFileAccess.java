@@ -0,0 +1,86 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.LinkOption;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link FileAccess} for files on disk.
+ */
+public final class DiskFileAccess implements FileAccess<Path> {
+    public static final DiskFileAccess INSTANCE = new DiskFileAccess(Set.of());
+
+    private final Set<Path> excluded;
+
+    private DiskFileAccess(Set<Path> excluded) {
+        this.excluded = excluded;
+    }
+
+    /**
+     * @param excluded absolute, normalized paths to leave out, e.g. the file the output is written to
+     */
+    public static DiskFileAccess excluding(Set<Path> excluded) {
+        return new DiskFileAccess(Set.copyOf(excluded));
+    }
+
+    @Override
+    public String name(Path file) {
+        return file.getFileName() == null ? file.toString() : file.getFileName().toString();
+    }
+
+    @Override
+    public String path(Path file) {
+        return file.toString().replace('\\', '/');
+    }
+
+    @Override
+    public Path parent(Path file) {
+        return file.getParent();
+    }
+
+    @Override
+    public boolean exists(Path file) {
+        return Files.exists(file);
+    }
+
+    @Override
+    public boolean isDirectory(Path file) {
+        return Files.isDirectory(file, LinkOption.NOFOLLOW_LINKS);
+    }
+
+    @Override
+    public List<Path> children(Path directory) throws IOException {
+        List<Path> children = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path child : stream) {
+                children.add(child);
+            }
+        }
+        return children;
+    }
+
+    @Override
+    public Path findFile(Path directory, String name) {
+        Path file = directory.resolve(name);
+        return Files.isRegularFile(file) ? file : null;
+    }
+
+    /**
+     * Decodes as UTF-8, replacing malformed bytes: a .gitignore saved in another encoding still applies.
+     */
+    @Override
+    public String loadText(Path file) throws IOException {
+        return new String(Files.readAllBytes(file), StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public boolean isExcluded(Path file) {
+        return excluded.contains(file);
+    }
+}
@@ -0,0 +1,226 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Locale;
+
+/**
+ * Output formats for exporting a bundle to a file. Entries are written one at a time, so a writer
+ * never holds more than the entry being written.
+ */
+public enum ExportFormat {
+    TEXT("Plain Text", "txt") {
+        @Override
+        public void writeEntry(Writer out, String path, EntryKind kind, CharSequence text) throws IOException {
+            out.write("File Path: ");
+            out.write(path);
+            out.write('\n');
+            out.write(kind.label);
+            out.write(kind == EntryKind.ERROR ? " " : ":\n");
+            out.append(text);
+            out.write("\n\n");
+        }
+    },
+
+    MARKDOWN("Markdown", "md") {
+        @Override
+        public void writeEntry(Writer out, String path, EntryKind kind, CharSequence text) throws IOException {
+            out.write("## ");
+            out.write(path);
+            out.write("\n\n");
+            if (kind == EntryKind.ERROR) {
+                out.write("> " + kind.label + " ");
+                out.append(text);
+                out.write("\n\n");
+                return;
+            }
+            if (kind == EntryKind.SIGNATURES) {
+                out.write("_" + kind.label + "_\n\n");
+            }
+            // The fence must be longer than any backtick run inside the text
+            String fence = "`".repeat(Math.max(3, longestRun(text, '`') + 1));
+            out.write(fence);
+            out.write(language(path));
+            out.write('\n');
+            out.append(text);
+            if (text.length() > 0 && text.charAt(text.length() - 1) != '\n') {
+                out.write('\n');
+            }
+            out.write(fence);
+            out.write("\n\n");
+        }
+    },
+
+    XML("XML", "xml") {
+        @Override
+        public void writeHeader(Writer out) throws IOException {
+            out.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<files>\n");
+        }
+
+        @Override
+        public void writeEntry(Writer out, String path, EntryKind kind, CharSequence text) throws IOException {
+            out.write("  <file path=\"");
+            out.write(escapeXmlAttribute(path));
+            out.write("\" kind=\"");
+            out.write(kind.name().toLowerCase(Locale.ROOT));
+            out.write("\"><![CDATA[");
+            // "]]>" cannot appear inside a CDATA section; split it across two sections
+            out.write(escapeXmlText(text));
+            out.write("]]></file>\n");
+        }
+
+        @Override
+        public void writeFooter(Writer out) throws IOException {
+            out.write("</files>\n");
+        }
+    },
+
+    JSONL("JSON Lines", "jsonl") {
+        @Override
+        public void writeEntry(Writer out, String path, EntryKind kind, CharSequence text) throws IOException {
+            out.write("{\"path\":");
+            writeJsonString(out, path);
+            out.write(",\"kind\":\"");
+            out.write(kind.name().toLowerCase(Locale.ROOT));
+            out.write("\",\"text\":");
+            writeJsonString(out, text);
+            out.write("}\n");
+        }
+    };
+
+    /**
+     * What an entry holds.
+     */
+    public enum EntryKind {
+        CONTENT("Content"),
+        SIGNATURES("Method Signatures"),
+        ERROR("Error reading file:");
+
+        private final String label;
+
+        EntryKind(String label) {
+            this.label = label;
+        }
+    }
+
+    private final String displayName;
+    private final String extension;
+
+    ExportFormat(String displayName, String extension) {
+        this.displayName = displayName;
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return displayName;
+    }
+
+    public void writeHeader(Writer out) throws IOException {
+    }
+
+    public abstract void writeEntry(Writer out, String path, EntryKind kind, CharSequence text) throws IOException;
+
+    public void writeFooter(Writer out) throws IOException {
+    }
+
+    private static int longestRun(CharSequence text, char c) {
+        int longest = 0;
+        int run = 0;
+        for (int i = 0; i < text.length(); i++) {
+            run = text.charAt(i) == c ? run + 1 : 0;
+            longest = Math.max(longest, run);
+        }
+        return longest;
+    }
+
+    private static String language(String path) {
+        int dot = path.lastIndexOf('.');
+        int slash = path.lastIndexOf('/');
+        return dot > slash ? path.substring(dot + 1) : "";
+    }
+
+    private static String escapeXmlAttribute(String value) {
+        return legalXmlChars(value).replace("&", "&amp;").replace("\"", "&quot;").replace("<", "&lt;");
+    }
+
+    private static String escapeXmlText(CharSequence text) {
+        return legalXmlChars(text).replace("]]>", "]]]]><![CDATA[>");
+    }
+
+    /**
+     * Replace the characters XML 1.0 does not allow even when escaped, such as most control characters
+     * and unpaired surrogates, by U+FFFD.
+     */
+    private static String legalXmlChars(CharSequence text) {
+        StringBuilder result = null;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                // A complete pair is above U+FFFF and always allowed
+                if (result != null) {
+                    result.append(c).append(text.charAt(i + 1));
+                }
+                i++;
+                continue;
+            }
+            boolean legal = c == '\t' || c == '\n' || c == '\r'
+                    || c >= 0x20 && c <= 0xFFFD && !Character.isSurrogate(c);
+            if (!legal && result == null) {
+                result = new StringBuilder(text.length()).append(text, 0, i);
+            }
+            if (result != null) {
+                result.append(legal ? c : '\uFFFD');
+            }
+        }
+        return result == null ? text.toString() : result.toString();
+    }
+
+    /**
+     * Write a JSON string literal. Unpaired surrogates are replaced by U+FFFD as in XML, since they
+     * cannot be encoded in UTF-8 and strict parsers reject them.
+     */
+    private static void writeJsonString(Writer out, CharSequence text) throws IOException {
+        out.write('"');
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (Character.isSurrogate(c)) {
+                if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                    out.write(c);
+                    out.write(text.charAt(++i));
+                } else {
+                    out.write('\uFFFD');
+                }
+                continue;
+            }
+            switch (c) {
+                case '"':
+                    out.write("\\\"");
+                    break;
+                case '\\':
+                    out.write("\\\\");
+                    break;
+                case '\n':
+                    out.write("\\n");
+                    break;
+                case '\r':
+                    out.write("\\r");
+                    break;
+                case '\t':
+                    out.write("\\t");
+                    break;
+                default:
+                    if (c < 0x20) {
+                        out.write(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.write(c);
+                    }
+            }
+        }
+        out.write('"');
+    }
+}
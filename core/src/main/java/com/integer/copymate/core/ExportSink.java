@@ -0,0 +1,84 @@
+package com.integer.copymate.core;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Opens the UTF-8 writer an export streams into: a buffered file channel, optionally gzip-compressed or
+ * wrapped as the single entry of a zip archive.
+ */
+public final class ExportSink {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * How the exported file is packaged.
+     */
+    public enum Packaging {
+        NONE("No Compression", ""),
+        GZIP("Gzip", ".gz"),
+        ZIP("Zip Archive", ".zip");
+
+        private final String displayName;
+        private final String suffix;
+
+        Packaging(String displayName, String suffix) {
+            this.displayName = displayName;
+            this.suffix = suffix;
+        }
+
+        /**
+         * @return the suffix appended to the format's file name, e.g. ".gz"
+         */
+        public String getSuffix() {
+            return suffix;
+        }
+
+        @Override
+        public String toString() {
+            return displayName;
+        }
+    }
+
+    private ExportSink() {
+    }
+
+    /**
+     * @param entryName name of the file inside a zip archive, ignored for other packagings
+     */
+    public static Writer open(Path target, Packaging packaging, String entryName) throws IOException {
+        FileChannel channel = FileChannel.open(target,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        OutputStream out = new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE);
+        try {
+            switch (packaging) {
+                case GZIP:
+                    out = new GZIPOutputStream(out, BUFFER_SIZE);
+                    break;
+                case ZIP:
+                    ZipOutputStream zip = new ZipOutputStream(out, StandardCharsets.UTF_8);
+                    zip.putNextEntry(new ZipEntry(entryName));
+                    out = zip;
+                    break;
+                default:
+                    break;
+            }
+        } catch (IOException e) {
+            out.close();
+            throw e;
+        }
+        // Closing the writer finishes the gzip trailer or zip directory and closes the channel
+        return new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+}
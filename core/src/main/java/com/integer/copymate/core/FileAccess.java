@@ -0,0 +1,52 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * The few file operations the engine needs, so that walking, structure rendering and bundle assembly
+ * run unchanged on files on disk (the command line) and on the IDE's virtual files (the plugin).
+ *
+ * @param <F> the file handle
+ */
+public interface FileAccess<F> {
+
+    String name(F file);
+
+    /**
+     * @return the absolute path with '/' separators
+     */
+    String path(F file);
+
+    /**
+     * @return the containing directory, or null for a file system root
+     */
+    F parent(F file);
+
+    boolean exists(F file);
+
+    /**
+     * Whether the file is a directory to descend into; symbolic links to directories are not followed.
+     */
+    boolean isDirectory(F file);
+
+    /**
+     * @return the children of a directory, in any order
+     */
+    List<F> children(F directory) throws IOException;
+
+    /**
+     * @return the regular file with the given name in a directory, or null if there is none
+     */
+    F findFile(F directory, String name);
+
+    String loadText(F file) throws IOException;
+
+    /**
+     * Whether the host always leaves the file out, whatever the ignore rules say, e.g. the IDE's
+     * excluded folders.
+     */
+    default boolean isExcluded(F file) {
+        return false;
+    }
+}
@@ -0,0 +1,281 @@
+package com.integer.copymate.core;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled form of one {@code .gitignore} file (or of a list of patterns in the same syntax).
+ * <p>
+ * Literal patterns, which make up most real ignore files, are indexed in hash maps by name and by
+ * relative path; only patterns with wildcards are kept as compiled regular expressions. Git's
+ * "last matching pattern wins" rule is preserved by remembering the position of every pattern.
+ * Paths are expected to be checked top-down: a directory that is ignored is pruned by the caller,
+ * so its descendants never need to be matched against the directory pattern.
+ */
+public final class GitIgnoreRules {
+    public static final GitIgnoreRules EMPTY = new GitIgnoreRules();
+
+    // Position of the last literal pattern per name / per relative path
+    private final Map<String, Integer> names = new HashMap<>();
+    private final Map<String, Integer> directoryNames = new HashMap<>();
+    private final Map<String, Integer> paths = new HashMap<>();
+    private final Map<String, Integer> directoryPaths = new HashMap<>();
+    private final List<Glob> globs = new ArrayList<>();
+    private final List<Boolean> negated = new ArrayList<>();
+
+    private GitIgnoreRules() {
+    }
+
+    /**
+     * Compile the lines of an ignore file.
+     */
+    public static GitIgnoreRules parse(CharSequence text) {
+        GitIgnoreRules rules = new GitIgnoreRules();
+        int start = 0;
+        int length = text.length();
+        while (start < length) {
+            int end = start;
+            while (end < length && text.charAt(end) != '\n') {
+                end++;
+            }
+            rules.add(text.subSequence(start, end).toString());
+            start = end + 1;
+        }
+        return rules;
+    }
+
+    /**
+     * Compile patterns given one per element, e.g. user-configured globs.
+     */
+    public static GitIgnoreRules of(Iterable<String> patterns) {
+        GitIgnoreRules rules = new GitIgnoreRules();
+        for (String pattern : patterns) {
+            rules.add(pattern);
+        }
+        return rules;
+    }
+
+    public boolean isEmpty() {
+        return negated.isEmpty();
+    }
+
+    /**
+     * @param relativePath path relative to the directory holding the rules, '/' separated
+     * @param name         last segment of the path
+     * @param directory    whether the path denotes a directory
+     * @return TRUE if ignored, FALSE if explicitly re-included by a negated pattern, null if no pattern matches
+     */
+    public Boolean match(String relativePath, String name, boolean directory) {
+        if (negated.isEmpty()) {
+            return null;
+        }
+
+        int best = max(-1, names.get(name));
+        best = max(best, paths.get(relativePath));
+        if (directory) {
+            best = max(best, directoryNames.get(name));
+            best = max(best, directoryPaths.get(relativePath));
+        }
+
+        // Only globs declared after the best literal match can override it
+        for (int i = globs.size() - 1; i >= 0; i--) {
+            Glob glob = globs.get(i);
+            if (glob.index <= best) {
+                break;
+            }
+            if ((directory || !glob.directoryOnly)
+                    && glob.pattern.matcher(glob.anchored ? relativePath : name).matches()) {
+                best = glob.index;
+                break;
+            }
+        }
+
+        return best < 0 ? null : !negated.get(best);
+    }
+
+    private void add(String line) {
+        String pattern = stripTrailingSpaces(line);
+        if (pattern.isEmpty() || pattern.startsWith("#")) {
+            return;
+        }
+
+        boolean negate = false;
+        if (pattern.startsWith("!")) {
+            negate = true;
+            pattern = pattern.substring(1);
+        } else if (pattern.startsWith("\\#") || pattern.startsWith("\\!")) {
+            pattern = pattern.substring(1);
+        }
+
+        boolean directoryOnly = pattern.endsWith("/");
+        if (directoryOnly) {
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+
+        // A slash anywhere but at the end anchors the pattern to this directory
+        boolean anchored = pattern.indexOf('/') >= 0;
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.isEmpty()) {
+            return;
+        }
+
+        int index = negated.size();
+        negated.add(negate);
+
+        if (!hasWildcard(pattern)) {
+            Map<String, Integer> target = anchored
+                    ? (directoryOnly ? directoryPaths : paths)
+                    : (directoryOnly ? directoryNames : names);
+            target.put(pattern, index);
+        } else {
+            globs.add(new Glob(index, anchored, directoryOnly, Pattern.compile(toRegex(pattern))));
+        }
+    }
+
+    private static int max(int best, Integer candidate) {
+        return candidate != null && candidate > best ? candidate : best;
+    }
+
+    private static String stripTrailingSpaces(String line) {
+        int end = line.length();
+        while (end > 0 && (line.charAt(end - 1) == ' ' || line.charAt(end - 1) == '\r' || line.charAt(end - 1) == '\t')
+                && !(end > 1 && line.charAt(end - 2) == '\\')) {
+            end--;
+        }
+        return line.substring(0, end);
+    }
+
+    private static boolean hasWildcard(String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            char c = pattern.charAt(i);
+            if (c == '*' || c == '?' || c == '[' || c == '\\') {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Translate gitignore glob syntax into a regular expression over '/' separated paths.
+     */
+    public static String toRegex(String glob) {
+        StringBuilder regex = new StringBuilder(glob.length() * 2);
+        int i = 0;
+        int length = glob.length();
+        while (i < length) {
+            char c = glob.charAt(i);
+            if (c == '*' && i + 1 < length && glob.charAt(i + 1) == '*') {
+                boolean leadingSlash = i == 0 || glob.charAt(i - 1) == '/';
+                boolean trailingSlash = i + 2 < length && glob.charAt(i + 2) == '/';
+                if (leadingSlash && trailingSlash) {
+                    regex.append("(?:.*/)?");  // "**/" matches zero or more directories
+                    i += 3;
+                } else {
+                    regex.append(".*");
+                    i += 2;
+                }
+                continue;
+            }
+
+            switch (c) {
+                case '*':
+                    regex.append("[^/]*");
+                    break;
+                case '?':
+                    regex.append("[^/]");
+                    break;
+                case '[': {
+                    int close = glob.indexOf(']', i + 2);
+                    if (close < 0) {
+                        regex.append("\\[");
+                        break;
+                    }
+                    String set = glob.substring(i + 1, close);
+                    if (set.startsWith("!")) {
+                        set = "^" + set.substring(1);
+                    }
+                    regex.append('[').append(set.replace("\\", "\\\\")).append(']');
+                    i = close;
+                    break;
+                }
+                case '\\':
+                    if (i + 1 < length) {
+                        i++;
+                        regex.append(Pattern.quote(String.valueOf(glob.charAt(i))));
+                    }
+                    break;
+                default:
+                    if ("().+^$|{}".indexOf(c) >= 0) {
+                        regex.append('\\');
+                    }
+                    regex.append(c);
+            }
+            i++;
+        }
+        return regex.toString();
+    }
+
+    /**
+     * Escape the glob metacharacters of a literal path, so that {@link #toRegex} matches it verbatim.
+     */
+    public static String escape(String text) {
+        StringBuilder escaped = new StringBuilder(text.length());
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if ("*?[\\".indexOf(c) >= 0) {
+                escaped.append('\\');
+            }
+            escaped.append(c);
+        }
+        return escaped.toString();
+    }
+
+    /**
+     * Undo {@link #escape} on the literal part of a glob.
+     */
+    public static String unescape(String glob) {
+        StringBuilder text = new StringBuilder(glob.length());
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\' && i + 1 < glob.length()) {
+                c = glob.charAt(++i);
+            }
+            text.append(c);
+        }
+        return text.toString();
+    }
+
+    /**
+     * @return the index of the first unescaped wildcard of a glob, or its length if there is none
+     */
+    public static int indexOfWildcard(String glob) {
+        for (int i = 0; i < glob.length(); i++) {
+            char c = glob.charAt(i);
+            if (c == '\\') {
+                i++;
+            } else if (c == '*' || c == '?' || c == '[') {
+                return i;
+            }
+        }
+        return glob.length();
+    }
+
+    private static final class Glob {
+        private final int index;
+        private final boolean anchored;
+        private final boolean directoryOnly;
+        private final Pattern pattern;
+
+        Glob(int index, boolean anchored, boolean directoryOnly, Pattern pattern) {
+            this.index = index;
+            this.anchored = anchored;
+            this.directoryOnly = directoryOnly;
+            this.pattern = pattern;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.integer.copymate.core;
+
+/**
+ * Outline of a Go source file: the package clause, struct and interface types with their fields and
+ * methods, other type declarations, function and method signatures without bodies, and package-level
+ * variables and constants without their values.
+ * <p>
+ * Scans the text once with a small lexer. Statements end where Go inserts semicolons, so signatures
+ * wrapped over several lines are kept whole. Imports and comments are left out.
+ */
+public final class GoOutlineExtractor extends BraceOutliner {
+    private GoOutlineExtractor(CharSequence src) {
+        super(src);
+    }
+
+    /**
+     * Build the outline of a Go file.
+     */
+    public static String extract(CharSequence text) {
+        return new GoOutlineExtractor(text).run();
+    }
+
+    @Override
+    protected boolean skipCommentOrLiteral() {
+        char c = src.charAt(pos);
+        if (c == '/' && peek(1) == '/') {
+            pos = lineCommentEnd();
+            return true;
+        }
+        if (c == '/' && peek(1) == '*') {
+            pos = blockCommentEnd(false);
+            return true;
+        }
+        if (c == '"' || c == '\'') {
+            literal(quotedEnd(c, false));
+            return true;
+        }
+        if (c == '`') {
+            int end = pos + 1;
+            while (end < length && src.charAt(end) != '`') {
+                end++;
+            }
+            literal(Math.min(length, end + 1));
+            return true;
+        }
+        return false;
+    }
+
+    @Override
+    protected Kind classify(String[] words, boolean inContainer) {
+        if (inContainer) {
+            String last = words[words.length - 1];
+            return last.equals("struct") || last.equals("interface") ? Kind.CONTAINER : Kind.MEMBER;
+        }
+        switch (keyword(words)) {
+            case "type":
+                String last = words[words.length - 1];
+                return last.equals("struct") || last.equals("interface") ? Kind.CONTAINER : Kind.MEMBER;
+            case "package":
+            case "func":
+            case "var":
+            case "const":
+                return Kind.MEMBER;
+            default:
+                return Kind.DROP;
+        }
+    }
+
+    @Override
+    protected boolean isModifier(String word) {
+        return false;
+    }
+
+    @Override
+    protected boolean insertsSemicolons() {
+        return true;
+    }
+
+    @Override
+    protected boolean keepsInitializer(String[] words) {
+        return keyword(words).equals("type");
+    }
+
+    /**
+     * Go's semicolon insertion: a line ending in an identifier, literal, closing bracket or
+     * increment ends the statement, anything else continues it.
+     */
+    @Override
+    protected boolean continuesAfterNewline(CharSequence statement) {
+        int last = statement.length() - 1;
+        while (last >= 0 && statement.charAt(last) == ' ') {
+            last--;
+        }
+        if (last < 0) {
+            return false;
+        }
+        char c = statement.charAt(last);
+        if (Character.isJavaIdentifierPart(c) || ")]}\"'`".indexOf(c) >= 0) {
+            return false;
+        }
+        boolean increment = last > 0 && (c == '+' || c == '-') && statement.charAt(last - 1) == c;
+        return !increment;
+    }
+}
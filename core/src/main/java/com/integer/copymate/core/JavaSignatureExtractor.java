@@ -0,0 +1,491 @@
+package com.integer.copymate.core;
+
+/**
+ * Extracts the package, type declarations and method signatures from Java source text.
+ * <p>
+ * The source is scanned once, character by character. Comments and string, char and text block
+ * literals are skipped so braces inside them never disturb the nesting depth, annotations are
+ * dropped, and declarations spanning several lines are collapsed onto one. Nested and inner types,
+ * records and sealed hierarchies are emitted with their members indented under the enclosing type.
+ */
+public final class JavaSignatureExtractor {
+    private static final String INDENT = "    ";
+
+    // Kinds of brace-delimited regions on the nesting stack
+    private static final byte TOP = 0;           // compilation unit, outside any type
+    private static final byte TYPE = 1;          // class, interface, record or annotation body
+    private static final byte ENUM_CONSTANTS = 2; // enum body before the first ';'
+    private static final byte BLOCK = 3;         // method body, initializer, anonymous class...
+    private static final byte INLINE_BLOCK = 4;  // block opened inside the parentheses of a declaration
+
+    // Results of classifying a declaration
+    private static final int OTHER = 0;
+    private static final int TYPE_DECLARATION = 1;
+    private static final int METHOD_DECLARATION = 2;
+
+    private final CharSequence src;
+    private final int length;
+    private final StringBuilder out;
+    private final StringBuilder decl = new StringBuilder(128);
+
+    private byte[] stack = new byte[16];
+    private int depth;
+    private int typeLevel;
+    private int parenDepth;
+    private boolean packageSeen;
+    private int pos;
+
+    private JavaSignatureExtractor(CharSequence src) {
+        this.src = src;
+        this.length = src.length();
+        this.out = new StringBuilder(Math.min(length / 4 + 64, 1 << 16));
+        stack[0] = TOP;
+    }
+
+    /**
+     * @param src Java source text
+     * @return the signature outline of the source
+     */
+    public static String extract(CharSequence src) {
+        return new JavaSignatureExtractor(src).scan();
+    }
+
+    private String scan() {
+        while (pos < length) {
+            char c = src.charAt(pos);
+
+            if (c == '/' && pos + 1 < length) {
+                char next = src.charAt(pos + 1);
+                if (next == '/') {
+                    skipLineComment();
+                    whitespace();
+                    continue;
+                }
+                if (next == '*') {
+                    skipBlockComment();
+                    whitespace();
+                    continue;
+                }
+            }
+            byte kind = stack[depth];
+            if (c == '"' || c == '\'') {
+                int start = pos;
+                if (c == '"') {
+                    skipStringOrTextBlock();
+                } else {
+                    skipCharLiteral();
+                }
+                if (kind != BLOCK && kind != INLINE_BLOCK) {
+                    decl.append(src, start, pos);
+                }
+                continue;
+            }
+
+            if (kind == BLOCK || kind == INLINE_BLOCK) {
+                if (c == '{') {
+                    push(BLOCK);
+                } else if (c == '}') {
+                    pop();
+                }
+                pos++;
+                continue;
+            }
+
+            // Declaration context: top level, type body or enum constant list
+            switch (c) {
+                case '(':
+                    parenDepth++;
+                    decl.append(c);
+                    break;
+                case ')':
+                    if (parenDepth > 0) {
+                        parenDepth--;
+                    }
+                    trimTrailingSpace();
+                    decl.append(c);
+                    break;
+                case '{':
+                    if (parenDepth > 0) {
+                        push(INLINE_BLOCK);
+                    } else {
+                        openBrace(kind);
+                    }
+                    break;
+                case '}':
+                    closeType();
+                    break;
+                case ';':
+                    if (parenDepth > 0) {
+                        decl.append(c);
+                    } else {
+                        semicolon(kind);
+                    }
+                    break;
+                case ',':
+                    if (kind == ENUM_CONSTANTS && parenDepth == 0) {
+                        resetDeclaration();
+                    } else {
+                        decl.append(c);
+                    }
+                    break;
+                case '@':
+                    if (!startsWithWord(src, pos + 1, "interface")) {
+                        skipAnnotation();
+                        whitespace();
+                        continue;
+                    }
+                    decl.append(c);
+                    break;
+                default:
+                    if (Character.isWhitespace(c)) {
+                        whitespace();
+                    } else {
+                        decl.append(c);
+                    }
+            }
+            pos++;
+        }
+
+        // In case we didn't close the types properly
+        while (depth > 0) {
+            if (stack[depth] == TYPE || stack[depth] == ENUM_CONSTANTS) {
+                typeLevel--;
+                indent(typeLevel);
+                out.append("}\n");
+            }
+            depth--;
+        }
+        return out.toString();
+    }
+
+    private void openBrace(byte kind) {
+        if (kind == ENUM_CONSTANTS) {
+            // Body of an enum constant
+            push(BLOCK);
+            resetDeclaration();
+            return;
+        }
+
+        int start = declarationStart();
+        switch (classify(start)) {
+            case TYPE_DECLARATION:
+                indent(typeLevel);
+                out.append(decl, start, declarationEnd()).append(" {\n");
+                push(isEnum(start) ? ENUM_CONSTANTS : TYPE);
+                typeLevel++;
+                break;
+            case METHOD_DECLARATION:
+                indent(typeLevel);
+                out.append(decl, start, declarationEnd()).append(" {}\n");
+                push(BLOCK);
+                break;
+            default:
+                // Initializer blocks, field initializers with lambdas or anonymous classes
+                push(BLOCK);
+        }
+        resetDeclaration();
+    }
+
+    private void semicolon(byte kind) {
+        int start = declarationStart();
+        if (kind == ENUM_CONSTANTS) {
+            stack[depth] = TYPE;
+        } else if (kind == TOP) {
+            if (!packageSeen && startsWithWord(decl, start, "package")) {
+                packageSeen = true;
+                out.append(decl, start, declarationEnd()).append(";\n\n");
+            }
+        } else if (classify(start) == METHOD_DECLARATION) {
+            // Abstract, interface and annotation methods
+            indent(typeLevel);
+            out.append(decl, start, declarationEnd()).append(";\n");
+        }
+        resetDeclaration();
+    }
+
+    private void closeType() {
+        resetDeclaration();
+        if (depth == 0) {
+            return;  // Unbalanced brace, ignore it
+        }
+        depth--;
+        typeLevel--;
+        indent(typeLevel);
+        out.append(typeLevel == 0 ? "}\n\n" : "}\n");
+    }
+
+    private void push(byte kind) {
+        if (++depth == stack.length) {
+            byte[] grown = new byte[stack.length * 2];
+            System.arraycopy(stack, 0, grown, 0, stack.length);
+            stack = grown;
+        }
+        stack[depth] = kind;
+    }
+
+    private void pop() {
+        byte closed = stack[depth];
+        if (depth > 0) {
+            depth--;
+        }
+        // A finished member body ends its declaration; an inline block belongs to the one in progress
+        if (closed == BLOCK && stack[depth] != BLOCK && stack[depth] != INLINE_BLOCK) {
+            resetDeclaration();
+        }
+    }
+
+    private void resetDeclaration() {
+        decl.setLength(0);
+        parenDepth = 0;
+    }
+
+    private void whitespace() {
+        int last = decl.length() - 1;
+        if (last >= 0 && decl.charAt(last) != ' ' && decl.charAt(last) != '(') {
+            decl.append(' ');
+        }
+    }
+
+    private void trimTrailingSpace() {
+        int last = decl.length() - 1;
+        if (last >= 0 && decl.charAt(last) == ' ') {
+            decl.setLength(last);
+        }
+    }
+
+    private void indent(int level) {
+        for (int i = 0; i < level; i++) {
+            out.append(INDENT);
+        }
+    }
+
+    private int declarationStart() {
+        int start = 0;
+        while (start < decl.length() && decl.charAt(start) == ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private int declarationEnd() {
+        int end = decl.length();
+        while (end > 0 && decl.charAt(end - 1) == ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Decide whether the pending declaration introduces a type, a method or something else.
+     * Only tokens outside parentheses and type arguments are considered.
+     */
+    private int classify(int start) {
+        int end = declarationEnd();
+        if (start >= end) {
+            return OTHER;
+        }
+
+        int parens = 0;
+        int angles = 0;
+        boolean assignment = false;
+        char previous = ' ';
+        int i = start;
+        while (i < end) {
+            char c = decl.charAt(i);
+            if (parens == 0 && angles == 0 && Character.isJavaIdentifierStart(c)) {
+                int wordEnd = i + 1;
+                while (wordEnd < end && Character.isJavaIdentifierPart(decl.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                if (previous != '.' && isTypeKeyword(i, wordEnd, end)) {
+                    return TYPE_DECLARATION;
+                }
+                previous = decl.charAt(wordEnd - 1);
+                i = wordEnd;
+                continue;
+            }
+
+            if (c == '(') {
+                if (parens == 0 && angles == 0 && !assignment) {
+                    return METHOD_DECLARATION;
+                }
+                parens++;
+            } else if (c == ')') {
+                parens--;
+            } else if (c == '<' && parens == 0) {
+                angles++;
+            } else if (c == '>' && parens == 0 && angles > 0) {
+                angles--;
+            } else if (c == '=' && parens == 0 && angles == 0) {
+                assignment = true;
+            }
+            if (c != ' ') {
+                previous = c;
+            }
+            i++;
+        }
+        return OTHER;
+    }
+
+    private boolean isTypeKeyword(int from, int to, int end) {
+        int length = to - from;
+        if (length == 5 && regionMatches(from, "class")
+                || length == 9 && regionMatches(from, "interface")
+                || length == 4 && regionMatches(from, "enum")) {
+            return true;
+        }
+        if (length == 6 && regionMatches(from, "record")) {
+            // Contextual keyword: record Name( or record Name<
+            int i = to;
+            while (i < end && decl.charAt(i) == ' ') {
+                i++;
+            }
+            if (i == to || i == end || !Character.isJavaIdentifierStart(decl.charAt(i))) {
+                return false;
+            }
+            while (i < end && Character.isJavaIdentifierPart(decl.charAt(i))) {
+                i++;
+            }
+            while (i < end && decl.charAt(i) == ' ') {
+                i++;
+            }
+            return i < end && (decl.charAt(i) == '(' || decl.charAt(i) == '<');
+        }
+        return false;
+    }
+
+    private boolean isEnum(int start) {
+        int end = declarationEnd();
+        int i = start;
+        while (i < end) {
+            if (Character.isJavaIdentifierStart(decl.charAt(i))) {
+                int wordEnd = i + 1;
+                while (wordEnd < end && Character.isJavaIdentifierPart(decl.charAt(wordEnd))) {
+                    wordEnd++;
+                }
+                if (wordEnd - i == 4 && regionMatches(i, "enum")) {
+                    return true;
+                }
+                if (isTypeKeyword(i, wordEnd, end)) {
+                    return false;
+                }
+                i = wordEnd;
+            } else {
+                i++;
+            }
+        }
+        return false;
+    }
+
+    private boolean regionMatches(int from, String word) {
+        for (int i = 0; i < word.length(); i++) {
+            if (decl.charAt(from + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean startsWithWord(CharSequence text, int from, String word) {
+        int end = from + word.length();
+        if (end > text.length()) {
+            return false;
+        }
+        for (int i = 0; i < word.length(); i++) {
+            if (text.charAt(from + i) != word.charAt(i)) {
+                return false;
+            }
+        }
+        return end == text.length() || !Character.isJavaIdentifierPart(text.charAt(end));
+    }
+
+    private void skipLineComment() {
+        while (pos < length && src.charAt(pos) != '\n') {
+            pos++;
+        }
+    }
+
+    private void skipBlockComment() {
+        pos += 2;
+        while (pos < length && !(src.charAt(pos) == '*' && pos + 1 < length && src.charAt(pos + 1) == '/')) {
+            pos++;
+        }
+        pos = Math.min(pos + 2, length);
+    }
+
+    private void skipStringOrTextBlock() {
+        if (pos + 2 < length && src.charAt(pos + 1) == '"' && src.charAt(pos + 2) == '"') {
+            pos += 3;
+            while (pos < length) {
+                char c = src.charAt(pos);
+                if (c == '\\') {
+                    pos += 2;
+                } else if (c == '"' && pos + 2 < length && src.charAt(pos + 1) == '"' && src.charAt(pos + 2) == '"') {
+                    pos += 3;
+                    return;
+                } else {
+                    pos++;
+                }
+            }
+            return;
+        }
+        skipQuoted('"');
+    }
+
+    private void skipCharLiteral() {
+        skipQuoted('\'');
+    }
+
+    private void skipQuoted(char quote) {
+        pos++;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+            } else if (c == quote || c == '\n') {
+                pos++;
+                return;
+            } else {
+                pos++;
+            }
+        }
+    }
+
+    /**
+     * Skip an annotation: its (qualified) name and an optional parenthesized argument list.
+     */
+    private void skipAnnotation() {
+        pos++;
+        while (pos < length && (Character.isJavaIdentifierPart(src.charAt(pos)) || src.charAt(pos) == '.')) {
+            pos++;
+        }
+        int save = pos;
+        while (pos < length && Character.isWhitespace(src.charAt(pos))) {
+            pos++;
+        }
+        if (pos >= length || src.charAt(pos) != '(') {
+            pos = save;
+            return;
+        }
+
+        int parens = 0;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '"') {
+                skipStringOrTextBlock();
+                continue;
+            }
+            if (c == '\'') {
+                skipCharLiteral();
+                continue;
+            }
+            if (c == '(') {
+                parens++;
+            } else if (c == ')' && --parens == 0) {
+                pos++;
+                return;
+            }
+            pos++;
+        }
+    }
+}
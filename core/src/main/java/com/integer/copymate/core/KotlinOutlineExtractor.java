@@ -0,0 +1,159 @@
+package com.integer.copymate.core;
+
+import java.util.Set;
+
+/**
+ * Outline of a Kotlin source file: package, classes, objects and interfaces with their members,
+ * function signatures without bodies and property declarations without initializers.
+ * <p>
+ * Scans the text once with a small lexer, so it works on incomplete code and needs no compiler.
+ * Imports, annotations, comments and {@code init} blocks are left out.
+ */
+public final class KotlinOutlineExtractor extends BraceOutliner {
+    private static final Set<String> MODIFIERS = Set.of(
+            "public", "private", "protected", "internal", "open", "abstract", "final", "override", "sealed",
+            "data", "inline", "value", "inner", "enum", "annotation", "companion", "suspend", "operator",
+            "infix", "tailrec", "external", "const", "lateinit", "expect", "actual");
+
+    private KotlinOutlineExtractor(CharSequence src) {
+        super(src);
+    }
+
+    /**
+     * Build the outline of a Kotlin file.
+     */
+    public static String extract(CharSequence text) {
+        return new KotlinOutlineExtractor(text).run();
+    }
+
+    @Override
+    protected boolean skipCommentOrLiteral() {
+        char c = src.charAt(pos);
+        if (c == '/' && peek(1) == '/') {
+            pos = lineCommentEnd();
+            return true;
+        }
+        if (c == '/' && peek(1) == '*') {
+            pos = blockCommentEnd(true);
+            return true;
+        }
+        if (c == '"') {
+            literal(stringEnd(pos));
+            return true;
+        }
+        if (c == '\'') {
+            literal(quotedEnd('\'', false));
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * End of a string starting at {@code start}, including raw strings and {@code ${...}} templates
+     * that may themselves contain strings and braces.
+     */
+    private int stringEnd(int start) {
+        boolean raw = start + 2 < length && src.charAt(start + 1) == '"' && src.charAt(start + 2) == '"';
+        int i = start + (raw ? 3 : 1);
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\' && !raw) {
+                i += 2;
+            } else if (c == '$' && i + 1 < length && src.charAt(i + 1) == '{') {
+                i = templateEnd(i + 2);
+            } else if (c == '"') {
+                if (!raw) {
+                    return i + 1;
+                }
+                if (i + 2 < length && src.charAt(i + 1) == '"' && src.charAt(i + 2) == '"') {
+                    // Extra quotes before the closing delimiter belong to the string
+                    i += 3;
+                    while (i < length && src.charAt(i) == '"') {
+                        i++;
+                    }
+                    return i;
+                }
+                i++;
+            } else if (c == '\n' && !raw) {
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private int templateEnd(int from) {
+        int depth = 1;
+        int i = from;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '"') {
+                i = stringEnd(i);
+                continue;
+            }
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    @Override
+    protected Kind classify(String[] words, boolean inContainer) {
+        String keyword = keyword(words);
+        switch (keyword) {
+            case "class":
+            case "interface":
+            case "object":
+                return Kind.CONTAINER;
+            case "fun":
+                return words.length > 1 && words[1].equals("interface") ? Kind.CONTAINER : Kind.MEMBER;
+            case "package":
+            case "val":
+            case "var":
+            case "constructor":
+            case "typealias":
+                return Kind.MEMBER;
+            case "import":
+            case "init":
+            case "get":
+            case "set":
+                return Kind.DROP;
+            default:
+                // Enum entries and the like
+                return inContainer ? Kind.MEMBER : Kind.DROP;
+        }
+    }
+
+    @Override
+    protected boolean isModifier(String word) {
+        return MODIFIERS.contains(word);
+    }
+
+    @Override
+    protected boolean keepsInitializer(String[] words) {
+        return keyword(words).equals("typealias");
+    }
+
+    @Override
+    protected boolean annotations() {
+        return true;
+    }
+
+    @Override
+    protected boolean continuesAfterNewline(CharSequence statement) {
+        int last = statement.length() - 1;
+        while (last >= 0 && statement.charAt(last) == ' ') {
+            last--;
+        }
+        if (last < 0) {
+            return false;
+        }
+        char c = statement.charAt(last);
+        return ",.=+-*/&|:<(".indexOf(c) >= 0 || c == '>' && last > 0 && statement.charAt(last - 1) == '-';
+    }
+}
@@ -0,0 +1,47 @@
+package com.integer.copymate.core;
+
+import java.util.Locale;
+import java.util.function.Function;
+
+/**
+ * The text-based outline extractors by file name extension.
+ */
+public final class Outlines {
+
+    private Outlines() {
+    }
+
+    /**
+     * @param fileName a file name or path
+     * @return the extractor for the file's language, or null if its outline is not supported
+     */
+    public static Function<CharSequence, String> forFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return null;
+        }
+        switch (fileName.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "java":
+                return JavaSignatureExtractor::extract;
+            case "kt":
+            case "kts":
+                return KotlinOutlineExtractor::extract;
+            case "py":
+            case "pyi":
+                return PythonOutlineExtractor::extract;
+            case "ts":
+            case "tsx":
+            case "mts":
+            case "cts":
+            case "js":
+            case "jsx":
+            case "mjs":
+            case "cjs":
+                return TypeScriptOutlineExtractor::extract;
+            case "go":
+                return GoOutlineExtractor::extract;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Lists the files of a directory tree the way the plugin's file tree shows them, for files on disk and
+ * for the IDE's virtual files alike.
+ * <p>
+ * Every {@code .gitignore} from the root down and a list of user patterns in the same syntax are
+ * honored, together with the exclusions of the {@link FileAccess}; ignored directories are pruned before
+ * they are opened. Children are listed in name order and symbolic links to directories are not followed.
+ * The {@code .gitignore} chain of each directory is compiled once and shared by all of its children;
+ * the cache may be used from several threads, and a walker that outlives changes to the tree drops the
+ * chains below a changed directory with {@link #forget}.
+ *
+ * @param <F> the file handle
+ */
+public final class PathWalker<F> {
+    public static final String GITIGNORE = ".gitignore";
+
+    private final F root;
+    private final String rootPrefix;
+    private final FileAccess<F> files;
+    private final GitIgnoreRules userRules;
+    private final Comparator<F> byName;
+    private final Map<F, List<Scope>> scopeChains = new ConcurrentHashMap<>();
+
+    private PathWalker(F root, FileAccess<F> files, GitIgnoreRules userRules) {
+        this.root = root;
+        this.rootPrefix = root == null ? null : withSlash(files.path(root));
+        this.files = files;
+        this.userRules = userRules;
+        this.byName = Comparator.comparing(files::name);
+    }
+
+    /**
+     * @param root         project root; paths in the output are relative to it
+     * @param userPatterns extra .gitignore-style patterns, relative to the root
+     */
+    public static PathWalker<Path> create(Path root, Iterable<String> userPatterns) {
+        return create(root.toAbsolutePath().normalize(), DiskFileAccess.INSTANCE, userPatterns);
+    }
+
+    /**
+     * @param root         project root, or null if there is none: then only the exclusions of the file
+     *                     access apply
+     * @param userPatterns extra .gitignore-style patterns, relative to the root
+     */
+    public static <F> PathWalker<F> create(F root, FileAccess<F> files, Iterable<String> userPatterns) {
+        return new PathWalker<>(root, files, GitIgnoreRules.of(userPatterns));
+    }
+
+    public F getRoot() {
+        return root;
+    }
+
+    public FileAccess<F> getFileAccess() {
+        return files;
+    }
+
+    /**
+     * @return the path relative to the root with '/' separators, or the absolute path of a file
+     * outside the root
+     */
+    public String relativePath(F file) {
+        return relativize(files.path(file));
+    }
+
+    /**
+     * @param path absolute path with '/' separators
+     * @return the path relative to the root, or the path itself outside the root
+     */
+    public String relativize(String path) {
+        return isBelowRoot(path) ? path.substring(rootPrefix.length()) : path;
+    }
+
+    /**
+     * Replace every directory in the selection by the files beneath it, keeping selection order.
+     * Ignored subtrees are skipped without being visited; missing files are dropped. A file selected
+     * more than once, e.g. on its own and through its directory, is listed at its first occurrence.
+     */
+    public List<F> expand(List<F> selection) throws IOException {
+        Set<F> result = new LinkedHashSet<>();
+        for (F selected : selection) {
+            if (!files.exists(selected)) {
+                continue;
+            }
+            if (files.isDirectory(selected)) {
+                collectFiles(selected, result);
+            } else {
+                result.add(selected);
+            }
+        }
+        return new ArrayList<>(result);
+    }
+
+    private void collectFiles(F directory, Set<F> result) throws IOException {
+        for (F child : listChildren(directory)) {
+            if (files.isDirectory(child)) {
+                collectFiles(child, result);
+            } else {
+                result.add(child);
+            }
+        }
+    }
+
+    /**
+     * @return the children of a directory that are not ignored, sorted by name
+     */
+    public List<F> listChildren(F directory) throws IOException {
+        List<F> children = new ArrayList<>();
+        for (F child : files.children(directory)) {
+            if (!isIgnored(child, files.isDirectory(child))) {
+                children.add(child);
+            }
+        }
+        children.sort(byName);
+        return children;
+    }
+
+    public boolean isIgnored(F file) throws IOException {
+        return isIgnored(file, files.isDirectory(file));
+    }
+
+    /**
+     * Only the file itself is matched: callers walk top-down and never descend into a directory
+     * that was reported as ignored.
+     */
+    public boolean isIgnored(F file, boolean directory) throws IOException {
+        if (files.isExcluded(file)) {
+            return true;
+        }
+        F parent = files.parent(file);
+        String path = files.path(file);
+        if (parent == null || !isBelowRoot(path)) {
+            return false;
+        }
+        String name = files.name(file);
+
+        // Outer .gitignore files first; a deeper file overrides them
+        Boolean ignored = null;
+        for (Scope scope : scopeChain(parent)) {
+            Boolean match = scope.rules.match(path.substring(scope.prefix.length()), name, directory);
+            if (match != null) {
+                ignored = match;
+            }
+        }
+        if (Boolean.TRUE.equals(ignored)) {
+            return true;
+        }
+        return Boolean.TRUE.equals(userRules.match(path.substring(rootPrefix.length()), name, directory));
+    }
+
+    /**
+     * Drop the cached {@code .gitignore} chains of a directory and of every directory below it, when it
+     * is deleted, moved or renamed. Must be called with the directory's path before the change.
+     */
+    public void forget(F directory) {
+        String prefix = withSlash(files.path(directory));
+        scopeChains.keySet().removeIf(cached -> cached.equals(directory) || files.path(cached).startsWith(prefix));
+    }
+
+    /**
+     * @param directory the root or a directory below it
+     */
+    private List<Scope> scopeChain(F directory) throws IOException {
+        List<Scope> chain = scopeChains.get(directory);
+        if (chain != null) {
+            return chain;
+        }
+
+        // Only .gitignore files from the root down are considered
+        F parent = files.parent(directory);
+        List<Scope> parentChain = directory.equals(root) || parent == null
+                ? Collections.emptyList()
+                : scopeChain(parent);
+
+        F gitIgnore = files.findFile(directory, GITIGNORE);
+        if (gitIgnore == null) {
+            chain = parentChain;
+        } else {
+            chain = new ArrayList<>(parentChain.size() + 1);
+            chain.addAll(parentChain);
+            chain.add(new Scope(withSlash(files.path(directory)), GitIgnoreRules.parse(files.loadText(gitIgnore))));
+        }
+        scopeChains.put(directory, chain);
+        return chain;
+    }
+
+    private boolean isBelowRoot(String path) {
+        return rootPrefix != null && path.startsWith(rootPrefix) && path.length() > rootPrefix.length();
+    }
+
+    private static String withSlash(String path) {
+        return path.endsWith("/") ? path : path + "/";
+    }
+
+    private static final class Scope {
+        private final String prefix;
+        private final GitIgnoreRules rules;
+
+        Scope(String prefix, GitIgnoreRules rules) {
+            this.prefix = prefix;
+            this.rules = rules;
+        }
+    }
+}
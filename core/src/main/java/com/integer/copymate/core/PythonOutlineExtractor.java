@@ -0,0 +1,281 @@
+package com.integer.copymate.core;
+
+import java.util.Arrays;
+import java.util.Set;
+
+/**
+ * Outline of a Python source file: classes with their members, function signatures without bodies,
+ * and module- and class-level assignments to plain names without their values.
+ * <p>
+ * The source is scanned once, one logical line at a time. Strings (including triple-quoted and prefixed
+ * ones), comments, bracket continuations and backslash continuations are handled by a small lexer, and
+ * nesting follows the indentation of each line. Function bodies are skipped, so nested functions are not
+ * listed; imports, decorators and docstrings are left out.
+ */
+public final class PythonOutlineExtractor {
+    private static final String INDENT = "    ";
+    private static final Set<String> BLOCK_KEYWORDS = Set.of(
+            "if", "elif", "else", "for", "while", "try", "except", "finally", "with", "match", "case");
+
+    private final CharSequence src;
+    private final int length;
+    private final StringBuilder out;
+    private final StringBuilder line = new StringBuilder(128);
+
+    // Indentation of the enclosing classes, and of the function whose body is being skipped
+    private int[] classIndents = new int[16];
+    private int classDepth;
+    private int skipIndent = -1;
+    private int pos;
+
+    private PythonOutlineExtractor(CharSequence src) {
+        this.src = src;
+        this.length = src.length();
+        this.out = new StringBuilder(Math.min(length / 4 + 64, 1 << 16));
+    }
+
+    /**
+     * @param src Python source text
+     * @return the outline of the source
+     */
+    public static String extract(CharSequence src) {
+        return new PythonOutlineExtractor(src).scan();
+    }
+
+    private String scan() {
+        while (pos < length) {
+            int indent = indentation();
+            if (pos >= length) {
+                break;
+            }
+            char c = src.charAt(pos);
+            if (c == '\n' || c == '\r') {
+                pos++;
+                continue;
+            }
+            if (c == '#') {
+                skipComment();
+                continue;
+            }
+
+            boolean skipped = skipIndent >= 0 && indent > skipIndent;
+            readLogicalLine(skipped);
+            if (skipped) {
+                continue;
+            }
+            skipIndent = -1;
+            while (classDepth > 0 && indent <= classIndents[classDepth - 1]) {
+                classDepth--;
+                if (classDepth == 0) {
+                    out.append('\n');
+                }
+            }
+            statement(line.toString().trim(), indent);
+        }
+        return out.toString();
+    }
+
+    private void statement(String text, int indent) {
+        String declaration = text.startsWith("async ") ? text.substring(6).trim() : text;
+        if (declaration.startsWith("class ") || declaration.startsWith("class(")) {
+            emit(header(text));
+            if (classDepth == classIndents.length) {
+                classIndents = Arrays.copyOf(classIndents, classDepth * 2);
+            }
+            classIndents[classDepth++] = indent;
+            skipIndent = -1;
+        } else if (declaration.startsWith("def ")) {
+            emit(header(text) + " ...");
+            skipIndent = indent;
+        } else if (isBlockStatement(text)) {
+            // if/for/try/with... at module level: their bodies are not declarations
+            skipIndent = indent;
+        } else {
+            String target = assignmentTarget(text);
+            if (target != null) {
+                emit(target);
+            }
+        }
+    }
+
+    private void emit(String text) {
+        for (int i = 0; i < classDepth; i++) {
+            out.append(INDENT);
+        }
+        out.append(text).append('\n');
+    }
+
+    /**
+     * The declaration up to and including the colon that opens its body.
+     */
+    private static String header(String text) {
+        int colon = topLevelIndexOf(text, ':', 0);
+        return colon < 0 ? text : text.substring(0, colon + 1);
+    }
+
+    private static boolean isBlockStatement(String text) {
+        int end = 0;
+        while (end < text.length() && Character.isLetter(text.charAt(end))) {
+            end++;
+        }
+        return BLOCK_KEYWORDS.contains(text.substring(0, end));
+    }
+
+    /**
+     * For {@code NAME = value} or {@code NAME: type = value}, the part before the value.
+     */
+    private static String assignmentTarget(String text) {
+        int end = 0;
+        while (end < text.length() && (Character.isLetterOrDigit(text.charAt(end)) || text.charAt(end) == '_')) {
+            end++;
+        }
+        if (end == 0 || Character.isDigit(text.charAt(0))) {
+            return null;
+        }
+        String rest = text.substring(end).trim();
+        if (rest.startsWith(":")) {
+            int equals = topLevelIndexOf(text, '=', end);
+            return equals < 0 ? text : text.substring(0, equals).trim();
+        }
+        if (rest.startsWith("=") && !rest.startsWith("==")) {
+            return text.substring(0, end);
+        }
+        return null;
+    }
+
+    private static int topLevelIndexOf(String text, char target, int from) {
+        int depth = 0;
+        for (int i = from; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            } else if (c == '"' || c == '\'') {
+                i = text.indexOf(c, i + 1);
+                if (i < 0) {
+                    return -1;
+                }
+            } else if (c == target && depth == 0) {
+                boolean comparison = target == '=' && (i + 1 < text.length() && text.charAt(i + 1) == '='
+                        || i > 0 && "=!<>".indexOf(text.charAt(i - 1)) >= 0);
+                if (!comparison) {
+                    return i;
+                }
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Width of the indentation at {@link #pos}, tabs counted to the next multiple of eight.
+     */
+    private int indentation() {
+        int width = 0;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == ' ') {
+                width++;
+            } else if (c == '\t') {
+                width = (width / 8 + 1) * 8;
+            } else if (c != '\f') {
+                break;
+            }
+            pos++;
+        }
+        return width;
+    }
+
+    /**
+     * Read one logical line into {@link #line}, joining bracket and backslash continuations and
+     * collapsing whitespace. Lines inside a skipped body are only scanned for their end.
+     */
+    private void readLogicalLine(boolean skipped) {
+        line.setLength(0);
+        int depth = 0;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '#') {
+                skipComment();
+                continue;
+            }
+            if (c == '"' || c == '\'') {
+                int start = pos;
+                skipString();
+                if (!skipped) {
+                    line.append(src, start, pos);
+                }
+                continue;
+            }
+            if (c == '\\' && pos + 1 < length && (src.charAt(pos + 1) == '\n' || src.charAt(pos + 1) == '\r')) {
+                pos += 2;
+                space(skipped);
+                continue;
+            }
+            if (c == '\n') {
+                pos++;
+                if (depth <= 0) {
+                    return;
+                }
+                space(skipped);
+                continue;
+            }
+            if (c == '(' || c == '[' || c == '{') {
+                depth++;
+            } else if (c == ')' || c == ']' || c == '}') {
+                depth--;
+            }
+            if (Character.isWhitespace(c)) {
+                space(skipped);
+            } else if (!skipped) {
+                line.append(c);
+            }
+            pos++;
+        }
+    }
+
+    private void space(boolean skipped) {
+        int last = line.length() - 1;
+        if (!skipped && last >= 0 && line.charAt(last) != ' ') {
+            line.append(' ');
+        }
+    }
+
+    private void skipComment() {
+        while (pos < length && src.charAt(pos) != '\n') {
+            pos++;
+        }
+    }
+
+    /**
+     * Skip a string literal at {@link #pos}. String prefixes such as {@code r} or {@code f} are read
+     * as part of the preceding name and need no special handling, since they do not change where the
+     * literal ends except for raw strings, whose backslashes still escape a quote.
+     */
+    private void skipString() {
+        char quote = src.charAt(pos);
+        boolean triple = pos + 2 < length && src.charAt(pos + 1) == quote && src.charAt(pos + 2) == quote;
+        pos += triple ? 3 : 1;
+        while (pos < length) {
+            char c = src.charAt(pos);
+            if (c == '\\') {
+                pos += 2;
+                continue;
+            }
+            if (c == quote) {
+                if (!triple) {
+                    pos++;
+                    return;
+                }
+                if (pos + 2 < length && src.charAt(pos + 1) == quote && src.charAt(pos + 2) == quote) {
+                    pos += 3;
+                    return;
+                }
+            } else if (c == '\n' && !triple) {
+                return;
+            }
+            pos++;
+        }
+        pos = length;
+    }
+}
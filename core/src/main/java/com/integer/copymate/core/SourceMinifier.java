@@ -0,0 +1,370 @@
+package com.integer.copymate.core;
+
+import java.util.Locale;
+
+/**
+ * Shrinks source text for size-limited prompts: comments (and with them license headers and doc
+ * comments) are removed, trailing whitespace and blank lines are dropped, and runs of spaces inside
+ * a line are collapsed to one. Line structure is kept, so languages where line breaks matter still
+ * parse, and languages with significant indentation keep it.
+ * <p>
+ * The text is scanned once. String, character, text block, template and (for scripts) regular
+ * expression literals are copied verbatim, so comment markers and spaces inside them are preserved.
+ */
+public final class SourceMinifier {
+    // A quote not closed within this many characters is not a char literal (e.g. a Rust lifetime)
+    private static final int MAX_CHAR_LITERAL = 12;
+
+    /**
+     * Comment and literal syntax of a family of languages.
+     */
+    public enum Syntax {
+        /** Java, C, C++, C#, Go, Groovy, Dart: {@code //} and {@code /* *}{@code /} comments. */
+        C_FAMILY(false, false, true, false),
+        /** Kotlin, Swift, Rust, Scala: block comments nest, strings may hold {@code ${...}} templates. */
+        NESTED_COMMENTS(true, false, true, false),
+        /** JavaScript and TypeScript: template literals and regular expression literals. */
+        SCRIPT(false, true, false, false),
+        /** Python, shell, Ruby: {@code #} comments and significant indentation. */
+        HASH(false, false, false, true);
+
+        private final boolean nested;
+        private final boolean script;
+        private final boolean charLiterals;
+        private final boolean hash;
+
+        Syntax(boolean nested, boolean script, boolean charLiterals, boolean hash) {
+            this.nested = nested;
+            this.script = script;
+            this.charLiterals = charLiterals;
+            this.hash = hash;
+        }
+    }
+
+    private final CharSequence src;
+    private final int length;
+    private final Syntax syntax;
+    private final StringBuilder out;
+    private final StringBuilder indent = new StringBuilder();
+    private boolean lineStart = true;
+    private boolean pendingSpace;
+    private char lastSignificant = ';';
+    private int pos;
+
+    private SourceMinifier(CharSequence src, Syntax syntax) {
+        this.src = src;
+        this.length = src.length();
+        this.syntax = syntax;
+        this.out = new StringBuilder(length);
+    }
+
+    /**
+     * @param fileName a file name or path
+     * @return the syntax to minify the file with, or null if its language is not supported
+     */
+    public static Syntax forFileName(String fileName) {
+        int dot = fileName.lastIndexOf('.');
+        if (dot < 0 || dot < fileName.lastIndexOf('/')) {
+            return null;
+        }
+        switch (fileName.substring(dot + 1).toLowerCase(Locale.ROOT)) {
+            case "java":
+            case "c":
+            case "h":
+            case "cc":
+            case "cpp":
+            case "hpp":
+            case "cs":
+            case "go":
+            case "groovy":
+            case "gradle":
+            case "dart":
+            case "proto":
+                return Syntax.C_FAMILY;
+            case "kt":
+            case "kts":
+            case "swift":
+            case "rs":
+            case "scala":
+                return Syntax.NESTED_COMMENTS;
+            case "ts":
+            case "tsx":
+            case "mts":
+            case "cts":
+            case "js":
+            case "jsx":
+            case "mjs":
+            case "cjs":
+                return Syntax.SCRIPT;
+            case "py":
+            case "pyi":
+            case "sh":
+            case "bash":
+            case "zsh":
+            case "rb":
+                return Syntax.HASH;
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Minify source text.
+     */
+    public static String minify(CharSequence text, Syntax syntax) {
+        return new SourceMinifier(text, syntax).scan();
+    }
+
+    private String scan() {
+        // Keep a shebang line as it is
+        if (syntax.hash && length > 1 && src.charAt(0) == '#' && src.charAt(1) == '!') {
+            emit(lineEnd(0));
+        }
+
+        while (pos < length) {
+            char c = src.charAt(pos);
+            switch (c) {
+                case '\n':
+                    endLine();
+                    pos++;
+                    continue;
+                case '\r':
+                    pos++;
+                    continue;
+                case ' ':
+                case '\t':
+                case '\f':
+                    if (!lineStart) {
+                        pendingSpace = true;
+                    } else if (syntax.hash) {
+                        indent.append(c);
+                    }
+                    pos++;
+                    continue;
+                default:
+                    break;
+            }
+
+            int end = commentEnd(c);
+            if (end >= 0) {
+                pos = end;
+                pendingSpace = !lineStart;
+                continue;
+            }
+            end = literalEnd(c);
+            if (end < 0) {
+                end = pos + 1;
+            }
+            emit(end);
+        }
+        return out.toString();
+    }
+
+    /**
+     * Copy {@code src[pos, end)} to the output after any pending indentation or space.
+     */
+    private void emit(int end) {
+        if (lineStart) {
+            out.append(indent);
+            lineStart = false;
+        } else if (pendingSpace) {
+            out.append(' ');
+        }
+        pendingSpace = false;
+        out.append(src, pos, end);
+        lastSignificant = src.charAt(end - 1);
+        pos = end;
+    }
+
+    private void endLine() {
+        if (!lineStart) {
+            out.append('\n');
+        }
+        lineStart = true;
+        pendingSpace = false;
+        indent.setLength(0);
+    }
+
+    /**
+     * @return the end of a comment starting at {@link #pos}, excluding its line break, or -1
+     */
+    private int commentEnd(char c) {
+        if (syntax.hash) {
+            boolean tokenStart = pos == 0 || Character.isWhitespace(src.charAt(pos - 1));
+            return c == '#' && tokenStart ? lineEnd(pos) : -1;
+        }
+        if (c != '/' || pos + 1 >= length) {
+            return -1;
+        }
+        char next = src.charAt(pos + 1);
+        if (next == '/') {
+            return lineEnd(pos);
+        }
+        if (next != '*') {
+            return -1;
+        }
+        int depth = 0;
+        int i = pos;
+        while (i < length - 1) {
+            char current = src.charAt(i);
+            char following = src.charAt(i + 1);
+            if (current == '/' && following == '*' && (depth == 0 || syntax.nested)) {
+                depth++;
+                i += 2;
+            } else if (current == '*' && following == '/') {
+                i += 2;
+                if (--depth == 0) {
+                    return i;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * @return the end of a literal starting at {@link #pos}, or -1 if none starts there
+     */
+    private int literalEnd(char c) {
+        if (c == '"' || c == '\'' && !syntax.charLiterals) {
+            if (!syntax.script && isTripleQuote(pos, c)) {
+                return tripleQuotedEnd(c);
+            }
+            return quotedEnd(pos, c, syntax.nested && c == '"');
+        }
+        if (c == '\'') {
+            int end = quotedEnd(pos, c, false);
+            boolean closed = end <= length && src.charAt(end - 1) == '\'' && end - 1 > pos;
+            return closed && end - pos <= MAX_CHAR_LITERAL ? end : -1;
+        }
+        if (c == '`' && !syntax.hash) {
+            return templateEnd(pos + 1);
+        }
+        if (c == '/' && syntax.script && "(,=:[!&|?{};+-*%<>~^".indexOf(lastSignificant) >= 0) {
+            return regexEnd();
+        }
+        return -1;
+    }
+
+    private boolean isTripleQuote(int at, char quote) {
+        return at + 2 < length && src.charAt(at + 1) == quote && src.charAt(at + 2) == quote;
+    }
+
+    private int tripleQuotedEnd(char quote) {
+        int i = pos + 3;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\' && syntax != Syntax.NESTED_COMMENTS) {
+                i += 2;
+            } else if (c == quote && isTripleQuote(i, quote)) {
+                i += 3;
+                while (i < length && src.charAt(i) == quote) {
+                    i++;
+                }
+                return i;
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * End of a single-line quoted literal; an unterminated one ends at the line break.
+     */
+    private int quotedEnd(int start, char quote, boolean templates) {
+        int i = start + 1;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == quote) {
+                return i + 1;
+            } else if (c == '\n') {
+                return i;
+            } else if (templates && c == '$' && i + 1 < length && src.charAt(i + 1) == '{') {
+                i = placeholderEnd(i + 2, quote);
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    private int templateEnd(int from) {
+        int i = from;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '`') {
+                return i + 1;
+            } else if (c == '$' && i + 1 < length && src.charAt(i + 1) == '{') {
+                i = placeholderEnd(i + 2, '`');
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * End of a {@code ${...}} placeholder whose expression starts at {@code from}; the expression
+     * may contain nested literals using the enclosing quote.
+     */
+    private int placeholderEnd(int from, char quote) {
+        int depth = 1;
+        int i = from;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == quote) {
+                i = quote == '`' ? templateEnd(i + 1) : quotedEnd(i, quote, true);
+                continue;
+            }
+            if (c == '{') {
+                depth++;
+            } else if (c == '}' && --depth == 0) {
+                return i + 1;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private int regexEnd() {
+        int i = pos + 1;
+        boolean inClass = false;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\n') {
+                return i;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                i++;
+                while (i < length && Character.isLetter(src.charAt(i))) {
+                    i++;
+                }
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    private int lineEnd(int from) {
+        int i = from;
+        while (i < length && src.charAt(i) != '\n') {
+            i++;
+        }
+        return i;
+    }
+}
@@ -0,0 +1,167 @@
+package com.integer.copymate.core;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Renders the "Copy Structure" text of a selection, for the plugin and the command line alike.
+ * <p>
+ * Each selected directory is followed by its subtree, then the selected files outside the directories
+ * are listed. Entries inside another selected directory are dropped, so nested selections are printed
+ * once. Output can be limited in depth and number of entries and drawn either with plain indentation
+ * or with tree glyphs. Directory entries come from the {@link PathWalker}, or from a {@link ChildLister}
+ * for callers that already hold part of the tree.
+ *
+ * @param <F> the file handle
+ */
+public final class StructureWriter<F> {
+    private final ChildLister<F> children;
+    private final FileAccess<F> files;
+    private final boolean glyphs;
+    private final int maxDepth;
+    private final int maxEntries;
+
+    private final StringBuilder prefix = new StringBuilder();
+    private Appendable sink;
+    private int entries;
+    private boolean truncated;
+
+    /**
+     * @param maxDepth   deepest level whose children are listed, 0 for no limit
+     * @param maxEntries maximum number of lines, 0 for no limit
+     */
+    public StructureWriter(PathWalker<F> walker, boolean glyphs, int maxDepth, int maxEntries) {
+        this(walker, walker::listChildren, glyphs, maxDepth, maxEntries);
+    }
+
+    /**
+     * @param children   lists the entries below each directory that is printed
+     * @param maxDepth   deepest level whose children are listed, 0 for no limit
+     * @param maxEntries maximum number of lines, 0 for no limit
+     */
+    public StructureWriter(PathWalker<F> walker, ChildLister<F> children, boolean glyphs, int maxDepth, int maxEntries) {
+        this.children = children;
+        this.files = walker.getFileAccess();
+        this.glyphs = glyphs;
+        this.maxDepth = maxDepth;
+        this.maxEntries = maxEntries;
+    }
+
+    public void write(Collection<F> selection, Appendable sink) throws IOException {
+        this.sink = sink;
+        Set<F> selectedDirectories = new HashSet<>();
+        for (F file : selection) {
+            if (files.isDirectory(file)) {
+                selectedDirectories.add(file);
+            }
+        }
+
+        List<F> looseFiles = new ArrayList<>();
+        for (F file : new LinkedHashSet<>(selection)) {
+            if (hasSelectedAncestor(file, selectedDirectories)) {
+                continue;
+            }
+            if (!files.isDirectory(file)) {
+                looseFiles.add(file);
+                continue;
+            }
+            prefix.setLength(0);
+            if (line("", files.name(file), true)) {
+                writeChildren(file, 1);
+            }
+        }
+        prefix.setLength(0);
+        for (F file : looseFiles) {
+            line("", files.name(file), false);
+        }
+        if (truncated) {
+            sink.append("... (truncated after ").append(String.valueOf(maxEntries)).append(" entries)\n");
+        }
+    }
+
+    private boolean hasSelectedAncestor(F file, Set<F> selectedDirectories) {
+        for (F parent = files.parent(file); parent != null; parent = files.parent(parent)) {
+            if (selectedDirectories.contains(parent)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void writeChildren(F directory, int depth) throws IOException {
+        List<F> children = this.children.listChildren(directory);
+        if (children.isEmpty()) {
+            return;
+        }
+        if (maxDepth > 0 && depth > maxDepth) {
+            line(connector(glyphs, true), "...", false);
+            return;
+        }
+
+        for (int i = 0; i < children.size(); i++) {
+            F child = children.get(i);
+            boolean last = i == children.size() - 1;
+            boolean isDirectory = files.isDirectory(child);
+            if (!line(connector(glyphs, last), files.name(child), isDirectory)) {
+                break;
+            }
+            if (isDirectory) {
+                int mark = prefix.length();
+                prefix.append(continuation(glyphs, last));
+                writeChildren(child, depth + 1);
+                prefix.setLength(mark);
+            }
+        }
+    }
+
+    /**
+     * Lists the entries below a directory, in the order they are printed.
+     *
+     * @param <F> the file handle
+     */
+    public interface ChildLister<F> {
+        List<F> listChildren(F directory) throws IOException;
+    }
+
+    /**
+     * Text in front of an entry's name.
+     */
+    public static String connector(boolean glyphs, boolean last) {
+        if (!glyphs) {
+            return "  ";
+        }
+        return last ? "\u2514\u2500\u2500 " : "\u251c\u2500\u2500 ";
+    }
+
+    /**
+     * Text in front of the entries below an entry.
+     */
+    public static String continuation(boolean glyphs, boolean last) {
+        if (!glyphs) {
+            return "  ";
+        }
+        return last ? "    " : "\u2502   ";
+    }
+
+    /**
+     * @return false once the entry limit has been reached
+     */
+    private boolean line(String connector, String name, boolean directory) throws IOException {
+        if (maxEntries > 0 && entries >= maxEntries) {
+            truncated = true;
+            return false;
+        }
+        entries++;
+        sink.append(prefix).append(connector).append(name);
+        if (directory) {
+            sink.append('/');
+        }
+        sink.append('\n');
+        return true;
+    }
+}
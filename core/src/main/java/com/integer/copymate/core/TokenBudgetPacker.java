@@ -0,0 +1,155 @@
+package com.integer.copymate.core;
+
+import java.util.Arrays;
+
+/**
+ * Chooses, per file, how much of it fits into a token budget: the full content, a signature outline,
+ * only its path, or nothing at all.
+ * <p>
+ * Every file starts at its cheapest level, which is its path unless the content is even shorter. The
+ * remaining budget is first spent on giving as many files as possible their cheapest useful upgrade (the
+ * outline, or the full content when there is no outline), cheapest first; what is left then upgrades
+ * outlined files to full content, again cheapest first. This favors covering the whole selection before
+ * spending the budget on a few large files. When even the cheapest levels exceed the budget, files are
+ * omitted from the end of the list, where the least relevant ones are, until the rest fits together with
+ * a notice counting the omitted files.
+ */
+public final class TokenBudgetPacker {
+
+    public enum Level {
+        OMITTED,
+        PATH,
+        OUTLINE,
+        FULL
+    }
+
+    // Marks a file that has no upgrade in the current round
+    private static final long NO_UPGRADE = Long.MIN_VALUE;
+
+    private TokenBudgetPacker() {
+    }
+
+    /**
+     * Pack without charging anything for omitted files.
+     *
+     * @see #pack(int[], int[], int[], long, int)
+     */
+    public static Level[] pack(int[] pathCost, int[] outlineCost, int[] fullCost, long budget) {
+        return pack(pathCost, outlineCost, fullCost, budget, 0);
+    }
+
+    /**
+     * @param pathCost     tokens of each file's path-only entry
+     * @param outlineCost  tokens of each file's outline entry, -1 if it has no outline
+     * @param fullCost     tokens of each file's full entry, -1 if full content is not allowed
+     * @param budget       total tokens available
+     * @param omittedCost  tokens of the notice written once if any file is omitted
+     * @return the chosen level per file
+     */
+    public static Level[] pack(int[] pathCost, int[] outlineCost, int[] fullCost, long budget, int omittedCost) {
+        int count = pathCost.length;
+        Level[] levels = new Level[count];
+
+        long used = 0;
+        for (int i = 0; i < count; i++) {
+            levels[i] = cheapest(pathCost[i], outlineCost[i], fullCost[i]);
+            used += cost(levels[i], pathCost[i], outlineCost[i], fullCost[i]);
+        }
+
+        // Even the cheapest levels do not fit: drop files from the end
+        if (used > budget) {
+            used += omittedCost;
+            for (int i = count - 1; i >= 0 && used > budget; i--) {
+                used -= cost(levels[i], pathCost[i], outlineCost[i], fullCost[i]);
+                levels[i] = Level.OMITTED;
+            }
+            return levels;
+        }
+
+        // Round one: the first upgrade of every file
+        long[] increments = new long[count];
+        for (int i = 0; i < count; i++) {
+            if (levels[i] != Level.PATH) {
+                increments[i] = NO_UPGRADE;
+            } else if (outlineCost[i] >= 0) {
+                increments[i] = outlineCost[i] - pathCost[i];
+            } else if (fullCost[i] >= 0) {
+                increments[i] = fullCost[i] - pathCost[i];
+            } else {
+                increments[i] = NO_UPGRADE;
+            }
+        }
+        for (int i : byIncrement(increments)) {
+            if (increments[i] > 0 && used + increments[i] > budget) {
+                break;
+            }
+            used += increments[i];
+            levels[i] = outlineCost[i] >= 0 ? Level.OUTLINE : Level.FULL;
+        }
+
+        // Round two: outlined files that can afford their full content
+        for (int i = 0; i < count; i++) {
+            increments[i] = levels[i] == Level.OUTLINE && fullCost[i] >= 0 ? fullCost[i] - outlineCost[i] : NO_UPGRADE;
+        }
+        for (int i : byIncrement(increments)) {
+            if (increments[i] > 0 && used + increments[i] > budget) {
+                break;
+            }
+            used += increments[i];
+            levels[i] = Level.FULL;
+        }
+        return levels;
+    }
+
+    /**
+     * The cheapest available level, the richer one on a tie.
+     */
+    private static Level cheapest(int pathCost, int outlineCost, int fullCost) {
+        Level level = Level.PATH;
+        int cost = pathCost;
+        if (outlineCost >= 0 && outlineCost <= cost) {
+            level = Level.OUTLINE;
+            cost = outlineCost;
+        }
+        if (fullCost >= 0 && fullCost <= cost) {
+            level = Level.FULL;
+        }
+        return level;
+    }
+
+    private static long cost(Level level, int pathCost, int outlineCost, int fullCost) {
+        switch (level) {
+            case PATH:
+                return pathCost;
+            case OUTLINE:
+                return outlineCost;
+            case FULL:
+                return fullCost;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Indices of the files with an upgrade, smallest increment first; increments may be negative when
+     * the richer entry is the shorter one.
+     */
+    private static int[] byIncrement(long[] increments) {
+        long[] keys = new long[increments.length];
+        int count = 0;
+        for (int i = 0; i < increments.length; i++) {
+            if (increments[i] != NO_UPGRADE) {
+                // Pack increment and index into one long so a primitive sort suffices
+                long increment = Math.max(Integer.MIN_VALUE, Math.min(increments[i], Integer.MAX_VALUE));
+                keys[count++] = (increment << 32) | i;
+            }
+        }
+        Arrays.sort(keys, 0, count);
+
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = (int) keys[i];
+        }
+        return order;
+    }
+}
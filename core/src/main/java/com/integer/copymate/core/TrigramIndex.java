@@ -0,0 +1,134 @@
+package com.integer.copymate.core;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Case-insensitive substring index over a fixed list of strings (relative file paths).
+ * <p>
+ * Every string is broken into overlapping three-character grams, each mapped to the sorted ids of the
+ * strings containing it. A query intersects the posting lists of its own trigrams, starting from the
+ * shortest, and verifies the few surviving candidates with a plain substring test. Queries shorter than
+ * three characters fall back to a linear scan, which is still cheap for one- or two-letter input.
+ */
+public final class TrigramIndex {
+    private static final int[] NO_IDS = new int[0];
+    private static final int INTERSECT_THRESHOLD = 1024;
+
+    private final String[] keys;
+    private final Map<Long, int[]> postings;
+
+    private TrigramIndex(String[] keys, Map<Long, int[]> postings) {
+        this.keys = keys;
+        this.postings = postings;
+    }
+
+    public static TrigramIndex build(List<String> values) {
+        String[] keys = new String[values.size()];
+        Map<Long, IntList> lists = new HashMap<>();
+
+        for (int id = 0; id < keys.length; id++) {
+            String key = values.get(id).toLowerCase(Locale.ROOT);
+            keys[id] = key;
+            for (int i = 0; i + 3 <= key.length(); i++) {
+                IntList ids = lists.computeIfAbsent(trigram(key, i), k -> new IntList());
+                // Ids arrive in increasing order, so a repeated trigram only needs a look at the tail
+                if (ids.size == 0 || ids.values[ids.size - 1] != id) {
+                    ids.add(id);
+                }
+            }
+        }
+
+        Map<Long, int[]> postings = new HashMap<>(lists.size() * 4 / 3 + 1);
+        for (Map.Entry<Long, IntList> entry : lists.entrySet()) {
+            postings.put(entry.getKey(), entry.getValue().toArray());
+        }
+        return new TrigramIndex(keys, postings);
+    }
+
+    public int size() {
+        return keys.length;
+    }
+
+    /**
+     * @param query substring to look for, case-insensitive
+     * @param limit maximum number of ids to return
+     * @return ids of matching strings in increasing order
+     */
+    public int[] search(String query, int limit) {
+        String needle = query.toLowerCase(Locale.ROOT);
+        if (needle.length() < 3) {
+            return scan(needle, 0, keys.length, null, limit);
+        }
+
+        int[][] lists = new int[needle.length() - 2][];
+        for (int i = 0; i < lists.length; i++) {
+            lists[i] = postings.get(trigram(needle, i));
+            if (lists[i] == null) {
+                return NO_IDS;
+            }
+        }
+
+        // Intersect from the rarest trigram; once the candidates are few, verifying them is cheaper
+        Arrays.sort(lists, (a, b) -> Integer.compare(a.length, b.length));
+        int[] candidates = lists[0];
+        for (int i = 1; i < lists.length && candidates.length > INTERSECT_THRESHOLD; i++) {
+            candidates = intersect(candidates, lists[i]);
+        }
+        return scan(needle, 0, candidates.length, candidates, limit);
+    }
+
+    private int[] scan(String needle, int from, int to, int[] candidates, int limit) {
+        int[] result = new int[Math.min(limit, to - from)];
+        int count = 0;
+        for (int i = from; i < to && count < result.length; i++) {
+            int id = candidates == null ? i : candidates[i];
+            if (keys[id].contains(needle)) {
+                result[count++] = id;
+            }
+        }
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] < b[j]) {
+                i++;
+            } else if (a[i] > b[j]) {
+                j++;
+            } else {
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    private static long trigram(String s, int i) {
+        return ((long) s.charAt(i) << 32) | ((long) s.charAt(i + 1) << 16) | s.charAt(i + 2);
+    }
+
+    private static final class IntList {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(values, size);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.integer.copymate.core;
+
+import java.util.Set;
+
+/**
+ * Outline of a TypeScript or JavaScript source file: classes, interfaces, enums and namespaces with
+ * their members, function and method signatures without bodies, type aliases, and top-level
+ * variable declarations without initializers (arrow functions keep their parameter list).
+ * <p>
+ * Scans the text once with a small lexer that understands template literals and regular expression
+ * literals well enough to keep braces balanced. Imports, decorators and top-level statements are left out.
+ */
+public final class TypeScriptOutlineExtractor extends BraceOutliner {
+    private static final Set<String> MODIFIERS = Set.of(
+            "export", "default", "declare", "abstract", "public", "private", "protected", "static",
+            "readonly", "async", "override", "accessor");
+
+    private static final Set<String> DECLARATIONS = Set.of(
+            "function", "function*", "const", "let", "var", "type");
+
+    private static final Set<String> CONTAINERS = Set.of(
+            "class", "interface", "enum", "namespace", "module", "global");
+
+    private TypeScriptOutlineExtractor(CharSequence src) {
+        super(src);
+    }
+
+    /**
+     * Build the outline of a TypeScript or JavaScript file.
+     */
+    public static String extract(CharSequence text) {
+        return new TypeScriptOutlineExtractor(text).run();
+    }
+
+    @Override
+    protected boolean skipCommentOrLiteral() {
+        char c = src.charAt(pos);
+        if (c == '/' && peek(1) == '/') {
+            pos = lineCommentEnd();
+            return true;
+        }
+        if (c == '/' && peek(1) == '*') {
+            pos = blockCommentEnd(false);
+            return true;
+        }
+        if (c == '"' || c == '\'') {
+            literal(quotedEnd(c, false));
+            return true;
+        }
+        if (c == '`') {
+            literal(templateEnd(pos + 1));
+            return true;
+        }
+        if (c == '/' && startsRegex()) {
+            literal(regexEnd());
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * A slash starts a regular expression where an operand is expected rather than an operator.
+     */
+    private boolean startsRegex() {
+        return "(,=:[!&|?{};+-*%<>~^".indexOf(lastSignificant()) >= 0;
+    }
+
+    private int regexEnd() {
+        int i = pos + 1;
+        boolean inClass = false;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+                continue;
+            }
+            if (c == '\n') {
+                return i;
+            }
+            if (c == '[') {
+                inClass = true;
+            } else if (c == ']') {
+                inClass = false;
+            } else if (c == '/' && !inClass) {
+                i++;
+                while (i < length && Character.isLetter(src.charAt(i))) {
+                    i++;
+                }
+                return i;
+            }
+            i++;
+        }
+        return length;
+    }
+
+    /**
+     * End of a template literal whose body starts at {@code from}; {@code ${...}} placeholders may
+     * contain nested templates and braces.
+     */
+    private int templateEnd(int from) {
+        int i = from;
+        while (i < length) {
+            char c = src.charAt(i);
+            if (c == '\\') {
+                i += 2;
+            } else if (c == '`') {
+                return i + 1;
+            } else if (c == '$' && i + 1 < length && src.charAt(i + 1) == '{') {
+                int depth = 1;
+                i += 2;
+                while (i < length && depth > 0) {
+                    char inner = src.charAt(i);
+                    if (inner == '`') {
+                        i = templateEnd(i + 1);
+                        continue;
+                    }
+                    if (inner == '{') {
+                        depth++;
+                    } else if (inner == '}') {
+                        depth--;
+                    }
+                    i++;
+                }
+            } else {
+                i++;
+            }
+        }
+        return length;
+    }
+
+    @Override
+    protected Kind classify(String[] words, boolean inContainer) {
+        String keyword = keyword(words);
+        if (CONTAINERS.contains(words[0])) {
+            return Kind.CONTAINER;
+        }
+        if (DECLARATIONS.contains(words[0]) || DECLARATIONS.contains(keyword)) {
+            return Kind.MEMBER;
+        }
+        if (keyword.equals("import") || isModifier(words[0]) || words[0].equals("static")) {
+            // Imports, and statements made of modifiers only such as "export default" objects
+            return Kind.DROP;
+        }
+        return inContainer ? Kind.MEMBER : Kind.DROP;
+    }
+
+    @Override
+    protected boolean isModifier(String word) {
+        return MODIFIERS.contains(word);
+    }
+
+    @Override
+    protected boolean keepsInitializer(String[] words) {
+        return words.length > 0 && words[0].equals("type");
+    }
+
+    @Override
+    protected boolean annotations() {
+        return true;
+    }
+
+    @Override
+    protected boolean continuesAfterNewline(CharSequence statement) {
+        int last = statement.length() - 1;
+        while (last >= 0 && statement.charAt(last) == ' ') {
+            last--;
+        }
+        if (last < 0) {
+            return false;
+        }
+        return ",.=+-*/&|:?<>(".indexOf(statement.charAt(last)) >= 0;
+    }
+}
@@ -0,0 +1,133 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BundleWriterTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void writesFilesInSelectionOrderWithRelativePaths() throws IOException {
+        Files.createDirectories(root.resolve("src"));
+        Files.writeString(root.resolve("src/b.txt"), "second", StandardCharsets.UTF_8);
+        Files.writeString(root.resolve("a.txt"), "first", StandardCharsets.UTF_8);
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+
+        StringBuilder out = new StringBuilder();
+        int count = BundleWriter.onDisk(walker, false, false, 0, 1024, StandardCharsets.UTF_8, 2)
+                .write(List.of(root.resolve("a.txt"), root.resolve("src/b.txt")), out);
+
+        assertEquals(2, count);
+        assertEquals(BundleFormat.contentEntry("a.txt", "first") + BundleFormat.contentEntry("src/b.txt", "second"),
+                out.toString());
+    }
+
+    @Test
+    void doesNotOutlineBinaryFilesOnDisk() throws IOException {
+        byte[] bytes = {'c', 'l', 'a', 's', 's', 0, 1, 2};
+        Files.write(root.resolve("Blob.java"), bytes);
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+
+        StringBuilder out = new StringBuilder();
+        BundleWriter.onDisk(walker, true, false, 0, 1024, StandardCharsets.UTF_8, 1)
+                .write(List.of(root.resolve("Blob.java")), out);
+
+        assertEquals(BundleFormat.signaturesEntry("Blob.java", ContentLoader.binaryMarker(bytes.length)),
+                out.toString());
+    }
+
+    @Test
+    void reducesOutlinedFilesToSignaturesInMethodsOnlyMode() throws IOException {
+        MapSource source = new MapSource().add("A.java", "class A {}").add("notes.txt", "text");
+
+        assertEquals(BundleFormat.signaturesEntry("A.java", "outline of A.java")
+                        + BundleFormat.contentEntry("notes.txt", "text"),
+                write(new BundleWriter<>(source, true, false, 0, 1), List.of("A.java", "notes.txt")));
+    }
+
+    @Test
+    void fitsTheBundleIntoTheTokenBudget() throws IOException {
+        String small = "word ".repeat(50);
+        MapSource source = new MapSource().add("small.txt", small).add("large.txt", "word ".repeat(2_000));
+        int budget = TokenEstimator.estimate(BundleFormat.contentEntry("small.txt", small))
+                + TokenEstimator.estimate(BundleFormat.pathOnlyEntry("large.txt"));
+
+        assertEquals(BundleFormat.contentEntry("small.txt", small) + BundleFormat.pathOnlyEntry("large.txt"),
+                write(new BundleWriter<>(source, false, false, budget, 1), List.of("small.txt", "large.txt")));
+    }
+
+    @Test
+    void countsTheFilesTheBudgetHasNoRoomFor() throws IOException {
+        String large = "word ".repeat(2_000);
+        MapSource source = new MapSource().add("a.txt", large).add("b.txt", large).add("c.txt", large);
+        int budget = TokenEstimator.estimate(BundleFormat.pathOnlyEntry("a.txt"))
+                + TokenEstimator.estimate(BundleFormat.omittedNotice(3));
+
+        StringBuilder out = new StringBuilder();
+        int count = new BundleWriter<>(source, false, false, budget, 1).write(List.of("a.txt", "b.txt", "c.txt"), out);
+
+        assertEquals(1, count);
+        assertEquals(BundleFormat.pathOnlyEntry("a.txt") + BundleFormat.omittedNotice(2), out.toString());
+    }
+
+    @Test
+    void reportsUnreadableFilesInPlace() throws IOException {
+        MapSource source = new MapSource().add("a.txt", "first");
+
+        assertEquals(BundleFormat.contentEntry("a.txt", "first") + BundleFormat.errorEntry("gone.txt", "gone.txt"),
+                write(new BundleWriter<>(source, false, false, 0, 1), List.of("a.txt", "gone.txt")));
+    }
+
+    private static String write(BundleWriter<String> writer, List<String> files) throws IOException {
+        StringBuilder out = new StringBuilder();
+        writer.write(files, out);
+        return out.toString();
+    }
+
+    /**
+     * In-memory files; only ".java" files have an outline.
+     */
+    private static final class MapSource implements BundleWriter.Source<String> {
+        private final Map<String, String> files = new LinkedHashMap<>();
+
+        MapSource add(String name, String text) {
+            files.put(name, text);
+            return this;
+        }
+
+        @Override
+        public String path(String file) {
+            return file;
+        }
+
+        @Override
+        public boolean hasOutline(String file) {
+            return file.endsWith(".java");
+        }
+
+        @Override
+        public String outline(String file) {
+            return "outline of " + file;
+        }
+
+        @Override
+        public String content(String file) throws IOException {
+            String text = files.get(file);
+            if (text == null) {
+                throw new IOException(file);
+            }
+            return text;
+        }
+    }
+}
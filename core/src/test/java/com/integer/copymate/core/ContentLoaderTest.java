@@ -0,0 +1,53 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ContentLoaderTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void loadsSmallTextCompletely() throws IOException {
+        Path file = root.resolve("a.txt");
+        Files.writeString(file, "hello\n", StandardCharsets.UTF_8);
+
+        ContentLoader.Loaded loaded = ContentLoader.load(file, 1024, StandardCharsets.UTF_8);
+
+        assertTrue(loaded.isComplete());
+        assertEquals("hello\n", loaded.getText());
+    }
+
+    @Test
+    void flagsBinaryFilesInsteadOfMatchingTheMarker() throws IOException {
+        Path text = root.resolve("marker.txt");
+        Files.writeString(text, ContentLoader.binaryMarker(25), StandardCharsets.UTF_8);
+        Path binary = root.resolve("blob.bin");
+        Files.write(binary, new byte[]{1, 0, 2});
+
+        assertTrue(ContentLoader.load(text, 1024, StandardCharsets.UTF_8).isComplete());
+        ContentLoader.Loaded loaded = ContentLoader.load(binary, 1024, StandardCharsets.UTF_8);
+        assertTrue(loaded.isBinary());
+        assertEquals(ContentLoader.binaryMarker(3), loaded.getText());
+    }
+
+    @Test
+    void flagsFilesAboveTheCapAsTruncated() throws IOException {
+        Path file = root.resolve("large.txt");
+        Files.writeString(file, "line\n".repeat(100), StandardCharsets.UTF_8);
+
+        ContentLoader.Loaded loaded = ContentLoader.load(file, 100, StandardCharsets.UTF_8);
+
+        assertTrue(loaded.isTruncated());
+        assertFalse(loaded.isComplete());
+    }
+}
@@ -0,0 +1,40 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringWriter;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ExportFormatTest {
+
+    @Test
+    void replacesCharactersThatXmlDoesNotAllow() throws IOException {
+        StringWriter out = new StringWriter();
+        ExportFormat.XML.writeEntry(out, "a\u0001.txt", ExportFormat.EntryKind.CONTENT,
+                "bell \u0007, lone \ud800, pair \ud83d\ude00\n");
+
+        assertEquals("  <file path=\"a\ufffd.txt\" kind=\"content\"><![CDATA["
+                + "bell \ufffd, lone \ufffd, pair \ud83d\ude00\n]]></file>\n", out.toString());
+    }
+
+    @Test
+    void splitsCdataTerminatorsInXmlText() throws IOException {
+        StringWriter out = new StringWriter();
+        ExportFormat.XML.writeEntry(out, "a.txt", ExportFormat.EntryKind.SIGNATURES, "x]]>y");
+
+        assertEquals("  <file path=\"a.txt\" kind=\"signatures\"><![CDATA[x]]]]><![CDATA[>y]]></file>\n",
+                out.toString());
+    }
+
+    @Test
+    void replacesUnpairedSurrogatesInJsonLines() throws IOException {
+        StringWriter out = new StringWriter();
+        ExportFormat.JSONL.writeEntry(out, "a\udc00.txt", ExportFormat.EntryKind.CONTENT,
+                "lone \ud800, pair \ud83d\ude00, tab\t");
+
+        assertEquals("{\"path\":\"a\ufffd.txt\",\"kind\":\"content\",\"text\":"
+                + "\"lone \ufffd, pair \ud83d\ude00, tab\\t\"}\n", out.toString());
+    }
+}
@@ -0,0 +1,37 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GitIgnoreRulesTest {
+    @Test
+    void escapedDirectoryRoundTripsThroughAProfileGlob() {
+        String directory = "src/a[1]";
+        String glob = GitIgnoreRules.escape(directory) + "/*." + GitIgnoreRules.escape("txt");
+
+        int wildcard = GitIgnoreRules.indexOfWildcard(glob);
+        assertEquals(glob.indexOf('*'), wildcard);
+        int slash = glob.lastIndexOf('/', wildcard);
+        assertEquals(directory, GitIgnoreRules.unescape(glob.substring(0, slash)));
+
+        Pattern pattern = Pattern.compile(GitIgnoreRules.toRegex(glob));
+        assertTrue(pattern.matcher("src/a[1]/notes.txt").matches());
+        assertFalse(pattern.matcher("src/a1/notes.txt").matches());
+        assertFalse(pattern.matcher("src/a[1]/notes.java").matches());
+    }
+
+    @Test
+    void literalBackslashesRoundTrip() {
+        String name = "src/a\\[1\\].txt";
+        String glob = GitIgnoreRules.escape(name);
+
+        assertEquals(glob.length(), GitIgnoreRules.indexOfWildcard(glob));
+        assertEquals(name, GitIgnoreRules.unescape(glob));
+        assertTrue(Pattern.compile(GitIgnoreRules.toRegex(glob)).matcher(name).matches());
+    }
+}
@@ -0,0 +1,129 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PathWalkerTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void prunesIgnoredDirectoriesAndFiles() throws IOException {
+        write(".gitignore", "build/\n*.log\n");
+        write("build/out.txt", "");
+        write("debug.log", "");
+        write("src/main.txt", "");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+
+        assertEquals(List.of(".gitignore", "src/main.txt"), relativePaths(walker, walker.expand(List.of(root))));
+        assertTrue(walker.isIgnored(root.resolve("build"), true));
+        assertFalse(walker.isIgnored(root.resolve("src"), true));
+    }
+
+    @Test
+    void deeperGitIgnoreOverridesOuterOne() throws IOException {
+        write(".gitignore", "*.log\n");
+        write("logs/.gitignore", "!keep.log\n");
+        write("logs/keep.log", "");
+        write("logs/drop.log", "");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+
+        assertEquals(List.of("logs/.gitignore", "logs/keep.log"),
+                relativePaths(walker, walker.expand(List.of(root.resolve("logs")))));
+    }
+
+    @Test
+    void readsGitIgnoreThatIsNotUtf8() throws IOException {
+        Files.write(root.resolve(".gitignore"), "# g\u00e9n\u00e9r\u00e9\n*.tmp\n".getBytes(StandardCharsets.ISO_8859_1));
+        write("cache.tmp", "");
+        write("main.txt", "");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+
+        assertEquals(List.of(".gitignore", "main.txt"), relativePaths(walker, walker.expand(List.of(root))));
+    }
+
+    @Test
+    void userPatternsAreRelativeToTheRoot() throws IOException {
+        write("docs/guide.md", "");
+        write("src/docs/api.md", "");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of("/docs/"));
+
+        assertEquals(List.of("src/docs/api.md"), relativePaths(walker, walker.expand(List.of(root))));
+    }
+
+    @Test
+    void expandKeepsSelectionOrderAndListsChildrenByName() throws IOException {
+        write("b/two.txt", "");
+        write("b/one.txt", "");
+        write("a.txt", "");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+        List<Path> files = walker.expand(List.of(root.resolve("b"), root.resolve("a.txt"), root.resolve("missing")));
+
+        assertEquals(List.of("b/one.txt", "b/two.txt", "a.txt"), relativePaths(walker, files));
+    }
+
+    @Test
+    void expandListsNestedSelectionsOnce() throws IOException {
+        write("src/a.txt", "");
+        write("src/b.txt", "");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+        List<Path> files = walker.expand(List.of(root.resolve("src/b.txt"), root.resolve("src"), root));
+
+        assertEquals(List.of("src/b.txt", "src/a.txt"), relativePaths(walker, files));
+    }
+
+    @Test
+    void forgetDropsCachedRulesBelowADirectory() throws IOException {
+        write("a/b/debug.log", "");
+        Path log = root.resolve("a/b/debug.log");
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+        assertFalse(walker.isIgnored(log, false));
+
+        // The chain compiled before the change stays in use until the directory is forgotten
+        write("a/.gitignore", "*.log\n");
+        assertFalse(walker.isIgnored(log, false));
+        walker.forget(root.resolve("a"));
+        assertTrue(walker.isIgnored(log, false));
+    }
+
+    @Test
+    void relativePathKeepsPathsOutsideTheRoot() {
+        PathWalker<Path> walker = PathWalker.create(root.resolve("project"), List.of());
+
+        assertEquals("src/main.txt", walker.relativePath(root.resolve("project/src/main.txt")));
+        assertEquals(DiskFileAccess.INSTANCE.path(root.resolve("other.txt")),
+                walker.relativePath(root.resolve("other.txt")));
+    }
+
+    private void write(String relativePath, String text) throws IOException {
+        Path file = root.resolve(relativePath);
+        Files.createDirectories(file.getParent());
+        Files.writeString(file, text, StandardCharsets.UTF_8);
+    }
+
+    private static List<String> relativePaths(PathWalker<Path> walker, List<Path> files) {
+        List<String> paths = new ArrayList<>();
+        for (Path file : files) {
+            paths.add(walker.relativePath(file));
+        }
+        return paths;
+    }
+}
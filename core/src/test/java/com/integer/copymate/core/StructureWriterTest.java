@@ -0,0 +1,101 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class StructureWriterTest {
+    @TempDir
+    Path root;
+
+    @Test
+    void drawsDirectoriesBeforeLooseFiles() throws IOException {
+        createFiles("src/app/core.txt", "src/main.txt", "readme.md");
+
+        assertEquals(String.join("\n",
+                        "src/",
+                        "├── app/",
+                        "│   └── core.txt",
+                        "└── main.txt",
+                        "readme.md",
+                        ""),
+                write(true, 0, 0, root.resolve("readme.md"), root.resolve("src")));
+    }
+
+    @Test
+    void printsNestedSelectionsOnce() throws IOException {
+        createFiles("src/app/core.txt", "src/main.txt");
+
+        assertEquals(String.join("\n",
+                        "src/",
+                        "  app/",
+                        "    core.txt",
+                        "  main.txt",
+                        ""),
+                write(false, 0, 0, root.resolve("src/main.txt"), root.resolve("src"), root.resolve("src/app")));
+    }
+
+    @Test
+    void honorsDepthAndEntryLimits() throws IOException {
+        createFiles("src/app/core.txt", "src/main.txt", "src/util.txt");
+
+        assertEquals(String.join("\n",
+                        "src/",
+                        "  app/",
+                        "    ...",
+                        "  main.txt",
+                        "  util.txt",
+                        ""),
+                write(false, 1, 0, root.resolve("src")));
+        assertEquals(String.join("\n",
+                        "src/",
+                        "  app/",
+                        "... (truncated after 2 entries)",
+                        ""),
+                write(false, 0, 2, root.resolve("src")));
+    }
+
+    @Test
+    void takesKnownChildrenFromTheListerAndWalksTheRest() throws IOException {
+        createFiles("src/app/core.txt", "src/main.txt", "src/util.txt");
+        Path src = root.resolve("src");
+        // The caller shows only part of src, in its own order; app/ was never loaded
+        Map<Path, List<Path>> known = Map.of(src, List.of(src.resolve("util.txt"), src.resolve("app")));
+
+        PathWalker<Path> walker = PathWalker.create(root, List.of());
+        StringBuilder out = new StringBuilder();
+        new StructureWriter<>(walker,
+                directory -> known.containsKey(directory) ? known.get(directory) : walker.listChildren(directory),
+                false, 0, 0).write(List.of(src), out);
+
+        assertEquals(String.join("\n",
+                        "src/",
+                        "  util.txt",
+                        "  app/",
+                        "    core.txt",
+                        ""),
+                out.toString());
+    }
+
+    private void createFiles(String... relativePaths) throws IOException {
+        for (String relativePath : relativePaths) {
+            Path file = root.resolve(relativePath);
+            Files.createDirectories(file.getParent());
+            Files.createFile(file);
+        }
+    }
+
+    private String write(boolean glyphs, int maxDepth, int maxEntries, Path... selection) throws IOException {
+        StringBuilder out = new StringBuilder();
+        new StructureWriter<>(PathWalker.create(root, List.of()), glyphs, maxDepth, maxEntries)
+                .write(List.of(selection), out);
+        return out.toString();
+    }
+}
@@ -0,0 +1,52 @@
+package com.integer.copymate.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+class TokenBudgetPackerTest {
+    private static final TokenBudgetPacker.Level OMITTED = TokenBudgetPacker.Level.OMITTED;
+    private static final TokenBudgetPacker.Level PATH = TokenBudgetPacker.Level.PATH;
+    private static final TokenBudgetPacker.Level OUTLINE = TokenBudgetPacker.Level.OUTLINE;
+    private static final TokenBudgetPacker.Level FULL = TokenBudgetPacker.Level.FULL;
+
+    @Test
+    void everythingFitsInALargeBudget() {
+        assertArrayEquals(new TokenBudgetPacker.Level[]{FULL, FULL},
+                TokenBudgetPacker.pack(new int[]{5, 5}, new int[]{20, -1}, new int[]{100, 50}, 1_000));
+    }
+
+    @Test
+    void outlinesEveryFileBeforeSpendingOnFullContent() {
+        // Both outlines take 40 of the 60 tokens; the other 20 pay for the second file only
+        assertArrayEquals(new TokenBudgetPacker.Level[]{OUTLINE, FULL},
+                TokenBudgetPacker.pack(new int[]{5, 5}, new int[]{20, 20}, new int[]{100, 40}, 60));
+    }
+
+    @Test
+    void leavesFilesAsPathsWhenNothingElseFits() {
+        assertArrayEquals(new TokenBudgetPacker.Level[]{FULL, PATH},
+                TokenBudgetPacker.pack(new int[]{5, 5}, new int[]{-1, -1}, new int[]{15, 500}, 30));
+    }
+
+    @Test
+    void keepsFullContentThatIsShorterThanThePathEntry() {
+        // Nothing is left after the paths, yet the first file is cheaper in full
+        assertArrayEquals(new TokenBudgetPacker.Level[]{FULL, PATH},
+                TokenBudgetPacker.pack(new int[]{10, 10}, new int[]{-1, -1}, new int[]{4, 50}, 20));
+    }
+
+    @Test
+    void upgradesOutlinesWhoseFullContentIsShorter() {
+        // The outline takes the whole budget, and its full content frees 5 tokens again
+        assertArrayEquals(new TokenBudgetPacker.Level[]{FULL},
+                TokenBudgetPacker.pack(new int[]{5}, new int[]{30}, new int[]{25}, 30));
+    }
+
+    @Test
+    void omitsFilesFromTheEndWhenThePathsDoNotFit() {
+        // Three paths take 30 tokens; two of them and the 5 token notice fit into 25
+        assertArrayEquals(new TokenBudgetPacker.Level[]{PATH, PATH, OMITTED},
+                TokenBudgetPacker.pack(new int[]{10, 10, 10}, new int[]{-1, -1, -1}, new int[]{50, 50, 50}, 25, 5));
+    }
+}
@@ -5,4 +5,5 @@ pluginManagement {
     }
 }
 
-rootProject.name = "copy-mate"
\ No newline at end of file
+rootProject.name = "copy-mate"
+include("core", "benchmarks")
@@ -0,0 +1,49 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.ide.CopyPasteManager;
+import com.intellij.openapi.project.Project;
+
+import javax.swing.*;
+import java.awt.datatransfer.StringSelection;
+
+/**
+ * Puts the result of a copy on the clipboard and reports it, for the tool window and the actions alike.
+ */
+final class ClipboardCopy {
+    private static final Logger LOG = Logger.getInstance(ClipboardCopy.class);
+
+    private ClipboardCopy() {
+    }
+
+    /**
+     * Copy the text and show the message with the run's timings, or the failure. Must be called on the EDT.
+     *
+     * @param metrics timings of the run, finished here with the clipboard phase
+     */
+    static void copy(Project project, String content, CopyMetrics metrics, String message) {
+        try {
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.CLIPBOARD)) {
+                CopyPasteManager.getInstance().setContents(new StringSelection(content));
+            }
+        } catch (RuntimeException e) {
+            // The system clipboard can be held by another application
+            LOG.warn("Failed to copy to clipboard", e);
+            JOptionPane.showMessageDialog(
+                    null,
+                    "Failed to copy to clipboard: " + e.getMessage(),
+                    "Copy Mate Error",
+                    JOptionPane.ERROR_MESSAGE
+            );
+            return;
+        }
+
+        CopyMetrics.Report report = metrics.finish(project);
+        JOptionPane.showMessageDialog(
+                null,
+                message + "\n\n" + report.describe(),
+                "Copy Mate",
+                JOptionPane.INFORMATION_MESSAGE
+        );
+    }
+}
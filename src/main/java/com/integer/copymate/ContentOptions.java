@@ -0,0 +1,55 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.SourceMinifier;
+
+/**
+ * Settings of one "Copy Content" run, captured from the tool window before the background task starts.
+ */
+final class ContentOptions {
+    private final boolean copyMethodsOnly;
+    private final int tokenBudget;
+    private final boolean stripComments;
+    private final int dependencyDepth;
+    private final boolean dependencySignaturesOnly;
+
+    /**
+     * @param copyMethodsOnly          whether files with an outline extractor are reduced to their signatures
+     * @param tokenBudget              maximum estimated tokens of the output, 0 to copy everything
+     * @param stripComments            whether full content is minified by {@link SourceMinifier}
+     * @param dependencyDepth          levels of referenced project files added by {@link DependencyClosure},
+     *                                 0 to copy only the selection
+     * @param dependencySignaturesOnly whether the added files are reduced to their signatures
+     */
+    ContentOptions(boolean copyMethodsOnly, int tokenBudget, boolean stripComments,
+                   int dependencyDepth, boolean dependencySignaturesOnly) {
+        this.copyMethodsOnly = copyMethodsOnly;
+        this.tokenBudget = tokenBudget;
+        this.stripComments = stripComments;
+        this.dependencyDepth = dependencyDepth;
+        this.dependencySignaturesOnly = dependencySignaturesOnly;
+    }
+
+    boolean isCopyMethodsOnly() {
+        return copyMethodsOnly;
+    }
+
+    boolean hasTokenBudget() {
+        return tokenBudget > 0;
+    }
+
+    int getTokenBudget() {
+        return tokenBudget;
+    }
+
+    boolean isStripComments() {
+        return stripComments;
+    }
+
+    int getDependencyDepth() {
+        return dependencyDepth;
+    }
+
+    boolean isDependencySignaturesOnly() {
+        return dependencySignaturesOnly;
+    }
+}
@@ -0,0 +1,221 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.ExceptionUtil;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.diff.FilesTooBigForDiffException;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the "Copy Changed" text in the background: only the files of the selection that were added,
+ * modified or deleted since the last copy recorded in {@link CopySnapshot}.
+ * <p>
+ * Files are checked in parallel on a bounded worker pool; unchanged modification stamps skip loading
+ * entirely. Modified files are emitted as unified diffs when requested and the previous text is known.
+ * The snapshot is then replaced by the current state of the selection.
+ */
+abstract class CopyChangedTask extends Task.Backgroundable {
+    private final List<VirtualFile> selection;
+    private final boolean asDiffs;
+    private final IgnoreMatcher ignoreMatcher;
+    private final CopyMateContentCache cache;
+    private final CopySnapshot snapshot;
+    private final CopyMetrics metrics = new CopyMetrics("Copy Changed");
+
+    private String content;
+    private int changedCount;
+
+    /**
+     * @param selection     selected files and unexpanded directories, in tree order
+     * @param asDiffs       whether modified files are emitted as unified diffs
+     * @param ignoreMatcher the caller's matcher, so its compiled ignore rules are reused
+     */
+    CopyChangedTask(Project project, List<VirtualFile> selection, boolean asDiffs, IgnoreMatcher ignoreMatcher) {
+        super(project, "Copy Mate: Copying changes", true);
+        this.selection = selection;
+        this.asDiffs = asDiffs;
+        this.ignoreMatcher = ignoreMatcher;
+        this.cache = CopyMateContentCache.getInstance(project);
+        this.snapshot = CopySnapshot.getInstance(project);
+    }
+
+    /**
+     * Called on the EDT when the changes have been collected.
+     *
+     * @param content      the aggregated text
+     * @param changedCount number of added, modified and deleted files, zero if nothing changed
+     */
+    protected abstract void onContentReady(String content, int changedCount);
+
+    /**
+     * Timings of this run; the clipboard phase is added by the caller before finishing it.
+     */
+    CopyMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Collecting selected files...");
+        List<VirtualFile> files;
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.TRAVERSAL)) {
+            files = CopyContentTask.expandSelection(getProject(), ignoreMatcher, selection, indicator);
+        }
+        int fileCount = files.size();
+
+        indicator.setIndeterminate(false);
+        indicator.setText("Hashing " + fileCount + " files...");
+
+        ExecutorService hashers = AppExecutorUtil.createBoundedApplicationPoolExecutor("Copy Mate Hasher",
+                CopyContentTask.MAX_READERS);
+        List<Future<CopySnapshot.Entry>> parts = new ArrayList<>(fileCount);
+        Map<String, CopySnapshot.Entry> current = new HashMap<>();
+        Map<String, CopySnapshot.Entry> previous = snapshot.getEntries();
+        StringBuilder changes = new StringBuilder();
+        try {
+            for (VirtualFile file : files) {
+                parts.add(hashers.submit(() -> indicator.isCanceled() ? null : capture(file)));
+            }
+
+            // Join in selection order; each wait honors the cancel button
+            for (int i = 0; i < fileCount; i++) {
+                VirtualFile file = files.get(i);
+                indicator.setText2(file.getPath());
+                indicator.setFraction((double) i / fileCount);
+
+                CopySnapshot.Entry entry;
+                try {
+                    entry = ProgressIndicatorUtils.awaitWithCheckCanceled(parts.get(i), indicator);
+                } catch (RuntimeException e) {
+                    IOException ioException = ExceptionUtil.findCause(e, IOException.class);
+                    if (ioException == null) {
+                        throw e;
+                    }
+                    changes.append("File Path: ").append(ignoreMatcher.relativePath(file)).append("\n")
+                            .append("Error reading file: ").append(ioException.getMessage()).append("\n\n");
+                    changedCount++;
+                    continue;
+                }
+
+                current.put(file.getPath(), entry);
+                CopySnapshot.Entry before = previous.get(file.getPath());
+                try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.ASSEMBLE)) {
+                    if (before == null) {
+                        appendFile(changes, file, "added");
+                        changedCount++;
+                    } else if (!before.getHash().equals(entry.getHash()) && appendModified(changes, file, before, entry)) {
+                        changedCount++;
+                    }
+                }
+            }
+        } finally {
+            for (Future<CopySnapshot.Entry> part : parts) {
+                part.cancel(false);
+            }
+            hashers.shutdown();
+        }
+
+        for (String path : deletedPaths(previous, current.keySet())) {
+            changes.append("File Path: ").append(ignoreMatcher.relativePath(path)).append("\n").append("Status: deleted\n\n");
+            changedCount++;
+        }
+
+        content = changes.toString();
+        snapshot.replace(current);
+    }
+
+    private CopySnapshot.Entry capture(VirtualFile file) throws IOException {
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.LOAD)) {
+            CopySnapshot.Entry entry = snapshot.capture(file);
+            metrics.addFile(file.getLength());
+            return entry;
+        }
+    }
+
+    @Override
+    public void onSuccess() {
+        onContentReady(content, changedCount);
+    }
+
+    private void appendFile(StringBuilder changes, VirtualFile file, String status) {
+        changes.append("File Path: ").append(ignoreMatcher.relativePath(file)).append("\n")
+                .append("Status: ").append(status).append("\n");
+        try {
+            String text = cache.getContent(file).getText();
+            changes.append("Content:\n").append(text).append("\n\n");
+        } catch (IOException ioException) {
+            changes.append("Error reading file: ").append(ioException.getMessage()).append("\n\n");
+        }
+    }
+
+    /**
+     * @return false if the file turned out to have the same lines as before
+     */
+    private boolean appendModified(StringBuilder changes, VirtualFile file,
+                                   CopySnapshot.Entry before, CopySnapshot.Entry after) {
+        if (!asDiffs || before.getText() == null || after.getText() == null) {
+            appendFile(changes, file, "modified");
+            return true;
+        }
+        try {
+            String path = ignoreMatcher.relativePath(file);
+            String diff = UnifiedDiff.format(path, before.getText(), after.getText());
+            if (diff.isEmpty()) {
+                return false;  // Only the encoding or line separators differ
+            }
+            changes.append("File Path: ").append(path).append("\n")
+                    .append("Status: modified\n")
+                    .append("Diff:\n").append(diff).append("\n");
+        } catch (FilesTooBigForDiffException e) {
+            appendFile(changes, file, "modified");
+        }
+        return true;
+    }
+
+    /**
+     * Files of the previous snapshot that lie within the current selection but no longer exist there.
+     */
+    private Set<String> deletedPaths(Map<String, CopySnapshot.Entry> previous, Set<String> currentPaths) {
+        Set<String> roots = new HashSet<>();
+        for (VirtualFile selected : selection) {
+            roots.add(selected.getPath());
+        }
+
+        Set<String> deleted = new TreeSet<>();
+        for (String path : previous.keySet()) {
+            if (!currentPaths.contains(path) && isWithin(path, roots)) {
+                deleted.add(path);
+            }
+        }
+        return deleted;
+    }
+
+    private static boolean isWithin(String path, Set<String> roots) {
+        for (String candidate = path; ; ) {
+            if (roots.contains(candidate)) {
+                return true;
+            }
+            int slash = candidate.lastIndexOf('/');
+            if (slash <= 0) {
+                return false;
+            }
+            candidate = candidate.substring(0, slash);
+        }
+    }
+}
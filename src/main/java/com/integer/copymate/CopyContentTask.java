@@ -0,0 +1,254 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.BundleWriter;
+import com.integer.copymate.core.ContentLoader;
+import com.integer.copymate.core.SourceMinifier;
+import com.integer.copymate.core.TokenBudgetPacker;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.Computable;
+import com.intellij.openapi.util.Ref;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Builds the "Copy Content" text in the background.
+ * Files are read on a bounded worker pool and the results are joined back in selection order,
+ * so the output is identical to a sequential read. The result is handed over on the EDT
+ * only once every file has been read.
+ * <p>
+ * Entries are prepared and assembled by the core {@link BundleWriter}, like on the command line; this
+ * task supplies the files through the content cache and the outline extractors. With a token budget,
+ * every file is prepared at each level it supports and {@link TokenBudgetPacker} picks the level per
+ * file. With comment stripping enabled, the full content of supported source files goes through
+ * {@link SourceMinifier} after it is loaded; the cache keeps the original text.
+ * <p>
+ * With a dependency depth, the project files referenced from the selection are found by
+ * {@link DependencyClosure} and appended after the selected files, in signature form if requested.
+ * <p>
+ * The content hash of every copied file is recorded in {@link CopySnapshot} for "Copy Changed".
+ */
+abstract class CopyContentTask extends Task.Backgroundable {
+    static final int MAX_READERS = Math.max(2, Math.min(8, Runtime.getRuntime().availableProcessors()));
+
+    private final List<VirtualFile> selection;
+    private final ContentOptions options;
+    private final IgnoreMatcher ignoreMatcher;
+    private final CopyMateContentCache cache;
+    private final CopySnapshot snapshot;
+    private final CopyMetrics metrics = new CopyMetrics("Copy Content");
+    private final BundleWriter<VirtualFile> writer;
+    // Snapshot entries of the files whose content was loaded, filled by the reader threads
+    private final Map<VirtualFile, CopySnapshot.Entry> captured = new ConcurrentHashMap<>();
+
+    private String content;
+    private int fileCount;
+
+    /**
+     * @param selection     selected files and unexpanded directories, in tree order
+     * @param options       output settings
+     * @param ignoreMatcher the caller's matcher, so its compiled ignore rules are reused
+     */
+    CopyContentTask(Project project, List<VirtualFile> selection, ContentOptions options, IgnoreMatcher ignoreMatcher) {
+        super(project, "Copy Mate: Copying content", true);
+        this.selection = selection;
+        this.options = options;
+        this.ignoreMatcher = ignoreMatcher;
+        this.cache = CopyMateContentCache.getInstance(project);
+        this.snapshot = CopySnapshot.getInstance(project);
+        this.writer = new BundleWriter<>(new ProjectSource(), options.isCopyMethodsOnly(), options.isStripComments(),
+                options.getTokenBudget(), MAX_READERS);
+    }
+
+    /**
+     * Called on the EDT when all files have been read.
+     *
+     * @param content   the aggregated text
+     * @param fileCount number of files included, without those omitted to fit the token budget
+     */
+    protected abstract void onContentReady(String content, int fileCount);
+
+    /**
+     * Timings of this run; the clipboard phase is added by the caller before finishing it.
+     */
+    CopyMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Collecting selected files...");
+        List<VirtualFile> files;
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.TRAVERSAL)) {
+            files = expandSelection(getProject(), ignoreMatcher, selection, indicator);
+        }
+        int selectedCount = files.size();
+        if (options.getDependencyDepth() > 0) {
+            indicator.setText("Resolving referenced files...");
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.DEPENDENCIES)) {
+                files = new ArrayList<>(files);
+                files.addAll(DependencyClosure.expand(getProject(), files, options.getDependencyDepth(), indicator));
+            }
+        }
+        fileCount = files.size();
+
+        indicator.setIndeterminate(false);
+        indicator.setText("Reading " + fileCount + " files...");
+
+        ExecutorService readers = AppExecutorUtil.createBoundedApplicationPoolExecutor("Copy Mate Reader", MAX_READERS);
+        List<Future<BundleWriter.Entry>> parts = new ArrayList<>(fileCount);
+        BundleWriter.Entry[] entries = new BundleWriter.Entry[fileCount];
+        try {
+            for (int i = 0; i < fileCount; i++) {
+                VirtualFile file = files.get(i);
+                boolean signaturesOnly = options.isCopyMethodsOnly()
+                        || i >= selectedCount && options.isDependencySignaturesOnly();
+                parts.add(readers.submit(() -> indicator.isCanceled()
+                        ? null
+                        : underProgress(indicator, () -> readEntry(file, signaturesOnly))));
+            }
+
+            // Join in selection order; each wait honors the cancel button
+            for (int i = 0; i < fileCount; i++) {
+                indicator.setText2(files.get(i).getPath());
+                indicator.setFraction((double) i / fileCount);
+                entries[i] = ProgressIndicatorUtils.awaitWithCheckCanceled(parts.get(i), indicator);
+            }
+        } finally {
+            for (Future<BundleWriter.Entry> part : parts) {
+                part.cancel(false);
+            }
+            readers.shutdown();
+        }
+
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.ASSEMBLE)) {
+            StringBuilder contentToCopy = new StringBuilder();
+            fileCount = writer.append(entries, contentToCopy);
+            content = contentToCopy.toString();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // Appending to a StringBuilder does not throw
+        }
+
+        Map<String, CopySnapshot.Entry> copied = new HashMap<>();
+        for (VirtualFile file : files) {
+            CopySnapshot.Entry entry = captured.get(file);
+            if (entry != null) {
+                copied.put(file.getPath(), entry);
+            }
+        }
+        snapshot.replace(copied);
+    }
+
+    @Override
+    public void onSuccess() {
+        onContentReady(content, fileCount);
+    }
+
+    /**
+     * @param signaturesOnly whether a file with an outline is copied as its outline only
+     */
+    private BundleWriter.Entry readEntry(VirtualFile file, boolean signaturesOnly) {
+        BundleWriter.Entry entry = writer.prepare(file, signaturesOnly);
+        if (!captured.containsKey(file) && file.isValid()) {
+            // Only the outline was read, so the snapshot records the file without its text
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.LOAD)) {
+                captured.put(file, snapshot.capture(file));
+            } catch (IOException e) {
+                // Left out of the snapshot, so the next "Copy Changed" reports it as added
+            }
+        }
+        metrics.addFile(file.getLength());
+        return entry;
+    }
+
+    /**
+     * Run part of a task on a pool thread under the task's indicator. Non-blocking read actions started
+     * there, e.g. by PSI outline extractors, find it as the global indicator and stop when the task is
+     * cancelled.
+     */
+    static <T> T underProgress(ProgressIndicator indicator, Computable<T> work) {
+        Ref<T> result = new Ref<>();
+        ProgressManager.getInstance().executeProcessUnderProgress(() -> result.set(work.compute()), indicator);
+        return result.get();
+    }
+
+    /**
+     * Replace every directory in the selection by the files beneath it, keeping selection order, in a
+     * non-blocking read action bound to the task's indicator: the walk yields to write actions and
+     * restarts after them, and the cancel button stops it.
+     */
+    static List<VirtualFile> expandSelection(Project project, IgnoreMatcher ignoreMatcher, List<VirtualFile> selection,
+                                             ProgressIndicator indicator) {
+        return ReadAction.nonBlocking(() -> ignoreMatcher.expand(selection))
+                .wrapProgress(indicator)
+                .expireWith(project)
+                .executeSynchronously();
+    }
+
+    /**
+     * Reads the bundle's files through the content cache, the outline extractors and the metrics.
+     */
+    private final class ProjectSource implements BundleWriter.Source<VirtualFile> {
+
+        @Override
+        public String path(VirtualFile file) {
+            return ignoreMatcher.relativePath(file);
+        }
+
+        @Override
+        public boolean hasOutline(VirtualFile file) {
+            return OutlineExtractors.isSupported(file);
+        }
+
+        @Override
+        public String outline(VirtualFile file) {
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.EXTRACT)) {
+                return cache.getOrCompute(file, CopyMateContentCache.Kind.SIGNATURES,
+                        () -> OutlineExtractors.extract(getProject(), file));
+            } catch (OutlineExtractors.ExtractionException e) {
+                return e.getMessage();  // Not cached, so the next copy tries again
+            }
+        }
+
+        @Override
+        public String content(VirtualFile file) throws IOException {
+            long stamp = FileContentLoader.contentStamp(file);
+            ContentLoader.Loaded loaded;
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.LOAD)) {
+                loaded = cache.getContent(file);
+                // Hash what was just loaded instead of reading the file again, unless it was cut short
+                captured.put(file, snapshot.capture(file, stamp, loaded));
+            }
+            return loaded.getText();
+        }
+
+        /**
+         * Minify the full content of a source file and record what it saved.
+         */
+        @Override
+        public String minify(VirtualFile file, String text, SourceMinifier.Syntax syntax) {
+            String minified;
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.MINIFY)) {
+                minified = SourceMinifier.minify(text, syntax);
+            }
+            metrics.addStripped(text, minified);
+            return minified;
+        }
+    }
+}
@@ -0,0 +1,37 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.project.Project;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Rolling history of the most recent copy runs of a project, shown in the diagnostics view.
+ */
+@Service(Service.Level.PROJECT)
+final class CopyDiagnostics {
+    private static final int MAX_RUNS = 50;
+
+    private final Deque<CopyMetrics.Report> reports = new ArrayDeque<>();
+
+    static CopyDiagnostics getInstance(Project project) {
+        return project.getService(CopyDiagnostics.class);
+    }
+
+    synchronized void add(CopyMetrics.Report report) {
+        reports.addFirst(report);
+        while (reports.size() > MAX_RUNS) {
+            reports.removeLast();
+        }
+    }
+
+    /**
+     * @return the recorded runs, newest first
+     */
+    synchronized List<CopyMetrics.Report> getReports() {
+        return new ArrayList<>(reports);
+    }
+}
@@ -0,0 +1,221 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.ContentLoader;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.editor.EditorFactory;
+import com.intellij.openapi.editor.event.DocumentEvent;
+import com.intellij.openapi.editor.event.DocumentListener;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.ThrowableComputable;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Project-level cache of file content, extracted signatures and resolved file references.
+ * <p>
+ * Entries are keyed by file and kind and remember the modification stamp (of the document when the file
+ * is open, of the file otherwise) they were computed for,
+ * so a stale entry is never returned even if an invalidation event was missed. VFS and document
+ * changes drop entries eagerly, and the cache is bounded by the {@code copymate.cache.size.mb}
+ * registry key with least-recently-used eviction.
+ */
+@Service(Service.Level.PROJECT)
+final class CopyMateContentCache implements Disposable {
+
+    enum Kind {
+        CONTENT,
+        SIGNATURES,
+        DEPENDENCIES
+    }
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long cachedChars;
+
+    CopyMateContentCache(Project project) {
+        project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, new BulkFileListener() {
+            @Override
+            public void after(@NotNull List<? extends VFileEvent> events) {
+                for (VFileEvent event : events) {
+                    VirtualFile file = event.getFile();
+                    if (file != null) {
+                        invalidate(file);
+                    }
+                }
+            }
+        });
+
+        EditorFactory.getInstance().getEventMulticaster().addDocumentListener(new DocumentListener() {
+            @Override
+            public void documentChanged(@NotNull DocumentEvent event) {
+                VirtualFile file = FileDocumentManager.getInstance().getFile(event.getDocument());
+                if (file != null) {
+                    invalidate(file);
+                }
+            }
+        }, this);
+    }
+
+    static CopyMateContentCache getInstance(Project project) {
+        return project.getService(CopyMateContentCache.class);
+    }
+
+    /**
+     * Return the cached text for the file's current modification stamp, computing and caching it on a miss.
+     * Nothing is cached when the computation throws.
+     */
+    <E extends Exception> String getOrCompute(VirtualFile file, Kind kind,
+                                              ThrowableComputable<String, E> computation) throws E {
+        return getOrCompute(file, kind, 0, computation);
+    }
+
+    /**
+     * As {@link #getOrCompute(VirtualFile, Kind, ThrowableComputable)} for results that also depend on
+     * other files: an entry is only returned while both the file's stamp and the given version are unchanged.
+     *
+     * @param version modification count of whatever else the result depends on, read before computing
+     */
+    <E extends Exception> String getOrCompute(VirtualFile file, Kind kind, long version,
+                                              ThrowableComputable<String, E> computation) throws E {
+        long stamp = FileContentLoader.contentStamp(file);
+        Key key = new Key(file, kind);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.stamp == stamp && entry.version == version) {
+                return entry.text;
+            }
+        }
+
+        String text = computation.compute();
+        put(key, new Entry(stamp, version, text, null));
+        return text;
+    }
+
+    /**
+     * Return the file's {@link Kind#CONTENT} as {@link FileContentLoader#load} returns it, with its
+     * binary and truncation flags, loading and caching it on a miss.
+     */
+    ContentLoader.Loaded getContent(VirtualFile file) throws IOException {
+        long stamp = FileContentLoader.contentStamp(file);
+        Key key = new Key(file, Kind.CONTENT);
+
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.stamp == stamp && entry.content != null) {
+                return entry.content;
+            }
+        }
+
+        ContentLoader.Loaded content = FileContentLoader.load(file);
+        put(key, new Entry(stamp, 0, content.getText(), content));
+        return content;
+    }
+
+    synchronized void invalidate(VirtualFile file) {
+        if (!file.isDirectory()) {
+            for (Kind kind : Kind.values()) {
+                Entry removed = entries.remove(new Key(file, kind));
+                if (removed != null) {
+                    cachedChars -= removed.text.length();
+                }
+            }
+            return;
+        }
+
+        // A moved, renamed or deleted directory affects everything cached beneath it
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Key, Entry> next = iterator.next();
+            if (VfsUtilCore.isAncestor(file, next.getKey().file, false)) {
+                cachedChars -= next.getValue().text.length();
+                iterator.remove();
+            }
+        }
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        cachedChars = 0;
+    }
+
+    private synchronized void put(Key key, Entry entry) {
+        // Java strings take roughly two bytes per char
+        long maxChars = Registry.intValue("copymate.cache.size.mb", 64) * 1024L * 1024L / 2;
+        if (entry.text.length() > maxChars) {
+            return;
+        }
+
+        Entry previous = entries.put(key, entry);
+        if (previous != null) {
+            cachedChars -= previous.text.length();
+        }
+        cachedChars += entry.text.length();
+
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (cachedChars > maxChars && eldest.hasNext()) {
+            cachedChars -= eldest.next().text.length();
+            eldest.remove();
+        }
+    }
+
+    @Override
+    public void dispose() {
+        clear();
+    }
+
+    private static final class Key {
+        private final VirtualFile file;
+        private final Kind kind;
+
+        Key(VirtualFile file, Kind kind) {
+            this.file = file;
+            this.kind = kind;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key key = (Key) o;
+            return file.equals(key.file) && kind == key.kind;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(file, kind);
+        }
+    }
+
+    private static final class Entry {
+        private final long stamp;
+        private final long version;
+        private final String text;
+        // The load result of a content entry, null for the other kinds
+        private final ContentLoader.Loaded content;
+
+        Entry(long stamp, long version, String text, ContentLoader.Loaded content) {
+            this.stamp = stamp;
+            this.version = version;
+            this.text = text;
+            this.content = content;
+        }
+    }
+}
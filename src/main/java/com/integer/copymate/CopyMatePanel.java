@@ -0,0 +1,339 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.registry.RegistryValue;
+import com.intellij.openapi.util.registry.RegistryValueListener;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.ui.components.JBCheckBox;
+import com.intellij.ui.components.JBLabel;
+import com.intellij.ui.components.JBScrollPane;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.border.TitledBorder;
+import java.awt.*;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Content of the Copy Mate tool window: the project file tree with checkboxes, the copy options and
+ * the copy buttons.
+ * <p>
+ * The panel lives as long as the tool window, so the tree, its loaded directories, the checked files
+ * and the path index are kept between uses. {@link FileTreeUpdater} applies file system changes to the
+ * tree and the path index as they happen; both are brought in line with the ignore rules when a
+ * {@code .gitignore} file or the ignore patterns in the registry change.
+ * <p>
+ * The tree, the filter and the option rows are components of their own; the panel lays them out and
+ * starts the copy tasks with one shared {@link IgnoreMatcher}.
+ */
+final class CopyMatePanel extends JPanel implements Disposable {
+    private final Project project;
+    private final FileIconCache icons = new FileIconCache();
+    private final VirtualFile baseDir;
+    private final IgnoreMatcher ignoreMatcher;
+    private final SelectionSummary selectionSummary;
+    private final FileTreeView fileTree;
+    private final PathFilter pathFilter;
+    private JBLabel summaryLabel;
+    private JBCheckBox copyMethodsOnlyCheckbox;
+    private JBCheckBox treeGlyphsCheckbox;
+    private JBCheckBox changesAsDiffsCheckbox;
+    private JBCheckBox stripCommentsCheckbox;
+    private TokenBudgetRow tokenBudgetRow;
+    private DependencyRow dependencyRow;
+
+    CopyMatePanel(Project project) {
+        super(new BorderLayout());
+        this.project = project;
+        baseDir = project.getBaseDir();
+        ignoreMatcher = IgnoreMatcher.create(project);
+        selectionSummary = new SelectionSummary(ignoreMatcher, this, this::updateSummary);
+        fileTree = new FileTreeView(baseDir, ignoreMatcher, icons, selectionSummary);
+        pathFilter = new PathFilter(baseDir, ignoreMatcher, fileTree, this);
+        add(createCenterPanel(), BorderLayout.CENTER);
+        add(createSouthPanel(), BorderLayout.SOUTH);
+
+        // Follow file system changes instead of rescanning the project
+        if (baseDir != null) {
+            FileTreeUpdater updater = new FileTreeUpdater(baseDir, fileTree.getRootNode(), fileTree.getModel(),
+                    selectionSummary, ignoreMatcher, icons, pathFilter::getPathIndex,
+                    pathFilter::fileTreeChanged, pathFilter::ignoreRulesChanged);
+            project.getMessageBus().connect(this).subscribe(VirtualFileManager.VFS_CHANGES, updater);
+            Registry.get("copymate.ignore.patterns").addListener(new RegistryValueListener() {
+                @Override
+                public void afterValueChanged(@NotNull RegistryValue value) {
+                    updater.reloadIgnoreRules();
+                }
+            }, this);
+        }
+    }
+
+    @Override
+    public void dispose() {
+        // The VFS subscription and background reads are registered as children of this panel
+    }
+
+    private JComponent createCenterPanel() {
+        JPanel mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Wrap tree in scroll pane with improved styling
+        JBScrollPane scrollPane = new JBScrollPane(fileTree.getTree());
+        scrollPane.setPreferredSize(new Dimension(550, 500));
+
+        // Add tree panel with title
+        JPanel treePanel = new JPanel(new BorderLayout());
+        treePanel.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(75, 110, 175), 1),
+                "Project Files",
+                TitledBorder.LEFT,
+                TitledBorder.TOP,
+                null,
+                new Color(75, 110, 175)
+        ));
+        treePanel.add(pathFilter.getComponent(), BorderLayout.NORTH);
+        treePanel.add(scrollPane, BorderLayout.CENTER);
+
+        // Create options panel
+        JPanel optionsPanel = new JPanel();
+        optionsPanel.setLayout(new BoxLayout(optionsPanel, BoxLayout.Y_AXIS));
+        optionsPanel.setBorder(BorderFactory.createTitledBorder(
+                BorderFactory.createLineBorder(new Color(75, 110, 175), 1),
+                "Copy Options",
+                TitledBorder.LEFT,
+                TitledBorder.TOP,
+                null,
+                new Color(75, 110, 175)
+        ));
+
+        // "Copy Methods Only" uses the outline extractors registered for each file type
+        copyMethodsOnlyCheckbox = new JBCheckBox("Copy Signatures Only");
+        copyMethodsOnlyCheckbox.setToolTipText("When enabled, only declarations and signatures will be copied for supported source files");
+        copyMethodsOnlyCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        // Add description
+        JLabel optionsDescription = new JLabel(
+                "<html>When enabled, Java, Kotlin, Python, TypeScript/JavaScript and Go files will only include<br>" +
+                        "their declarations and signatures. For all other file types, the full content will be copied.</html>");
+        optionsDescription.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        // Structure output style
+        treeGlyphsCheckbox = new JBCheckBox("Draw Structure With Tree Lines");
+        treeGlyphsCheckbox.setToolTipText("When enabled, Copy Structure draws branches with box-drawing characters instead of indentation");
+        treeGlyphsCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
+
+        optionsPanel.add(copyMethodsOnlyCheckbox);
+        optionsPanel.add(Box.createVerticalStrut(5));
+        optionsPanel.add(optionsDescription);
+        optionsPanel.add(Box.createVerticalStrut(10));
+
+        // Minify full-content copies
+        stripCommentsCheckbox = new JBCheckBox("Strip Comments And Blank Lines");
+        stripCommentsCheckbox.setToolTipText("When enabled, copied source files drop comments, license headers, blank lines and repeated spaces");
+        stripCommentsCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
+        optionsPanel.add(stripCommentsCheckbox);
+        optionsPanel.add(Box.createVerticalStrut(10));
+        optionsPanel.add(treeGlyphsCheckbox);
+        optionsPanel.add(Box.createVerticalStrut(10));
+        tokenBudgetRow = new TokenBudgetRow();
+        optionsPanel.add(tokenBudgetRow);
+        optionsPanel.add(Box.createVerticalStrut(10));
+        dependencyRow = new DependencyRow();
+        optionsPanel.add(dependencyRow);
+        optionsPanel.add(Box.createVerticalStrut(10));
+
+        // "Copy Changed" output style
+        changesAsDiffsCheckbox = new JBCheckBox("Copy Changes As Unified Diffs");
+        changesAsDiffsCheckbox.setToolTipText("When enabled, Copy Changed emits modified files as diffs against the last copy");
+        changesAsDiffsCheckbox.setAlignmentX(Component.LEFT_ALIGNMENT);
+        optionsPanel.add(changesAsDiffsCheckbox);
+        optionsPanel.add(Box.createVerticalStrut(10));
+        ProfileRow profileRow = new ProfileRow(project, baseDir, ignoreMatcher, fileTree, pathFilter,
+                this::updateSummary, this);
+        optionsPanel.add(profileRow);
+        optionsPanel.add(Box.createVerticalStrut(10));
+        optionsPanel.add(new ExportRow(project, baseDir, ignoreMatcher, fileTree, copyMethodsOnlyCheckbox::isSelected));
+        optionsPanel.add(Box.createVerticalStrut(10));
+
+        // Live size of the current selection
+        summaryLabel = new JBLabel();
+        summaryLabel.setAlignmentX(Component.LEFT_ALIGNMENT);
+        updateSummary();
+        optionsPanel.add(summaryLabel);
+        optionsPanel.setPreferredSize(new Dimension(550, 340));
+
+        // Split the main panel
+        JSplitPane splitPane = new JSplitPane(JSplitPane.VERTICAL_SPLIT);
+        splitPane.setTopComponent(treePanel);
+        splitPane.setBottomComponent(optionsPanel);
+        splitPane.setResizeWeight(0.8);
+        splitPane.setDividerLocation(400);
+
+        mainPanel.add(splitPane, BorderLayout.CENTER);
+
+        profileRow.restoreLastProfile();
+        return mainPanel;
+    }
+
+    private JComponent createSouthPanel() {
+        // Three buttons per row so the panel fits a narrow tool window
+        JPanel panel = new JPanel(new GridLayout(0, 3, 10, 5));
+        panel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+
+        // Common button styling
+        Color buttonColor = new Color(75, 110, 175);
+        Color textColor = Color.WHITE;
+
+        // Selection buttons
+        JButton selectAllButton = new JButton("Select All");
+        styleButton(selectAllButton, buttonColor, textColor);
+        selectAllButton.addActionListener(e -> selectAllFiles(true));
+
+        JButton deselectAllButton = new JButton("Deselect All");
+        styleButton(deselectAllButton, buttonColor, textColor);
+        deselectAllButton.addActionListener(e -> selectAllFiles(false));
+
+        // Copy content button
+        JButton copyContentButton = new JButton("Copy Content");
+        styleButton(copyContentButton, buttonColor, textColor);
+        copyContentButton.addActionListener(e -> copySelectedContent());
+
+        // Copy changes since the last copy
+        JButton copyChangedButton = new JButton("Copy Changed");
+        styleButton(copyChangedButton, buttonColor, textColor);
+        copyChangedButton.addActionListener(e -> copyChangedContent());
+
+        // Copy structure button
+        JButton copyStructureButton = new JButton("Copy Structure");
+        styleButton(copyStructureButton, buttonColor, textColor);
+        copyStructureButton.addActionListener(e -> copyFileStructure());
+
+        // Recent run timings
+        JButton diagnosticsButton = new JButton("Diagnostics");
+        styleButton(diagnosticsButton, buttonColor, textColor);
+        diagnosticsButton.addActionListener(e -> new DiagnosticsDialog(project).show());
+
+        // Add buttons to panel
+        panel.add(selectAllButton);
+        panel.add(deselectAllButton);
+        panel.add(copyContentButton);
+        panel.add(copyChangedButton);
+        panel.add(copyStructureButton);
+        panel.add(diagnosticsButton);
+
+        return panel;
+    }
+
+    private void styleButton(JButton button, Color bgColor, Color fgColor) {
+        button.setBackground(bgColor);
+        button.setForeground(fgColor);
+        button.setFocusPainted(false);
+        button.setBorderPainted(false);
+        button.setOpaque(true);
+        button.setPreferredSize(new Dimension(120, 30));
+        button.setFont(button.getFont().deriveFont(Font.BOLD));
+    }
+
+    private void selectAllFiles(boolean select) {
+        fileTree.setAllChecked(select);
+        updateSummary();
+    }
+
+    private void updateSummary() {
+        summaryLabel.setText("Selected: " + selectionSummary.describe());
+    }
+
+    private void copySelectedContent() {
+        // Traverse the tree and collect selected files
+        List<VirtualFile> selectedFiles = fileTree.collectSelectedFiles();
+
+        // Check if any files were selected
+        if (selectedFiles.isEmpty()) {
+            showNoFilesSelected();
+            return;
+        }
+
+        // Get the checkbox states
+        ContentOptions options = new ContentOptions(
+                copyMethodsOnlyCheckbox.isSelected(),
+                tokenBudgetRow.getTokenBudget(),
+                stripCommentsCheckbox.isSelected(),
+                dependencyRow.getDepth(),
+                dependencyRow.isSignaturesOnly());
+
+        // Read the files in the background and copy once everything is assembled
+        new CopyContentTask(project, selectedFiles, options, ignoreMatcher) {
+            @Override
+            protected void onContentReady(String content, int fileCount) {
+                if (fileCount == 0) {
+                    showNoFilesSelected();
+                } else {
+                    ClipboardCopy.copy(project, content, getMetrics(), "Content copied to clipboard successfully");
+                }
+            }
+        }.queue();
+    }
+
+    private void copyChangedContent() {
+        List<VirtualFile> selectedFiles = fileTree.collectSelectedFiles();
+        if (selectedFiles.isEmpty()) {
+            showNoFilesSelected();
+            return;
+        }
+
+        // Hash the selection in the background and copy what differs from the last copy
+        new CopyChangedTask(project, selectedFiles, changesAsDiffsCheckbox.isSelected(), ignoreMatcher) {
+            @Override
+            protected void onContentReady(String content, int changedCount) {
+                if (changedCount == 0) {
+                    JOptionPane.showMessageDialog(
+                            null,
+                            "No changes since the last copy",
+                            "Copy Mate",
+                            JOptionPane.INFORMATION_MESSAGE
+                    );
+                } else {
+                    ClipboardCopy.copy(project, content, getMetrics(), "Content copied to clipboard successfully");
+                }
+            }
+        }.queue();
+    }
+
+    static void showNoFilesSelected() {
+        JOptionPane.showMessageDialog(
+                null,
+                "No files selected",
+                "Copy Mate",
+                JOptionPane.INFORMATION_MESSAGE
+        );
+    }
+
+    private void copyFileStructure() {
+        // Collect the outermost selected directories and the files outside them, with the loaded subtrees
+        Map<VirtualFile, List<VirtualFile>> loadedChildren = new HashMap<>();
+        List<VirtualFile> selection = fileTree.collectStructureRoots(loadedChildren);
+
+        if (selection.isEmpty()) {
+            JOptionPane.showMessageDialog(
+                    null,
+                    "No files or directories selected",
+                    "Copy Mate",
+                    JOptionPane.INFORMATION_MESSAGE
+            );
+            return;
+        }
+
+        // Render in the background; only directories never expanded in the tree are listed from the VFS
+        new CopyStructureTask(project, selection, treeGlyphsCheckbox.isSelected(), loadedChildren, ignoreMatcher) {
+            @Override
+            protected void onStructureReady(String structure) {
+                ClipboardCopy.copy(project, structure, getMetrics(), "Content copied to clipboard successfully");
+            }
+        }.queue();
+    }
+}
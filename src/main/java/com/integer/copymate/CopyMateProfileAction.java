@@ -0,0 +1,83 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.popup.JBPopupFactory;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.List;
+
+/**
+ * Copies the content of a saved selection profile without opening the Copy Mate tool window.
+ */
+public class CopyMateProfileAction extends AnAction {
+
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent event) {
+        Project project = event.getProject();
+        event.getPresentation().setEnabled(project != null && SelectionProfiles.getInstance(project).hasProfiles());
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent event) {
+        Project project = event.getProject();
+        if (project == null) {
+            return;
+        }
+
+        SelectionProfiles profiles = SelectionProfiles.getInstance(project);
+        JBPopupFactory.getInstance()
+                .createPopupChooserBuilder(profiles.getProfileNames())
+                .setTitle("Copy Mate Profile")
+                .setItemChosenCallback(name -> copyProfile(project, profiles, name))
+                .createPopup()
+                .showCenteredInCurrentWindow(project);
+    }
+
+    private static void copyProfile(Project project, SelectionProfiles profiles, String name) {
+        SelectionProfiles.Profile profile = profiles.findProfile(name);
+        VirtualFile baseDir = project.getBaseDir();
+        if (profile == null || baseDir == null) {
+            return;
+        }
+        profiles.setLastProfile(name);
+
+        // Resolve the profile in the background, then read the files like the tool window's Copy Content does
+        IgnoreMatcher ignoreMatcher = IgnoreMatcher.create(project);
+        ReadAction.nonBlocking(() -> SelectionProfiles.resolve(profile, baseDir, ignoreMatcher))
+                .finishOnUiThread(ModalityState.defaultModalityState(),
+                        files -> copyContent(project, files, ignoreMatcher))
+                .expireWith(project)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private static void copyContent(Project project, List<VirtualFile> files, IgnoreMatcher ignoreMatcher) {
+        new CopyContentTask(project, files, new ContentOptions(false, 0, false, 0, false), ignoreMatcher) {
+            @Override
+            protected void onContentReady(String content, int fileCount) {
+                if (fileCount == 0) {
+                    JOptionPane.showMessageDialog(
+                            null,
+                            "The profile matches no files",
+                            "Copy Mate",
+                            JOptionPane.INFORMATION_MESSAGE
+                    );
+                    return;
+                }
+                ClipboardCopy.copy(project, content, getMetrics(), "Copied " + fileCount + " files to clipboard");
+            }
+        }.queue();
+    }
+}
@@ -0,0 +1,25 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import com.intellij.openapi.wm.ToolWindowFactory;
+import com.intellij.ui.content.Content;
+import com.intellij.ui.content.ContentFactory;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Creates the Copy Mate tool window. Its content is built once per project, when the window is first
+ * shown, and disposed with the project.
+ */
+public class CopyMateToolWindowFactory implements ToolWindowFactory, DumbAware {
+    static final String ID = "Copy Mate";
+
+    @Override
+    public void createToolWindowContent(@NotNull Project project, @NotNull ToolWindow toolWindow) {
+        CopyMatePanel panel = new CopyMatePanel(project);
+        Content content = ContentFactory.getInstance().createContent(panel, "", false);
+        content.setDisposer(panel);
+        toolWindow.getContentManager().addContent(content);
+    }
+}
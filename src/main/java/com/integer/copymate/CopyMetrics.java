@@ -0,0 +1,273 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.TokenEstimator;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.util.text.StringUtil;
+
+import java.lang.management.ManagementFactory;
+import java.util.EnumMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timers and counters for one copy run, broken down by phase.
+ * <p>
+ * Phases may be measured concurrently from the reader threads: their times are summed, so the load and
+ * extract figures are cumulative worker time and can exceed the wall time of the run. With the
+ * {@code copymate.diagnostics.allocations} registry key set, the bytes allocated by the measuring thread
+ * during each span are sampled as well.
+ */
+final class CopyMetrics {
+    private static final Logger LOG = Logger.getInstance(CopyMetrics.class);
+
+    enum Phase {
+        TRAVERSAL("Traversal"),
+        DEPENDENCIES("Dependencies"),
+        LOAD("Load"),
+        EXTRACT("Extract"),
+        MINIFY("Minify"),
+        ASSEMBLE("Assemble"),
+        CLIPBOARD("Clipboard");
+
+        private final String label;
+
+        Phase(String label) {
+            this.label = label;
+        }
+
+        String getLabel() {
+            return label;
+        }
+    }
+
+    private final String action;
+    private final long startNanos = System.nanoTime();
+    private final com.sun.management.ThreadMXBean threads = allocationSampler();
+    private final Map<Phase, LongAdder> nanos = new EnumMap<>(Phase.class);
+    private final Map<Phase, LongAdder> allocated = new EnumMap<>(Phase.class);
+    private final LongAdder files = new LongAdder();
+    private final LongAdder bytes = new LongAdder();
+    private final LongAdder strippedBytes = new LongAdder();
+    private final LongAdder strippedTokens = new LongAdder();
+
+    /**
+     * @param action name of the action shown in the breakdown, e.g. "Copy Content"
+     */
+    CopyMetrics(String action) {
+        this.action = action;
+        for (Phase phase : Phase.values()) {
+            nanos.put(phase, new LongAdder());
+            allocated.put(phase, new LongAdder());
+        }
+    }
+
+    /**
+     * Start timing a phase on the current thread; close the span to record it.
+     */
+    Span span(Phase phase) {
+        return new Span(phase);
+    }
+
+    /**
+     * Count a file and its size.
+     *
+     * @param bytes the file's length on disk, {@link com.intellij.openapi.vfs.VirtualFile#getLength()}
+     */
+    void addFile(long bytes) {
+        files.increment();
+        this.bytes.add(bytes);
+    }
+
+    /**
+     * Count what comment stripping removed from a file: the difference in UTF-8 bytes, to compare with
+     * the file sizes, and in estimated tokens.
+     */
+    void addStripped(CharSequence original, CharSequence minified) {
+        strippedBytes.add(utf8Length(original) - utf8Length(minified));
+        strippedTokens.add(TokenEstimator.estimate(original) - TokenEstimator.estimate(minified));
+    }
+
+    private static long utf8Length(CharSequence text) {
+        long length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length()
+                    && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    /**
+     * Stop the run, log its breakdown and add it to the project's diagnostics history.
+     */
+    Report finish(Project project) {
+        Map<Phase, Long> phaseNanos = new EnumMap<>(Phase.class);
+        Map<Phase, Long> phaseAllocated = new EnumMap<>(Phase.class);
+        for (Phase phase : Phase.values()) {
+            phaseNanos.put(phase, nanos.get(phase).sum());
+            phaseAllocated.put(phase, allocated.get(phase).sum());
+        }
+        Report report = new Report(action, System.currentTimeMillis(), System.nanoTime() - startNanos,
+                files.sum(), bytes.sum(), strippedBytes.sum(), strippedTokens.sum(),
+                phaseNanos, threads != null ? phaseAllocated : null);
+
+        LOG.info(report.toLogLine());
+        CopyDiagnostics.getInstance(project).add(report);
+        return report;
+    }
+
+    private static com.sun.management.ThreadMXBean allocationSampler() {
+        if (!Registry.is("copymate.diagnostics.allocations", false)) {
+            return null;
+        }
+        java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+
+    /**
+     * One timed section of a phase.
+     */
+    final class Span implements AutoCloseable {
+        private final Phase phase;
+        private final long start = System.nanoTime();
+        private final long allocatedAtStart;
+
+        private Span(Phase phase) {
+            this.phase = phase;
+            this.allocatedAtStart = threads != null ? threads.getCurrentThreadAllocatedBytes() : 0;
+        }
+
+        @Override
+        public void close() {
+            nanos.get(phase).add(System.nanoTime() - start);
+            if (threads != null) {
+                allocated.get(phase).add(threads.getCurrentThreadAllocatedBytes() - allocatedAtStart);
+            }
+        }
+    }
+
+    /**
+     * Immutable result of a finished run.
+     */
+    static final class Report {
+        private final String action;
+        private final long timestamp;
+        private final long totalNanos;
+        private final long files;
+        private final long bytes;
+        private final long strippedBytes;
+        private final long strippedTokens;
+        private final Map<Phase, Long> phaseNanos;
+        private final Map<Phase, Long> phaseAllocated;
+
+        Report(String action, long timestamp, long totalNanos, long files, long bytes,
+               long strippedBytes, long strippedTokens,
+               Map<Phase, Long> phaseNanos, Map<Phase, Long> phaseAllocated) {
+            this.action = action;
+            this.timestamp = timestamp;
+            this.totalNanos = totalNanos;
+            this.files = files;
+            this.bytes = bytes;
+            this.strippedBytes = strippedBytes;
+            this.strippedTokens = strippedTokens;
+            this.phaseNanos = phaseNanos;
+            this.phaseAllocated = phaseAllocated;
+        }
+
+        String getAction() {
+            return action;
+        }
+
+        long getTimestamp() {
+            return timestamp;
+        }
+
+        long getTotalMillis() {
+            return totalNanos / 1_000_000;
+        }
+
+        long getFiles() {
+            return files;
+        }
+
+        long getBytes() {
+            return bytes;
+        }
+
+        long getStrippedBytes() {
+            return strippedBytes;
+        }
+
+        long getStrippedTokens() {
+            return strippedTokens;
+        }
+
+        long getMillis(Phase phase) {
+            return phaseNanos.get(phase) / 1_000_000;
+        }
+
+        /**
+         * @return bytes allocated during the phase, or -1 if allocations were not sampled
+         */
+        long getAllocated(Phase phase) {
+            return phaseAllocated == null ? -1 : phaseAllocated.get(phase);
+        }
+
+        /**
+         * Multi-line breakdown for the notification shown after the copy.
+         */
+        String describe() {
+            StringBuilder text = new StringBuilder();
+            text.append(files).append(" files, ").append(StringUtil.formatFileSize(bytes)).append(" read in ")
+                    .append(getTotalMillis()).append(" ms\n");
+            if (strippedBytes > 0) {
+                text.append("Comment stripping saved ").append(StringUtil.formatFileSize(strippedBytes))
+                        .append(" (~").append(strippedTokens).append(" tokens)\n");
+            }
+            for (Phase phase : Phase.values()) {
+                if (phaseNanos.get(phase) == 0) {
+                    continue;
+                }
+                text.append("  ").append(phase.label).append(": ").append(getMillis(phase)).append(" ms");
+                if (phaseAllocated != null) {
+                    text.append(", ").append(StringUtil.formatFileSize(phaseAllocated.get(phase))).append(" allocated");
+                }
+                text.append('\n');
+            }
+            return text.toString();
+        }
+
+        String toLogLine() {
+            StringBuilder line = new StringBuilder("Copy Mate ").append(action)
+                    .append(": files=").append(files)
+                    .append(" bytes=").append(bytes)
+                    .append(" totalMs=").append(getTotalMillis())
+                    .append(" strippedBytes=").append(strippedBytes)
+                    .append(" strippedTokens=").append(strippedTokens);
+            for (Phase phase : Phase.values()) {
+                String key = phase.name().toLowerCase(Locale.ROOT);
+                line.append(' ').append(key).append("Ms=").append(getMillis(phase));
+                if (phaseAllocated != null) {
+                    line.append(' ').append(key).append("Alloc=").append(phaseAllocated.get(phase));
+                }
+            }
+            return line.toString();
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.actionSystem.ActionUpdateThread;
+import com.intellij.openapi.actionSystem.AnAction;
+import com.intellij.openapi.actionSystem.AnActionEvent;
+import com.intellij.openapi.actionSystem.CommonDataKeys;
+import com.intellij.openapi.project.DumbAware;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Project view context menu actions that copy the files and folders selected there directly, without
+ * building a file tree: the selection goes straight into the same background pipelines the tool window uses.
+ */
+public abstract class CopySelectionAction extends AnAction implements DumbAware {
+
+    /**
+     * {@link #update} only looks at the event's data, so it need not hold up the EDT.
+     */
+    @Override
+    public @NotNull ActionUpdateThread getActionUpdateThread() {
+        return ActionUpdateThread.BGT;
+    }
+
+    @Override
+    public void update(@NotNull AnActionEvent event) {
+        VirtualFile[] files = event.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        event.getPresentation().setEnabledAndVisible(event.getProject() != null && files != null && files.length > 0);
+    }
+
+    @Override
+    public void actionPerformed(@NotNull AnActionEvent event) {
+        Project project = event.getProject();
+        VirtualFile[] files = event.getData(CommonDataKeys.VIRTUAL_FILE_ARRAY);
+        if (project == null || files == null || files.length == 0) {
+            return;
+        }
+        copy(project, Arrays.asList(files));
+    }
+
+    protected abstract void copy(Project project, List<VirtualFile> selection);
+
+    private static void showNothingToCopy() {
+        JOptionPane.showMessageDialog(
+                null,
+                "The selection contains no files to copy",
+                "Copy Mate",
+                JOptionPane.INFORMATION_MESSAGE
+        );
+    }
+
+    /**
+     * Copies the full content of the selected files, and of every file below the selected folders.
+     * A file that is also selected through its folder is copied once.
+     */
+    public static final class Content extends CopySelectionAction {
+        @Override
+        protected void copy(Project project, List<VirtualFile> selection) {
+            new CopyContentTask(project, selection, new ContentOptions(false, 0, false, 0, false),
+                    IgnoreMatcher.create(project)) {
+                @Override
+                protected void onContentReady(String content, int fileCount) {
+                    if (fileCount == 0) {
+                        showNothingToCopy();
+                    } else {
+                        ClipboardCopy.copy(project, content, getMetrics(), "Copied " + fileCount + " files to clipboard");
+                    }
+                }
+            }.queue();
+        }
+    }
+
+    /**
+     * Copies the directory structure of the selection, rendered in a cancellable background task.
+     */
+    public static final class Structure extends CopySelectionAction {
+        @Override
+        protected void copy(Project project, List<VirtualFile> selection) {
+            new CopyStructureTask(project, selection, false, Map.of(), IgnoreMatcher.create(project)) {
+                @Override
+                protected void onStructureReady(String structure) {
+                    if (structure.isEmpty()) {
+                        showNothingToCopy();
+                    } else {
+                        ClipboardCopy.copy(project, structure, getMetrics(), "Structure copied to clipboard");
+                    }
+                }
+            }.queue();
+        }
+    }
+}
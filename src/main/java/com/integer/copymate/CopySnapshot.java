@@ -0,0 +1,167 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.ContentLoader;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Map;
+
+/**
+ * Content hashes of the files included in the last copy, used by "Copy Changed".
+ * <p>
+ * The snapshot is kept in memory per project and replaced as a whole after every copy. A file is hashed
+ * from the text {@link FileContentLoader} returns, which Copy Content has already loaded and which is
+ * usually in {@link CopyMateContentCache} otherwise, so unsaved and saved content hash alike. A file whose
+ * modification stamp has not changed since the last snapshot keeps its entry without being loaded again.
+ * Binary files and files above the content size cap are hashed by streaming their bytes from disk, or their
+ * unsaved editor text, without holding them in memory. The text of small files is kept for diffs, bounded
+ * per file and for the snapshot as a whole.
+ */
+@Service(Service.Level.PROJECT)
+final class CopySnapshot {
+    private static final int MAX_DIFF_TEXT_CHARS = 256 * 1024;
+    private static final long MAX_RETAINED_CHARS = 8L * 1024 * 1024;
+    private static final int HASH_CHUNK = 64 * 1024;
+
+    private final CopyMateContentCache cache;
+    private volatile Map<String, Entry> entries = Map.of();
+
+    CopySnapshot(Project project) {
+        this.cache = CopyMateContentCache.getInstance(project);
+    }
+
+    static CopySnapshot getInstance(Project project) {
+        return project.getService(CopySnapshot.class);
+    }
+
+    /**
+     * @return the snapshot of the last copy, keyed by file path
+     */
+    Map<String, Entry> getEntries() {
+        return entries;
+    }
+
+    /**
+     * Replace the snapshot. Texts beyond the overall bound are dropped; those files are then reported
+     * in full instead of as diffs.
+     */
+    void replace(Map<String, Entry> newEntries) {
+        Map<String, Entry> bounded = new HashMap<>(newEntries.size());
+        long retained = 0;
+        for (Map.Entry<String, Entry> next : newEntries.entrySet()) {
+            Entry entry = next.getValue();
+            if (entry.text != null) {
+                if (retained + entry.text.length() > MAX_RETAINED_CHARS) {
+                    entry = new Entry(entry.hash, entry.stamp, null);
+                } else {
+                    retained += entry.text.length();
+                }
+            }
+            bounded.put(next.getKey(), entry);
+        }
+        entries = Map.copyOf(bounded);
+    }
+
+    /**
+     * Record the current content of a file, loading it only if it changed since the last snapshot.
+     * Safe to call from worker threads.
+     */
+    Entry capture(VirtualFile file) throws IOException {
+        long stamp = FileContentLoader.contentStamp(file);
+        Entry previous = entries.get(file.getPath());
+        if (previous != null && previous.stamp == stamp) {
+            return previous;
+        }
+        if (FileContentLoader.isBinaryOrOversized(file)) {
+            return streamedEntry(file, stamp);
+        }
+        return capture(file, stamp, cache.getContent(file));
+    }
+
+    /**
+     * Record a file whose content the caller has already loaded with {@link FileContentLoader#load}.
+     *
+     * @param stamp the {@link FileContentLoader#contentStamp} read before the content was loaded
+     */
+    Entry capture(VirtualFile file, long stamp, ContentLoader.Loaded loaded) throws IOException {
+        if (!loaded.isComplete()) {
+            return streamedEntry(file, stamp);
+        }
+        String text = loaded.getText();
+        MessageDigest digest = newDigest();
+        digest.update(text.getBytes(StandardCharsets.UTF_8));
+        String hash = HexFormat.of().formatHex(digest.digest());
+        return new Entry(hash, stamp, text.length() <= MAX_DIFF_TEXT_CHARS ? text : null);
+    }
+
+    /**
+     * Hash a binary or oversized file in chunks. Saved files are hashed from their bytes on disk, so
+     * opening one in an editor does not change its hash.
+     */
+    private static Entry streamedEntry(VirtualFile file, long stamp) throws IOException {
+        MessageDigest digest = newDigest();
+        CharSequence unsaved = FileContentLoader.unsavedText(file);
+        if (unsaved != null) {
+            for (int start = 0; start < unsaved.length(); ) {
+                int end = Math.min(start + HASH_CHUNK, unsaved.length());
+                if (end < unsaved.length() && Character.isHighSurrogate(unsaved.charAt(end - 1))) {
+                    end--;  // Keep surrogate pairs in one chunk
+                }
+                digest.update(unsaved.subSequence(start, end).toString().getBytes(StandardCharsets.UTF_8));
+                start = end;
+            }
+        } else {
+            byte[] buffer = new byte[HASH_CHUNK];
+            try (InputStream in = file.getInputStream()) {
+                for (int read = in.read(buffer); read >= 0; read = in.read(buffer)) {
+                    ProgressManager.checkCanceled();
+                    digest.update(buffer, 0, read);
+                }
+            }
+        }
+        return new Entry(HexFormat.of().formatHex(digest.digest()), stamp, null);
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Hash of one file at copy time, with its text when it was small enough to keep.
+     */
+    static final class Entry {
+        private final String hash;
+        private final long stamp;
+        private final String text;
+
+        private Entry(String hash, long stamp, String text) {
+            this.hash = hash;
+            this.stamp = stamp;
+            this.text = text;
+        }
+
+        String getHash() {
+            return hash;
+        }
+
+        /**
+         * @return the copied text, or null if it was not kept
+         */
+        String getText() {
+            return text;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders the "Copy Structure" text of a selection in the background. The walk runs in a non-blocking
+ * read action, so it yields to write actions and stops when the task is cancelled.
+ */
+abstract class CopyStructureTask extends Task.Backgroundable {
+    private final List<VirtualFile> selection;
+    private final boolean glyphs;
+    private final Map<VirtualFile, List<VirtualFile>> loadedChildren;
+    private final IgnoreMatcher ignoreMatcher;
+    private final CopyMetrics metrics = new CopyMetrics("Copy Structure");
+
+    private String structure;
+
+    /**
+     * @param selection      selected files and directories, in tree order
+     * @param glyphs         whether branches are drawn with box-drawing characters
+     * @param loadedChildren children of the directories loaded in the file tree, taken from there
+     *                       instead of listing the VFS again
+     * @param ignoreMatcher  the caller's matcher, so its compiled ignore rules are reused
+     */
+    CopyStructureTask(Project project, List<VirtualFile> selection, boolean glyphs,
+                      Map<VirtualFile, List<VirtualFile>> loadedChildren, IgnoreMatcher ignoreMatcher) {
+        super(project, "Copy Mate: Copying structure", true);
+        this.selection = selection;
+        this.glyphs = glyphs;
+        this.loadedChildren = loadedChildren;
+        this.ignoreMatcher = ignoreMatcher;
+    }
+
+    /**
+     * Called on the EDT when the structure has been rendered.
+     *
+     * @param structure the rendered text, empty if nothing of the selection was listed
+     */
+    protected abstract void onStructureReady(String structure);
+
+    /**
+     * Timings of this run; the clipboard phase is added by the caller before finishing it.
+     */
+    CopyMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.ASSEMBLE)) {
+            structure = ReadAction.nonBlocking(() -> ignoreMatcher.renderStructure(selection, glyphs, loadedChildren))
+                    .wrapProgress(indicator)
+                    .expireWith(getProject())
+                    .executeSynchronously();
+        }
+    }
+
+    @Override
+    public void onSuccess() {
+        onStructureReady(structure);
+    }
+}
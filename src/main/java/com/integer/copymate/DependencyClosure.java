@@ -0,0 +1,126 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.diagnostic.ControlFlowException;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileManager;
+import com.intellij.psi.util.PsiModificationTracker;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Expands a list of files with the project files they reference, level by level up to a given depth.
+ * <p>
+ * The files of one level are resolved in parallel on a bounded worker pool, each through the registered
+ * {@link DependencyResolver}s in its own non-blocking read action. The references of a file are memoized
+ * in {@link CopyMateContentCache} against the file's modification stamp and the project's PSI modification
+ * count: resolution also depends on the referenced files, so adding, moving or editing any of them makes
+ * the memo stale. Copying the same classes again without edits in between does not resolve them again.
+ */
+final class DependencyClosure {
+    private static final Logger LOG = Logger.getInstance(DependencyClosure.class);
+
+    private DependencyClosure() {
+    }
+
+    /**
+     * @param files the files to start from
+     * @param depth how many levels of references to follow, 1 for direct references only
+     * @return the referenced files that are not among {@code files}, in breadth-first order
+     */
+    static List<VirtualFile> expand(Project project, List<VirtualFile> files, int depth, ProgressIndicator indicator) {
+        List<DependencyResolver> resolvers = DependencyResolver.EP_NAME.getExtensionList();
+        List<VirtualFile> added = new ArrayList<>();
+        if (resolvers.isEmpty() || depth <= 0) {
+            return added;
+        }
+
+        CopyMateContentCache cache = CopyMateContentCache.getInstance(project);
+        Set<VirtualFile> seen = new HashSet<>(files);
+        ExecutorService workers = AppExecutorUtil.createBoundedApplicationPoolExecutor("Copy Mate Dependencies",
+                CopyContentTask.MAX_READERS);
+        List<Future<List<VirtualFile>>> submitted = new ArrayList<>();
+        try {
+            List<VirtualFile> level = files;
+            for (int i = 0; i < depth && !level.isEmpty(); i++) {
+                List<Future<List<VirtualFile>>> parts = new ArrayList<>(level.size());
+                for (VirtualFile file : level) {
+                    parts.add(workers.submit(() -> indicator.isCanceled()
+                            ? List.of()
+                            : CopyContentTask.underProgress(indicator,
+                                    () -> dependenciesOf(project, cache, resolvers, file))));
+                }
+                submitted.addAll(parts);
+
+                // Join in order so the result does not depend on thread timing
+                List<VirtualFile> next = new ArrayList<>();
+                for (Future<List<VirtualFile>> part : parts) {
+                    for (VirtualFile dependency : ProgressIndicatorUtils.awaitWithCheckCanceled(part, indicator)) {
+                        if (seen.add(dependency)) {
+                            next.add(dependency);
+                        }
+                    }
+                }
+                added.addAll(next);
+                level = next;
+            }
+        } finally {
+            for (Future<List<VirtualFile>> part : submitted) {
+                part.cancel(false);
+            }
+            workers.shutdown();
+        }
+        return added;
+    }
+
+    private static List<VirtualFile> dependenciesOf(Project project, CopyMateContentCache cache,
+                                                    List<DependencyResolver> resolvers, VirtualFile file) {
+        // Cached as one file URL per line
+        long psiVersion = PsiModificationTracker.getInstance(project).getModificationCount();
+        String urls;
+        try {
+            urls = cache.getOrCompute(file, CopyMateContentCache.Kind.DEPENDENCIES, psiVersion,
+                    () -> resolve(project, resolvers, file));
+        } catch (RuntimeException e) {
+            if (e instanceof ControlFlowException) {
+                throw e;
+            }
+            // Nothing was cached, so the next copy resolves the file again
+            LOG.warn("Resolving the references of " + file.getPath() + " failed", e);
+            return List.of();
+        }
+
+        List<VirtualFile> dependencies = new ArrayList<>();
+        VirtualFileManager fileManager = VirtualFileManager.getInstance();
+        for (String url : urls.split("\n")) {
+            VirtualFile dependency = url.isEmpty() ? null : fileManager.findFileByUrl(url);
+            if (dependency != null && dependency.isValid()) {
+                dependencies.add(dependency);
+            }
+        }
+        return dependencies;
+    }
+
+    private static String resolve(Project project, List<DependencyResolver> resolvers, VirtualFile file) {
+        Set<VirtualFile> dependencies = new LinkedHashSet<>();
+        for (DependencyResolver resolver : resolvers) {
+            dependencies.addAll(resolver.findDependencies(project, file));
+        }
+
+        StringBuilder urls = new StringBuilder();
+        for (VirtualFile dependency : dependencies) {
+            urls.append(dependency.getUrl()).append('\n');
+        }
+        return urls.toString();
+    }
+}
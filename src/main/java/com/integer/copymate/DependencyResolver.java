@@ -0,0 +1,28 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+
+/**
+ * Finds the project files a source file refers to, for the "Include Referenced Files" option.
+ * <p>
+ * Implementations are registered through the {@code com.integer.copy-mate.dependencyResolver} extension
+ * point; the results of all of them are combined. They are called from background threads, several files
+ * at a time, and must take a read action themselves if they need one. The copy task's indicator is the
+ * thread's global progress indicator, to bind long read actions to.
+ */
+public interface DependencyResolver {
+    ExtensionPointName<DependencyResolver> EP_NAME =
+            ExtensionPointName.create("com.integer.copy-mate.dependencyResolver");
+
+    /**
+     * @return the project source files directly referenced from the file, without the file itself;
+     * empty if the file is not supported
+     */
+    @NotNull
+    Collection<VirtualFile> findDependencies(@NotNull Project project, @NotNull VirtualFile file);
+}
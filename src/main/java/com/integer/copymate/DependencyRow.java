@@ -0,0 +1,53 @@
+package com.integer.copymate;
+
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBCheckBox;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * "Include Referenced Files" checkbox with the number of levels and the signatures-only switch.
+ */
+final class DependencyRow extends JPanel {
+    private static final int MAX_DEPENDENCY_DEPTH = 5;
+
+    private final JBCheckBox dependenciesCheckbox;
+    private final JBIntSpinner dependencyDepthSpinner;
+    private final JBCheckBox dependencySignaturesCheckbox;
+
+    DependencyRow() {
+        super(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        dependenciesCheckbox = new JBCheckBox("Include Referenced Files");
+        dependenciesCheckbox.setToolTipText("When enabled, project classes referenced by the selected files are copied too (requires Java support)");
+        dependencyDepthSpinner = new JBIntSpinner(1, 1, MAX_DEPENDENCY_DEPTH);
+        dependencySignaturesCheckbox = new JBCheckBox("As Signatures", true);
+        dependencySignaturesCheckbox.setToolTipText("When enabled, referenced files are copied as signatures only");
+        dependencyDepthSpinner.setEnabled(false);
+        dependencySignaturesCheckbox.setEnabled(false);
+        dependenciesCheckbox.addItemListener(e -> {
+            dependencyDepthSpinner.setEnabled(dependenciesCheckbox.isSelected());
+            dependencySignaturesCheckbox.setEnabled(dependenciesCheckbox.isSelected());
+        });
+
+        add(dependenciesCheckbox);
+        add(Box.createHorizontalStrut(5));
+        add(dependencyDepthSpinner);
+        add(new JLabel(" levels"));
+        add(Box.createHorizontalStrut(10));
+        add(dependencySignaturesCheckbox);
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+        setMaximumSize(getPreferredSize());
+    }
+
+    /**
+     * @return how many levels of references to follow, 0 when the option is off
+     */
+    int getDepth() {
+        return dependenciesCheckbox.isSelected() ? dependencyDepthSpinner.getNumber() : 0;
+    }
+
+    boolean isSignaturesOnly() {
+        return dependencySignaturesCheckbox.isSelected();
+    }
+}
@@ -0,0 +1,121 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.DialogWrapper;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.ui.components.JBScrollPane;
+import com.intellij.ui.table.JBTable;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Table of the recent copy runs with their per-phase timings.
+ */
+class DiagnosticsDialog extends DialogWrapper {
+    private final List<CopyMetrics.Report> reports;
+
+    DiagnosticsDialog(Project project) {
+        super(project);
+        this.reports = CopyDiagnostics.getInstance(project).getReports();
+        setTitle("Copy Mate Diagnostics");
+        setModal(false);
+        init();
+    }
+
+    @Override
+    protected JComponent createCenterPanel() {
+        JBTable table = new JBTable(new ReportTableModel(reports));
+        table.getEmptyText().setText("No copy runs recorded yet");
+        JBScrollPane scrollPane = new JBScrollPane(table);
+        scrollPane.setPreferredSize(new Dimension(900, 300));
+        return scrollPane;
+    }
+
+    @Override
+    protected Action[] createActions() {
+        return new Action[]{getOKAction()};
+    }
+
+    private static final class ReportTableModel extends AbstractTableModel {
+        private static final CopyMetrics.Phase[] PHASES = CopyMetrics.Phase.values();
+        private final List<CopyMetrics.Report> reports;
+        private final SimpleDateFormat timeFormat = new SimpleDateFormat("HH:mm:ss");
+
+        ReportTableModel(List<CopyMetrics.Report> reports) {
+            this.reports = reports;
+        }
+
+        @Override
+        public int getRowCount() {
+            return reports.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return 7 + PHASES.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            switch (column) {
+                case 0:
+                    return "Time";
+                case 1:
+                    return "Action";
+                case 2:
+                    return "Files";
+                case 3:
+                    return "Read";
+                case 4:
+                    return "Total ms";
+                case 5:
+                    return "Allocated";
+                case 6:
+                    return "Stripped";
+                default:
+                    return PHASES[column - 7].getLabel() + " ms";
+            }
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            CopyMetrics.Report report = reports.get(row);
+            switch (column) {
+                case 0:
+                    return timeFormat.format(new Date(report.getTimestamp()));
+                case 1:
+                    return report.getAction();
+                case 2:
+                    return report.getFiles();
+                case 3:
+                    return StringUtil.formatFileSize(report.getBytes());
+                case 4:
+                    return report.getTotalMillis();
+                case 5:
+                    return totalAllocated(report);
+                case 6:
+                    return report.getStrippedBytes() == 0 ? "-"
+                            : StringUtil.formatFileSize(report.getStrippedBytes())
+                            + " / ~" + report.getStrippedTokens() + " tokens";
+                default:
+                    return report.getMillis(PHASES[column - 7]);
+            }
+        }
+
+        private static String totalAllocated(CopyMetrics.Report report) {
+            long total = 0;
+            for (CopyMetrics.Phase phase : PHASES) {
+                if (report.getAllocated(phase) < 0) {
+                    return "-";
+                }
+                total += report.getAllocated(phase);
+            }
+            return StringUtil.formatFileSize(total);
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.ExportFormat;
+import com.integer.copymate.core.ExportSink;
+import com.intellij.openapi.fileChooser.FileChooserFactory;
+import com.intellij.openapi.fileChooser.FileSaverDescriptor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileWrapper;
+
+import javax.swing.*;
+import java.awt.*;
+import java.io.IOException;
+import java.util.List;
+import java.util.function.BooleanSupplier;
+
+/**
+ * Export format and packaging with the button that streams the checked files to a file, for selections
+ * too large for the clipboard.
+ */
+final class ExportRow extends JPanel {
+    private final Project project;
+    private final VirtualFile baseDir;
+    private final IgnoreMatcher ignoreMatcher;
+    private final FileTreeView fileTree;
+    private final BooleanSupplier copyMethodsOnly;
+    private final ComboBox<ExportFormat> exportFormatComboBox;
+    private final ComboBox<ExportSink.Packaging> exportPackagingComboBox;
+
+    /**
+     * @param copyMethodsOnly the current state of the "Copy Signatures Only" option
+     */
+    ExportRow(Project project, VirtualFile baseDir, IgnoreMatcher ignoreMatcher, FileTreeView fileTree,
+              BooleanSupplier copyMethodsOnly) {
+        super(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        this.project = project;
+        this.baseDir = baseDir;
+        this.ignoreMatcher = ignoreMatcher;
+        this.fileTree = fileTree;
+        this.copyMethodsOnly = copyMethodsOnly;
+
+        exportFormatComboBox = new ComboBox<>(ExportFormat.values());
+        exportFormatComboBox.setSelectedItem(ExportFormat.MARKDOWN);
+        exportPackagingComboBox = new ComboBox<>(ExportSink.Packaging.values());
+
+        JButton exportButton = new JButton("Export...");
+        exportButton.setToolTipText("Write the selection to a file instead of the clipboard, for very large selections");
+        exportButton.addActionListener(e -> exportSelection());
+
+        add(new JLabel("Export as:"));
+        add(exportFormatComboBox);
+        add(exportPackagingComboBox);
+        add(exportButton);
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+        setMaximumSize(getPreferredSize());
+    }
+
+    private void exportSelection() {
+        List<VirtualFile> selectedFiles = fileTree.collectSelectedFiles();
+        if (selectedFiles.isEmpty()) {
+            CopyMatePanel.showNoFilesSelected();
+            return;
+        }
+
+        ExportFormat format = (ExportFormat) exportFormatComboBox.getSelectedItem();
+        ExportSink.Packaging packaging = (ExportSink.Packaging) exportPackagingComboBox.getSelectedItem();
+        String extension = packaging == ExportSink.Packaging.ZIP
+                ? "zip"
+                : format.getExtension() + packaging.getSuffix();
+
+        FileSaverDescriptor descriptor = new FileSaverDescriptor(
+                "Export Selected Files", "Choose the file to write the selected files to", extension);
+        VirtualFileWrapper wrapper = FileChooserFactory.getInstance()
+                .createSaveFileDialog(descriptor, project)
+                .save(baseDir, "copy-mate-export." + extension);
+        if (wrapper == null) {
+            return;
+        }
+
+        // Stream the files to disk in the background
+        new ExportTask(project, selectedFiles, copyMethodsOnly.getAsBoolean(), wrapper.getFile().toPath(),
+                format, packaging, ignoreMatcher) {
+            @Override
+            protected void onExported(int fileCount, IOException failure) {
+                if (failure != null) {
+                    JOptionPane.showMessageDialog(
+                            null,
+                            "Failed to export: " + failure.getMessage(),
+                            "Copy Mate Error",
+                            JOptionPane.ERROR_MESSAGE
+                    );
+                    return;
+                }
+                CopyMetrics.Report report = getMetrics().finish(project);
+                JOptionPane.showMessageDialog(
+                        null,
+                        "Exported " + fileCount + " files to " + wrapper.getFile().getPath() + "\n\n" + report.describe(),
+                        "Copy Mate",
+                        JOptionPane.INFORMATION_MESSAGE
+                );
+            }
+        }.queue();
+    }
+}
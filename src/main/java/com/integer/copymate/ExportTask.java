@@ -0,0 +1,179 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.ExportFormat;
+import com.integer.copymate.core.ExportSink;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.Task;
+import com.intellij.openapi.progress.util.ProgressIndicatorUtils;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Streams the selected files into an export file in the background.
+ * <p>
+ * Unlike {@link CopyContentTask}, nothing is aggregated: files are read on the worker pool with at most
+ * {@link #MAX_IN_FLIGHT} entries read ahead, and each entry is written out in selection order as soon
+ * as it is ready, so memory use does not grow with the size of the selection. The content cache is
+ * bypassed for the same reason. A cancelled or failed export deletes the partial file.
+ */
+abstract class ExportTask extends Task.Backgroundable {
+    private static final Logger LOG = Logger.getInstance(ExportTask.class);
+    private static final int MAX_IN_FLIGHT = CopyContentTask.MAX_READERS * 2;
+
+    private final List<VirtualFile> selection;
+    private final boolean copyMethodsOnly;
+    private final IgnoreMatcher ignoreMatcher;
+    private final Path target;
+    private final ExportFormat format;
+    private final ExportSink.Packaging packaging;
+    private final CopyMetrics metrics = new CopyMetrics("Export");
+
+    private int fileCount;
+    private IOException failure;
+
+    /**
+     * @param selection       selected files and unexpanded directories, in tree order
+     * @param copyMethodsOnly whether files with an outline extractor are reduced to their signatures
+     * @param ignoreMatcher   the caller's matcher, so its compiled ignore rules are reused
+     */
+    ExportTask(Project project,
+               List<VirtualFile> selection,
+               boolean copyMethodsOnly,
+               Path target,
+               ExportFormat format,
+               ExportSink.Packaging packaging,
+               IgnoreMatcher ignoreMatcher) {
+        super(project, "Copy Mate: Exporting files", true);
+        this.selection = selection;
+        this.copyMethodsOnly = copyMethodsOnly;
+        this.ignoreMatcher = ignoreMatcher;
+        this.target = target;
+        this.format = format;
+        this.packaging = packaging;
+    }
+
+    /**
+     * Called on the EDT when the export has finished.
+     *
+     * @param fileCount number of files written
+     * @param failure   the write error, or null if the export succeeded
+     */
+    protected abstract void onExported(int fileCount, IOException failure);
+
+    CopyMetrics getMetrics() {
+        return metrics;
+    }
+
+    @Override
+    public void run(@NotNull ProgressIndicator indicator) {
+        indicator.setIndeterminate(true);
+        indicator.setText("Collecting selected files...");
+        List<VirtualFile> files;
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.TRAVERSAL)) {
+            files = CopyContentTask.expandSelection(getProject(), ignoreMatcher, selection, indicator);
+        }
+        fileCount = files.size();
+
+        indicator.setIndeterminate(false);
+        indicator.setText("Exporting " + fileCount + " files...");
+
+        boolean completed = false;
+        ExecutorService readers = AppExecutorUtil.createBoundedApplicationPoolExecutor("Copy Mate Exporter",
+                CopyContentTask.MAX_READERS);
+        Deque<Future<Entry>> window = new ArrayDeque<>(MAX_IN_FLIGHT);
+        String entryName = target.getFileName().toString().replaceFirst("\\.zip$", "") + "." + format.getExtension();
+        try (Writer out = ExportSink.open(target, packaging, entryName)) {
+            format.writeHeader(out);
+            int written = 0;
+            for (VirtualFile file : files) {
+                // Keep a bounded number of files read ahead of the writer
+                if (window.size() >= MAX_IN_FLIGHT) {
+                    write(out, ProgressIndicatorUtils.awaitWithCheckCanceled(window.poll(), indicator));
+                    indicator.setFraction((double) ++written / fileCount);
+                }
+                window.add(readers.submit(() -> indicator.isCanceled()
+                        ? null
+                        : CopyContentTask.underProgress(indicator, () -> readEntry(file))));
+            }
+            while (!window.isEmpty()) {
+                write(out, ProgressIndicatorUtils.awaitWithCheckCanceled(window.poll(), indicator));
+                indicator.setFraction((double) ++written / fileCount);
+            }
+            format.writeFooter(out);
+            completed = true;
+        } catch (IOException e) {
+            failure = e;
+        } finally {
+            for (Future<Entry> pending : window) {
+                pending.cancel(false);
+            }
+            readers.shutdown();
+            if (!completed) {
+                deletePartialExport();
+            }
+        }
+    }
+
+    @Override
+    public void onSuccess() {
+        onExported(fileCount, failure);
+    }
+
+    private void write(Writer out, Entry entry) throws IOException {
+        try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.ASSEMBLE)) {
+            format.writeEntry(out, entry.path, entry.kind, entry.text);
+        }
+    }
+
+    private Entry readEntry(VirtualFile file) {
+        String path = ignoreMatcher.relativePath(file);
+        metrics.addFile(file.getLength());
+        try {
+            if (copyMethodsOnly && OutlineExtractors.isSupported(file)) {
+                try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.EXTRACT)) {
+                    return new Entry(path, ExportFormat.EntryKind.SIGNATURES,
+                            OutlineExtractors.extract(getProject(), file));
+                }
+            }
+            try (CopyMetrics.Span ignored = metrics.span(CopyMetrics.Phase.LOAD)) {
+                String text = FileContentLoader.load(file).getText();
+                return new Entry(path, ExportFormat.EntryKind.CONTENT, text);
+            }
+        } catch (IOException | OutlineExtractors.ExtractionException e) {
+            return new Entry(path, ExportFormat.EntryKind.ERROR, String.valueOf(e.getMessage()));
+        }
+    }
+
+    private void deletePartialExport() {
+        try {
+            Files.deleteIfExists(target);
+        } catch (IOException e) {
+            LOG.warn("Failed to delete the partial export " + target, e);
+        }
+    }
+
+    private static final class Entry {
+        private final String path;
+        private final ExportFormat.EntryKind kind;
+        private final String text;
+
+        Entry(String path, ExportFormat.EntryKind kind, String text) {
+            this.path = path;
+            this.kind = kind;
+            this.text = text;
+        }
+    }
+}
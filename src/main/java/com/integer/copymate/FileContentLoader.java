@@ -0,0 +1,103 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.ContentLoader;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.editor.Document;
+import com.intellij.openapi.fileEditor.FileDocumentManager;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Loads file text the way the editor sees it.
+ * <p>
+ * Unsaved editor changes win over the file on disk, saved files are read through the VFS with their
+ * detected charset, binary files are recognised from their file type or from a short prefix without
+ * reading them fully, and files above the {@code copymate.content.max.kb} cap are reduced to a head
+ * and tail window streamed from the file.
+ */
+final class FileContentLoader {
+    private FileContentLoader() {
+    }
+
+    /**
+     * Load the text to copy for a file, applying binary detection and the size cap. The result tells
+     * whether the text is complete, the head and tail window, or the binary marker.
+     */
+    static ContentLoader.Loaded load(VirtualFile file) throws IOException {
+        Document document = unsavedDocument(file);
+        long maxBytes = maxBytes();
+
+        if (document != null) {
+            CharSequence text = ReadAction.compute(document::getImmutableCharSequence);
+            if (text.length() <= maxBytes) {
+                return ContentLoader.Loaded.complete(text.toString());
+            }
+            int window = (int) (maxBytes / 2);
+            return ContentLoader.Loaded.truncated(ContentLoader.headAndTail(text.subSequence(0, window),
+                    text.subSequence(text.length() - window, text.length())));
+        }
+
+        if (isBinary(file)) {
+            return ContentLoader.Loaded.binary(file.getLength());
+        }
+        if (file.getLength() <= maxBytes) {
+            return ContentLoader.Loaded.complete(LoadTextUtil.loadText(file).toString());
+        }
+        return ContentLoader.Loaded.truncated(loadWindow(file, maxBytes));
+    }
+
+    /**
+     * The unsaved text of a file open in an editor, or null if the file on disk is current.
+     */
+    static CharSequence unsavedText(VirtualFile file) {
+        Document document = unsavedDocument(file);
+        return document != null ? ReadAction.compute(document::getImmutableCharSequence) : null;
+    }
+
+    /**
+     * Whether {@link #load} can tell without reading the file that it will not return its complete text:
+     * the file type is binary, or the saved file is above the size cap.
+     */
+    static boolean isBinaryOrOversized(VirtualFile file) {
+        return unsavedDocument(file) == null && (file.getFileType().isBinary() || file.getLength() > maxBytes());
+    }
+
+    private static long maxBytes() {
+        return Registry.intValue("copymate.content.max.kb", 1024) * 1024L;
+    }
+
+    /**
+     * Modification stamp of the content {@link #load} would return.
+     */
+    static long contentStamp(VirtualFile file) {
+        Document document = FileDocumentManager.getInstance().getCachedDocument(file);
+        return document != null ? document.getModificationStamp() : file.getModificationStamp();
+    }
+
+    private static Document unsavedDocument(VirtualFile file) {
+        FileDocumentManager documentManager = FileDocumentManager.getInstance();
+        Document document = documentManager.getCachedDocument(file);
+        return document != null && documentManager.isDocumentUnsaved(document) ? document : null;
+    }
+
+    private static boolean isBinary(VirtualFile file) throws IOException {
+        if (file.getFileType().isBinary()) {
+            return true;
+        }
+        byte[] prefix = new byte[ContentLoader.SNIFF_BYTES];
+        try (InputStream in = file.getInputStream()) {
+            int read = in.readNBytes(prefix, 0, prefix.length);
+            return ContentLoader.looksBinary(prefix, read, file.getCharset());
+        }
+    }
+
+    private static String loadWindow(VirtualFile file, long maxBytes) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return ContentLoader.readWindow(in, file.getLength(), maxBytes, file.getCharset());
+        }
+    }
+}
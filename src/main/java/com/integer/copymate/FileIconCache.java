@@ -0,0 +1,26 @@
+package com.integer.copymate;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.fileTypes.FileTypeManager;
+
+import javax.swing.Icon;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * File type icons for the tree, resolved through {@link FileTypeManager} once per extension
+ * (or per name, for files without one) and shared by every node of the tool window.
+ */
+final class FileIconCache {
+    private final FileTypeManager fileTypeManager = FileTypeManager.getInstance();
+    private final Map<String, Icon> icons = new ConcurrentHashMap<>();
+
+    Icon iconFor(String fileName, String extension) {
+        String key = extension != null ? extension.toLowerCase(Locale.ROOT) : fileName;
+        return icons.computeIfAbsent(key, ignored -> {
+            Icon icon = fileTypeManager.getFileTypeByFileName(fileName).getIcon();
+            return icon != null ? icon : AllIcons.FileTypes.Text;
+        });
+    }
+}
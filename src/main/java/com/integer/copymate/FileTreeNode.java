@@ -0,0 +1,310 @@
+package com.integer.copymate;
+
+import com.intellij.icons.AllIcons;
+import com.intellij.openapi.diagnostic.ControlFlowException;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.CheckedTreeNode;
+import com.intellij.ui.SimpleTextAttributes;
+
+import javax.swing.Icon;
+
+/**
+ * Tree node for a project file or directory whose children are loaded on demand.
+ * Directories start with a single placeholder child so the tree shows an expand handle
+ * without touching the file system until the user actually opens the directory.
+ * <p>
+ * Everything the cell renderer shows (name, icon, text attributes and the parent path) is computed
+ * once when the node is created; siblings share the same parent path string, so painting a row only
+ * reads fields. A rename or move recomputes it through {@link #refreshPresentation()}.
+ */
+class FileTreeNode extends CheckedTreeNode {
+    private static final Logger LOG = Logger.getInstance(FileTreeNode.class);
+
+    private final IgnoreMatcher ignoreMatcher;
+    private final FileIconCache icons;
+    private boolean childrenLoaded;
+
+    // View model for the renderer
+    private final boolean directory;
+    private final SimpleTextAttributes nameAttributes;
+    private String displayName;
+    private String relativeParent;
+    private String locationText;
+    private Icon icon;
+
+    // Checked units (files and unloaded directories) in this subtree, maintained by SelectionSummary
+    private int checkedUnits;
+    private long checkedFiles;
+    private long checkedBytes;
+
+    // What this node itself currently contributes to the aggregates above
+    private boolean counted;
+    private long countedFiles;
+    private long countedBytes;
+
+    // File count and size of an unloaded directory's subtree, -1 until computed
+    private long subtreeFiles = -1;
+    private long subtreeBytes;
+
+    /**
+     * @param relativeParent path of the parent directory relative to the project base directory, "" at the top
+     * @param locationText   the parent path as shown after the name, shared by all siblings; null at the top
+     */
+    private FileTreeNode(VirtualFile file, IgnoreMatcher ignoreMatcher, FileIconCache icons,
+                         String relativeParent, String locationText) {
+        super(file);
+        this.ignoreMatcher = ignoreMatcher;
+        this.icons = icons;
+        this.directory = file.isDirectory();
+        setPresentation(file, relativeParent, locationText);
+        this.nameAttributes = directory
+                ? SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES
+                : SimpleTextAttributes.REGULAR_ATTRIBUTES;
+        setChecked(false);  // Ensure no files/folders are checked by default
+
+        if (directory) {
+            add(new PlaceholderNode());
+        } else {
+            childrenLoaded = true;
+        }
+    }
+
+    /**
+     * The checkbox renders a parent from its children, so the placeholder mirrors an unloaded directory.
+     */
+    @Override
+    public void setChecked(boolean checked) {
+        super.setChecked(checked);
+        if (!childrenLoaded && getChildCount() == 1 && getChildAt(0) instanceof PlaceholderNode) {
+            ((PlaceholderNode) getChildAt(0)).setChecked(checked);
+        }
+    }
+
+    VirtualFile getFile() {
+        return (VirtualFile) getUserObject();
+    }
+
+    boolean isDirectory() {
+        return directory;
+    }
+
+    String getDisplayName() {
+        return displayName;
+    }
+
+    /**
+     * @return " (parent/path)" to show after the name, or null for top-level nodes
+     */
+    String getLocationText() {
+        return locationText;
+    }
+
+    Icon getIcon() {
+        return icon;
+    }
+
+    SimpleTextAttributes getNameAttributes() {
+        return nameAttributes;
+    }
+
+    private void setPresentation(VirtualFile file, String relativeParent, String locationText) {
+        this.displayName = file.getName();
+        this.relativeParent = relativeParent;
+        this.locationText = locationText;
+        this.icon = directory ? AllIcons.Nodes.Folder : icons.iconFor(displayName, file.getExtension());
+    }
+
+    /**
+     * Recompute the name and parent path of this node and of its loaded descendants after the file
+     * was renamed or moved. The node must already be attached to its new parent.
+     */
+    void refreshPresentation() {
+        String parentPath = getParent() instanceof FileTreeNode ? ((FileTreeNode) getParent()).getRelativePath() : "";
+        refreshPresentation(parentPath, parentPath.isEmpty() ? null : " (" + parentPath + ")");
+    }
+
+    private void refreshPresentation(String relativeParent, String locationText) {
+        setPresentation(getFile(), relativeParent, locationText);
+        if (directory && childrenLoaded) {
+            String path = getRelativePath();
+            String childLocation = " (" + path + ")";
+            for (int i = 0; i < getChildCount(); i++) {
+                if (getChildAt(i) instanceof FileTreeNode) {
+                    ((FileTreeNode) getChildAt(i)).refreshPresentation(path, childLocation);
+                }
+            }
+        }
+    }
+
+    /**
+     * @return path of this file relative to the project base directory
+     */
+    String getRelativePath() {
+        return relativeParent.isEmpty() ? displayName : relativeParent + "/" + displayName;
+    }
+
+    /**
+     * A checked directory whose children are not loaded stands for its whole subtree.
+     */
+    boolean isChildrenLoaded() {
+        return childrenLoaded;
+    }
+
+    /**
+     * Replace the placeholder with the real children of this directory.
+     * Children inherit the checked state of this node.
+     *
+     * @return true if the node structure changed
+     */
+    boolean loadChildren() {
+        if (childrenLoaded) {
+            return false;
+        }
+        childrenLoaded = true;
+        removeAllChildren();
+        addChildren(this, getFile(), ignoreMatcher, icons, getRelativePath());
+        return true;
+    }
+
+    /**
+     * Add the top level of the tree: the unloaded children of the project base directory.
+     */
+    static void addChildren(CheckedTreeNode rootNode, VirtualFile baseDir, IgnoreMatcher ignoreMatcher,
+                            FileIconCache icons) {
+        addChildren(rootNode, baseDir, ignoreMatcher, icons, "");
+    }
+
+    /**
+     * Create the (unloaded) node for a file that appeared under a loaded directory or the root.
+     * The node inherits the checked state of its parent but is not attached to it.
+     *
+     * @return the new node, or null if the file is ignored
+     */
+    static FileTreeNode createChild(CheckedTreeNode parentNode, VirtualFile file, IgnoreMatcher ignoreMatcher,
+                                    FileIconCache icons) {
+        if (ignoreMatcher.isIgnored(file)) {
+            return null;
+        }
+        String relativePath = parentNode instanceof FileTreeNode ? ((FileTreeNode) parentNode).getRelativePath() : "";
+        FileTreeNode node = new FileTreeNode(file, ignoreMatcher, icons, relativePath,
+                relativePath.isEmpty() ? null : " (" + relativePath + ")");
+        node.setChecked(parentNode.isChecked());
+        return node;
+    }
+
+    /**
+     * Add one level of (unloaded) child nodes for the given directory, leaving out ignored files.
+     */
+    private static void addChildren(CheckedTreeNode parentNode, VirtualFile directory, IgnoreMatcher ignoreMatcher,
+                                    FileIconCache icons, String relativePath) {
+        String locationText = relativePath.isEmpty() ? null : " (" + relativePath + ")";
+        try {
+            for (VirtualFile child : directory.getChildren()) {
+                if (ignoreMatcher.isIgnored(child)) {
+                    continue;
+                }
+                FileTreeNode childNode = new FileTreeNode(child, ignoreMatcher, icons, relativePath, locationText);
+                childNode.setChecked(parentNode.isChecked());
+                parentNode.add(childNode);
+            }
+        } catch (RuntimeException e) {
+            if (e instanceof ControlFlowException) {
+                throw e;
+            }
+            // Keep the children listed so far rather than failing the expansion
+            LOG.warn("Failed to list " + directory.getPath(), e);
+        }
+    }
+
+    /**
+     * Whether this node stands for content on its own: a file, or a directory whose children are not loaded.
+     */
+    boolean isSelectionUnit() {
+        return !childrenLoaded || !isDirectory();
+    }
+
+    int getCheckedUnits() {
+        return checkedUnits;
+    }
+
+    long getCheckedFiles() {
+        return checkedFiles;
+    }
+
+    long getCheckedBytes() {
+        return checkedBytes;
+    }
+
+    boolean isCounted() {
+        return counted;
+    }
+
+    long getCountedFiles() {
+        return countedFiles;
+    }
+
+    long getCountedBytes() {
+        return countedBytes;
+    }
+
+    void setCounted(boolean counted, long files, long bytes) {
+        this.counted = counted;
+        this.countedFiles = files;
+        this.countedBytes = bytes;
+    }
+
+    void addToAggregates(int units, long files, long bytes) {
+        checkedUnits += units;
+        checkedFiles += files;
+        checkedBytes += bytes;
+    }
+
+    boolean hasSubtreeTotals() {
+        return subtreeFiles >= 0;
+    }
+
+    long getSubtreeFiles() {
+        return subtreeFiles;
+    }
+
+    long getSubtreeBytes() {
+        return subtreeBytes;
+    }
+
+    void setSubtreeTotals(long files, long bytes) {
+        this.subtreeFiles = files;
+        this.subtreeBytes = bytes;
+    }
+
+    /**
+     * Forget the totals of an unloaded directory after its content changed on disk.
+     */
+    void clearSubtreeTotals() {
+        this.subtreeFiles = -1;
+        this.subtreeBytes = 0;
+    }
+
+    /**
+     * @return the loaded child node for the given file, or null if there is none
+     */
+    static FileTreeNode findChild(CheckedTreeNode parentNode, VirtualFile file) {
+        for (int i = 0; i < parentNode.getChildCount(); i++) {
+            Object child = parentNode.getChildAt(i);
+            if (child instanceof FileTreeNode && ((FileTreeNode) child).getFile().equals(file)) {
+                return (FileTreeNode) child;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Stand-in child for a directory that has not been expanded yet.
+     */
+    static class PlaceholderNode extends CheckedTreeNode {
+        PlaceholderNode() {
+            super("Loading...");
+            setChecked(false);
+        }
+    }
+}
@@ -0,0 +1,434 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.PathWalker;
+import com.intellij.openapi.util.io.FileUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.newvfs.BulkFileListener;
+import com.intellij.openapi.vfs.newvfs.events.VFileContentChangeEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCopyEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileCreateEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileDeleteEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFileMoveEvent;
+import com.intellij.openapi.vfs.newvfs.events.VFilePropertyChangeEvent;
+import com.intellij.ui.CheckedTreeNode;
+import com.intellij.util.PathUtil;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Supplier;
+
+/**
+ * Applies file system changes to the loaded part of the file tree and to the path index instead of
+ * rebuilding them.
+ * <p>
+ * The state of deleted, moved and renamed files is recorded in {@link #before} while their old paths still
+ * resolve, and the tree is changed in {@link #after}. Only loaded directories get new nodes: a change below
+ * a directory that was never expanded shows up when it is loaded. Its selection totals are adjusted by the
+ * size of a changed file, and recounted once per batch when whole directories came or went. Renamed and
+ * moved nodes are kept, so their checked and expanded state survives. A change to a {@code .gitignore}
+ * file reloads the ignore rules and brings the loaded tree in line with them; a directory that is deleted,
+ * moved or renamed only drops its cached rules. Both callbacks run on the EDT inside the write action.
+ */
+final class FileTreeUpdater implements BulkFileListener {
+    private final VirtualFile baseDir;
+    private final CheckedTreeNode rootNode;
+    private final FilteringTreeModel treeModel;
+    private final SelectionSummary selectionSummary;
+    private final IgnoreMatcher ignoreMatcher;
+    private final FileIconCache icons;
+    private final Supplier<PathIndex> pathIndex;
+    private final Runnable onStructureChanged;
+    private final Runnable onIgnoreRulesChanged;
+
+    // Old location of deleted, moved and renamed files, from before() to after()
+    private final Map<VFileEvent, OldLocation> oldLocations = new IdentityHashMap<>();
+    // Unloaded directories to recount at the end of the batch
+    private final Set<FileTreeNode> staleTotals = new LinkedHashSet<>();
+    private boolean structureChanged;
+
+    /**
+     * @param pathIndex            the index to apply the changes to, or null while it is being built
+     * @param onStructureChanged   called once per batch of events that changed nodes or the path index
+     * @param onIgnoreRulesChanged called instead when the ignore rules were reloaded; the path index must
+     *                             then be rebuilt
+     */
+    FileTreeUpdater(VirtualFile baseDir, CheckedTreeNode rootNode, FilteringTreeModel treeModel,
+                    SelectionSummary selectionSummary, IgnoreMatcher ignoreMatcher, FileIconCache icons,
+                    Supplier<PathIndex> pathIndex, Runnable onStructureChanged, Runnable onIgnoreRulesChanged) {
+        this.baseDir = baseDir;
+        this.rootNode = rootNode;
+        this.treeModel = treeModel;
+        this.selectionSummary = selectionSummary;
+        this.ignoreMatcher = ignoreMatcher;
+        this.icons = icons;
+        this.pathIndex = pathIndex;
+        this.onStructureChanged = onStructureChanged;
+        this.onIgnoreRulesChanged = onIgnoreRulesChanged;
+    }
+
+    @Override
+    public void before(@NotNull List<? extends VFileEvent> events) {
+        oldLocations.clear();
+        for (VFileEvent event : events) {
+            if (event instanceof VFileDeleteEvent || event instanceof VFileMoveEvent || isRename(event)) {
+                if (event.getFile().isDirectory()) {
+                    ignoreMatcher.forget(event.getFile());
+                }
+                FileTreeNode node = findNode(event.getFile());
+                if (node != null) {
+                    oldLocations.put(event, new OldLocation(node, event.getFile()));
+                }
+            }
+        }
+    }
+
+    @Override
+    public void after(@NotNull List<? extends VFileEvent> events) {
+        structureChanged = false;
+        boolean ignoreRulesChanged = false;
+        for (VFileEvent event : events) {
+            ignoreRulesChanged |= affectsIgnoreRules(event);
+            if (event instanceof VFileCreateEvent) {
+                VFileCreateEvent create = (VFileCreateEvent) event;
+                fileAppeared(create.getParent(), create.getFile(), null);
+            } else if (event instanceof VFileCopyEvent) {
+                VFileCopyEvent copy = (VFileCopyEvent) event;
+                fileAppeared(copy.getNewParent(), copy.getNewParent().findChild(copy.getNewChildName()), null);
+            } else if (event instanceof VFileDeleteEvent) {
+                fileDisappeared(event);
+            } else if (event instanceof VFileMoveEvent) {
+                fileMoved((VFileMoveEvent) event);
+            } else if (isRename(event)) {
+                fileRenamed(event);
+            } else if (event instanceof VFileContentChangeEvent) {
+                fileResized((VFileContentChangeEvent) event);
+            }
+        }
+        oldLocations.clear();
+
+        if (ignoreRulesChanged) {
+            reloadIgnoreRules();
+            return;
+        }
+        recountStaleTotals();
+        if (structureChanged) {
+            onStructureChanged.run();
+        }
+    }
+
+    /**
+     * Read the ignore rules again, then remove the loaded nodes they now ignore, add the ones they no longer
+     * ignore and recount the unloaded directories. Must be called on the EDT.
+     */
+    void reloadIgnoreRules() {
+        ignoreMatcher.reload();
+        reconcile(rootNode, baseDir);
+        recountStaleTotals();
+        onIgnoreRulesChanged.run();
+    }
+
+    private void reconcile(CheckedTreeNode parentNode, VirtualFile directory) {
+        Set<VirtualFile> shown = new HashSet<>();
+        for (int i = parentNode.getChildCount() - 1; i >= 0; i--) {
+            if (!(parentNode.getChildAt(i) instanceof FileTreeNode)) {
+                continue;
+            }
+            FileTreeNode node = (FileTreeNode) parentNode.getChildAt(i);
+            if (ignoreMatcher.isIgnored(node.getFile())) {
+                detach(node);
+                continue;
+            }
+            shown.add(node.getFile());
+            if (node.isDirectory() && node.isChildrenLoaded()) {
+                reconcile(node, node.getFile());
+            } else if (node.isDirectory()) {
+                staleTotals.add(node);
+            }
+        }
+        for (VirtualFile child : directory.getChildren()) {
+            if (!shown.contains(child)) {
+                FileTreeNode node = FileTreeNode.createChild(parentNode, child, ignoreMatcher, icons);
+                if (node != null) {
+                    attach(parentNode, node);
+                }
+            }
+        }
+    }
+
+    private void fileAppeared(VirtualFile parent, VirtualFile file, FileTreeNode movedNode) {
+        if (file == null) {
+            return;
+        }
+        CheckedTreeNode parentNode = findDirectoryNode(parent);
+        if (parentNode == null || ignoreMatcher.isIgnoredPath(file)) {
+            return;
+        }
+        indexAdded(file);
+        if (!isLoaded(parentNode)) {
+            appearedBelow((FileTreeNode) parentNode, file);
+        } else if (movedNode != null) {
+            // Keep the node so its checked and expanded state moves along with the file
+            attach(parentNode, movedNode);
+            movedNode.refreshPresentation();
+            nodesChanged(movedNode);
+        } else if (FileTreeNode.findChild(parentNode, file) == null) {
+            FileTreeNode node = FileTreeNode.createChild(parentNode, file, ignoreMatcher, icons);
+            if (node != null) {
+                attach(parentNode, node);
+            }
+        }
+    }
+
+    private void fileDisappeared(VFileEvent event) {
+        OldLocation old = oldLocations.get(event);
+        if (old == null) {
+            return;
+        }
+        indexRemoved(old);
+        if (old.exact) {
+            detach(old.node);
+        } else {
+            disappearedBelow(old);
+        }
+    }
+
+    private void fileMoved(VFileMoveEvent event) {
+        OldLocation old = oldLocations.get(event);
+        FileTreeNode movedNode = null;
+        if (old != null) {
+            indexRemoved(old);
+            if (old.exact) {
+                detach(old.node);
+                movedNode = old.node;
+            } else {
+                disappearedBelow(old);
+            }
+        }
+        fileAppeared(event.getNewParent(), event.getFile(), movedNode);
+    }
+
+    private void fileRenamed(VFileEvent event) {
+        OldLocation old = oldLocations.get(event);
+        VirtualFile file = event.getFile();
+        if (old == null || !old.exact) {
+            // Not shown as a node: below an unloaded directory, or the old name was ignored
+            if (old != null) {
+                indexRemoved(old);
+                disappearedBelow(old);
+            }
+            fileAppeared(file.getParent(), file, null);
+            return;
+        }
+        indexRemoved(old);
+        if (ignoreMatcher.isIgnored(file)) {
+            detach(old.node);
+            return;
+        }
+        indexAdded(file);
+
+        // Keep the position in the tree; the new name only changes what is rendered
+        old.node.refreshPresentation();
+        nodesChanged(old.node);
+        structureChanged = true;
+    }
+
+    private void fileResized(VFileContentChangeEvent event) {
+        FileTreeNode node = findNode(event.getFile());
+        if (node == null) {
+            return;
+        }
+        if (node.getFile().equals(event.getFile())) {
+            selectionSummary.nodeStateChanged(node);
+        } else if (!ignoreMatcher.isIgnoredPath(event.getFile())) {
+            selectionSummary.adjustTotals(node, 0, event.getNewLength() - event.getOldLength());
+        }
+    }
+
+    /**
+     * A file that is not ignored appeared below an unloaded directory.
+     */
+    private void appearedBelow(FileTreeNode directory, VirtualFile file) {
+        if (file.isDirectory()) {
+            staleTotals.add(directory);
+        } else {
+            selectionSummary.adjustTotals(directory, 1, file.getLength());
+        }
+    }
+
+    private void disappearedBelow(OldLocation old) {
+        if (old.ignored) {
+            return;
+        }
+        if (old.directory) {
+            staleTotals.add(old.node);
+        } else {
+            selectionSummary.adjustTotals(old.node, -1, -old.length);
+        }
+    }
+
+    /**
+     * Recount each collected directory once, unless it was removed from the tree or loaded meanwhile.
+     */
+    private void recountStaleTotals() {
+        for (FileTreeNode node : staleTotals) {
+            if (node.getRoot() == rootNode && !node.isChildrenLoaded()) {
+                selectionSummary.invalidateTotals(node);
+            }
+        }
+        staleTotals.clear();
+    }
+
+    private void indexAdded(VirtualFile file) {
+        PathIndex index = pathIndex.get();
+        if (index != null) {
+            index.add(file);
+            structureChanged = true;
+        }
+    }
+
+    private void indexRemoved(OldLocation old) {
+        PathIndex index = pathIndex.get();
+        if (index != null && old.path != null && !old.ignored) {
+            index.remove(old.path);
+            structureChanged = true;
+        }
+    }
+
+    private boolean affectsIgnoreRules(VFileEvent event) {
+        if (event instanceof VFilePropertyChangeEvent && !isRename(event)) {
+            return false;
+        }
+        boolean named = PathWalker.GITIGNORE.equals(PathUtil.getFileName(event.getPath()))
+                || isRename(event) && PathWalker.GITIGNORE.equals(((VFilePropertyChangeEvent) event).getOldValue());
+        return named && (oldLocations.containsKey(event) || FileUtil.isAncestor(baseDir.getPath(), event.getPath(), true));
+    }
+
+    private static boolean isRename(VFileEvent event) {
+        return event instanceof VFilePropertyChangeEvent
+                && VirtualFile.PROP_NAME.equals(((VFilePropertyChangeEvent) event).getPropertyName());
+    }
+
+    private void attach(CheckedTreeNode parentNode, FileTreeNode node) {
+        int index = insertionIndex(parentNode, node.getDisplayName());
+        parentNode.insert(node, index);
+        if (!treeModel.isFiltered()) {
+            treeModel.nodesWereInserted(parentNode, new int[]{index});
+        }
+        selectionSummary.nodeAdded(node);
+        structureChanged = true;
+    }
+
+    private void detach(FileTreeNode node) {
+        CheckedTreeNode parentNode = (CheckedTreeNode) node.getParent();
+        selectionSummary.nodeRemoved(node);
+        int index = parentNode.getIndex(node);
+        parentNode.remove(index);
+        if (!treeModel.isFiltered()) {
+            treeModel.nodesWereRemoved(parentNode, new int[]{index}, new Object[]{node});
+        }
+        structureChanged = true;
+    }
+
+    /**
+     * Position of a new child among its siblings, by name.
+     */
+    private static int insertionIndex(CheckedTreeNode parentNode, String name) {
+        for (int i = 0; i < parentNode.getChildCount(); i++) {
+            if (parentNode.getChildAt(i) instanceof FileTreeNode
+                    && ((FileTreeNode) parentNode.getChildAt(i)).getDisplayName().compareToIgnoreCase(name) > 0) {
+                return i;
+            }
+        }
+        return parentNode.getChildCount();
+    }
+
+    /**
+     * Repaint a node and its loaded descendants after their names or parent paths changed.
+     */
+    private void nodesChanged(FileTreeNode node) {
+        if (treeModel.isFiltered()) {
+            return;
+        }
+        treeModel.nodeChanged(node);
+        if (node.isDirectory() && node.isChildrenLoaded()) {
+            for (int i = 0; i < node.getChildCount(); i++) {
+                if (node.getChildAt(i) instanceof FileTreeNode) {
+                    nodesChanged((FileTreeNode) node.getChildAt(i));
+                }
+            }
+        }
+    }
+
+    private static boolean isLoaded(CheckedTreeNode node) {
+        return !(node instanceof FileTreeNode) || ((FileTreeNode) node).isChildrenLoaded();
+    }
+
+    /**
+     * @return the root node for the base directory, otherwise as {@link #findNode}
+     */
+    private CheckedTreeNode findDirectoryNode(VirtualFile directory) {
+        return directory != null && directory.equals(baseDir) ? rootNode : findNode(directory);
+    }
+
+    /**
+     * Find the node for a file without loading anything.
+     *
+     * @return the file's node, the unloaded directory node that contains it, or null if the file is not
+     * under the base directory or has no node (it is ignored or below an ignored directory)
+     */
+    private FileTreeNode findNode(VirtualFile file) {
+        List<VirtualFile> path = new ArrayList<>();
+        VirtualFile current = file;
+        while (current != null && !current.equals(baseDir)) {
+            path.add(current);
+            current = current.getParent();
+        }
+        if (current == null || path.isEmpty()) {
+            return null;
+        }
+
+        CheckedTreeNode node = rootNode;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            if (!isLoaded(node)) {
+                return (FileTreeNode) node;
+            }
+            node = FileTreeNode.findChild(node, path.get(i));
+            if (node == null) {
+                return null;
+            }
+        }
+        return (FileTreeNode) node;
+    }
+
+    /**
+     * A file as it was before it was deleted, moved or renamed.
+     */
+    private final class OldLocation {
+        final FileTreeNode node;
+        final boolean exact;
+        final String path;
+        final boolean directory;
+        final long length;
+        final boolean ignored;
+
+        /**
+         * @param node the file's node, or the unloaded directory node that contains it
+         */
+        OldLocation(FileTreeNode node, VirtualFile file) {
+            this.node = node;
+            this.exact = node.getFile().equals(file);
+            this.path = VfsUtilCore.getRelativePath(file, baseDir);
+            this.directory = file.isDirectory();
+            this.length = directory ? 0 : file.getLength();
+            this.ignored = !exact && ignoreMatcher.isIgnoredPath(file);
+        }
+    }
+}
@@ -0,0 +1,276 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.CheckboxTree;
+import com.intellij.ui.CheckboxTreeListener;
+import com.intellij.ui.CheckedTreeNode;
+import com.intellij.ui.ColoredTreeCellRenderer;
+import com.intellij.ui.SimpleTextAttributes;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.TreeExpansionEvent;
+import javax.swing.event.TreeWillExpandListener;
+import javax.swing.tree.TreeSelectionModel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The checkbox tree of the tool window: lazily loaded project files, their checked state and the
+ * queries the copy flows run over it.
+ * <p>
+ * Directories load their children when they are first expanded or revealed; {@link SelectionSummary}
+ * follows every change of the checked state. All methods must be called on the EDT.
+ */
+final class FileTreeView {
+    private final VirtualFile baseDir;
+    private final SelectionSummary selectionSummary;
+    private final CheckedTreeNode rootNode;
+    private final FilteringTreeModel treeModel;
+    private final CheckboxTree tree;
+
+    /**
+     * @param baseDir project base directory, or null if the project has none: the tree is then empty
+     */
+    FileTreeView(VirtualFile baseDir, IgnoreMatcher ignoreMatcher, FileIconCache icons,
+                 SelectionSummary selectionSummary) {
+        this.baseDir = baseDir;
+        this.selectionSummary = selectionSummary;
+
+        rootNode = new CheckedTreeNode("Project Files");
+        rootNode.setChecked(false);  // Ensure root is not checked by default
+
+        // Build the first level of the file tree; deeper levels load on expand
+        if (baseDir != null) {
+            FileTreeNode.addChildren(rootNode, baseDir, ignoreMatcher, icons);
+        }
+
+        tree = new CheckboxTree(new CheckboxTree.CheckboxTreeCellRenderer() {
+            @Override
+            public void customizeRenderer(JTree tree, Object value, boolean selected,
+                                          boolean expanded, boolean leaf, int row, boolean hasFocus) {
+                if (value instanceof CheckedTreeNode) {
+                    CheckedTreeNode node = (CheckedTreeNode) value;
+                    ColoredTreeCellRenderer renderer = getTextRenderer();
+
+                    if (node instanceof FileTreeNode.PlaceholderNode) {
+                        renderer.append(node.getUserObject().toString(),
+                                SimpleTextAttributes.GRAYED_ITALIC_ATTRIBUTES);
+                    } else if (node instanceof FileTreeNode) {
+                        // Everything shown was computed when the node was created
+                        FileTreeNode fileNode = (FileTreeNode) node;
+                        renderer.setIcon(fileNode.getIcon());
+                        renderer.append(fileNode.getDisplayName(), fileNode.getNameAttributes());
+                        if (fileNode.getLocationText() != null) {
+                            renderer.append(fileNode.getLocationText(), SimpleTextAttributes.GRAYED_SMALL_ATTRIBUTES);
+                        }
+                    } else {
+                        renderer.append(node.getUserObject().toString(),
+                                SimpleTextAttributes.REGULAR_BOLD_ATTRIBUTES);
+                    }
+                }
+            }
+        }, rootNode);
+        treeModel = new FilteringTreeModel(rootNode);
+        tree.setModel(treeModel);
+
+        // Customize tree appearance and behavior
+        tree.getSelectionModel().setSelectionMode(TreeSelectionModel.DISCONTIGUOUS_TREE_SELECTION);
+        tree.setRootVisible(false);  // Hide root node
+        tree.setShowsRootHandles(true);
+
+        // Keep the selection summary current as nodes are checked and unchecked
+        tree.addCheckboxTreeListener(new CheckboxTreeListener() {
+            @Override
+            public void nodeStateChanged(@NotNull CheckedTreeNode node) {
+                selectionSummary.nodeStateChanged(node);
+            }
+        });
+
+        // Load directory children only when the directory is expanded
+        tree.addTreeWillExpandListener(new TreeWillExpandListener() {
+            @Override
+            public void treeWillExpand(TreeExpansionEvent event) {
+                Object node = event.getPath().getLastPathComponent();
+                if (node instanceof FileTreeNode && selectionSummary.loadChildren((FileTreeNode) node)) {
+                    treeModel.nodeStructureChanged((FileTreeNode) node);
+                }
+            }
+
+            @Override
+            public void treeWillCollapse(TreeExpansionEvent event) {
+            }
+        });
+    }
+
+    CheckboxTree getTree() {
+        return tree;
+    }
+
+    CheckedTreeNode getRootNode() {
+        return rootNode;
+    }
+
+    FilteringTreeModel getModel() {
+        return treeModel;
+    }
+
+    /**
+     * Find the node for a file, loading only the directories on its path.
+     */
+    FileTreeNode revealNode(VirtualFile file) {
+        List<VirtualFile> path = new ArrayList<>();
+        VirtualFile current = file;
+        while (current != null && !current.equals(baseDir)) {
+            path.add(current);
+            current = current.getParent();
+        }
+        if (current == null) {
+            return null;
+        }
+
+        CheckedTreeNode node = rootNode;
+        for (int i = path.size() - 1; i >= 0; i--) {
+            if (node instanceof FileTreeNode) {
+                selectionSummary.loadChildren((FileTreeNode) node);
+            }
+            node = FileTreeNode.findChild(node, path.get(i));
+            if (node == null) {
+                return null;
+            }
+        }
+        return (FileTreeNode) node;
+    }
+
+    void setAllChecked(boolean checked) {
+        setCheckedRecursively(rootNode, checked);
+        tree.repaint();
+    }
+
+    /**
+     * Check exactly the given files and directories, revealing each of them. Selected directories stay
+     * collapsed. The model is reloaded unless a filter is shown; the caller then applies it again.
+     */
+    void checkExactly(List<VirtualFile> files) {
+        setCheckedRecursively(rootNode, false);
+        for (VirtualFile file : files) {
+            FileTreeNode node = revealNode(file);
+            if (node != null) {
+                setCheckedRecursively(node, true);
+            }
+        }
+        if (!treeModel.isFiltered()) {
+            treeModel.reload();
+        }
+    }
+
+    private void setCheckedRecursively(CheckedTreeNode node, boolean checked) {
+        // Nothing to clear below an unchecked node whose subtree holds no checked units
+        if (!checked && !node.isChecked() && isUnselectedSubtree(node)) {
+            return;
+        }
+        node.setChecked(checked);
+        if (node instanceof FileTreeNode) {
+            selectionSummary.sync((FileTreeNode) node);
+        }
+        for (int i = 0; i < node.getChildCount(); i++) {
+            CheckedTreeNode childNode = (CheckedTreeNode) node.getChildAt(i);
+            setCheckedRecursively(childNode, checked);
+        }
+    }
+
+    /**
+     * @return the checked files, and the checked directories that were never expanded, in tree order
+     */
+    List<VirtualFile> collectSelectedFiles() {
+        List<VirtualFile> selectedFiles = new ArrayList<>();
+        collectSelectedFiles(rootNode, selectedFiles);
+        return selectedFiles;
+    }
+
+    private void collectSelectedFiles(CheckedTreeNode node, List<VirtualFile> selectedFiles) {
+        for (int i = 0; i < node.getChildCount(); i++) {
+            CheckedTreeNode childNode = (CheckedTreeNode) node.getChildAt(i);
+            if (!childNode.isChecked() && isUnselectedSubtree(childNode)) {
+                continue;
+            }
+
+            if (childNode.isChecked()) {
+                Object userObject = childNode.getUserObject();
+                if (userObject instanceof VirtualFile) {
+                    VirtualFile file = (VirtualFile) userObject;
+                    if (!file.isDirectory()) {
+                        selectedFiles.add(file);
+                    } else if (!((FileTreeNode) childNode).isChildrenLoaded()) {
+                        // Checked directory that was never expanded: its files are listed by the copy task
+                        selectedFiles.add(file);
+                        continue;
+                    }
+                }
+            }
+
+            // Recursively check child nodes
+            collectSelectedFiles(childNode, selectedFiles);
+        }
+    }
+
+    /**
+     * @param loadedChildren receives the children of every loaded directory below the checked ones, in
+     *                       tree order, so the structure is rendered from the tree instead of the VFS
+     * @return the outermost checked directories and the checked files outside them, in tree order
+     */
+    List<VirtualFile> collectStructureRoots(Map<VirtualFile, List<VirtualFile>> loadedChildren) {
+        List<VirtualFile> selection = new ArrayList<>();
+        collectStructureRoots(rootNode, selection, loadedChildren);
+        return selection;
+    }
+
+    /**
+     * A checked directory covers its whole subtree, so only its loaded children are recorded.
+     */
+    private void collectStructureRoots(CheckedTreeNode node, List<VirtualFile> selection,
+                                       Map<VirtualFile, List<VirtualFile>> loadedChildren) {
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (!(node.getChildAt(i) instanceof FileTreeNode)) {
+                continue;
+            }
+            FileTreeNode childNode = (FileTreeNode) node.getChildAt(i);
+
+            if (childNode.isChecked()) {
+                selection.add(childNode.getFile());
+                collectLoadedChildren(childNode, loadedChildren);
+            } else if (!isUnselectedSubtree(childNode)) {
+                collectStructureRoots(childNode, selection, loadedChildren);
+            }
+        }
+    }
+
+    /**
+     * Directories whose children were never loaded, and placeholders, are left to the structure walk.
+     */
+    private static void collectLoadedChildren(FileTreeNode node, Map<VirtualFile, List<VirtualFile>> loadedChildren) {
+        if (!node.isDirectory() || !node.isChildrenLoaded()) {
+            return;
+        }
+        List<VirtualFile> children = new ArrayList<>(node.getChildCount());
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (node.getChildAt(i) instanceof FileTreeNode) {
+                FileTreeNode childNode = (FileTreeNode) node.getChildAt(i);
+                children.add(childNode.getFile());
+                collectLoadedChildren(childNode, loadedChildren);
+            }
+        }
+        loadedChildren.put(node.getFile(), children);
+    }
+
+    private boolean isUnselectedSubtree(CheckedTreeNode node) {
+        if (node instanceof FileTreeNode) {
+            return ((FileTreeNode) node).getCheckedUnits() == 0;
+        }
+        if (node == rootNode) {
+            return selectionSummary.getCheckedUnits() == 0;
+        }
+        return true;  // Placeholder
+    }
+}
@@ -0,0 +1,93 @@
+package com.integer.copymate;
+
+import javax.swing.tree.DefaultTreeModel;
+import javax.swing.tree.TreeNode;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Tree model that can temporarily show only some nodes and their ancestors.
+ * <p>
+ * Hidden nodes stay in the node structure, so their checked state is untouched by filtering and
+ * checking a directory still applies to all of its children, visible or not.
+ */
+class FilteringTreeModel extends DefaultTreeModel {
+    private Map<TreeNode, List<TreeNode>> visibleChildren;
+
+    FilteringTreeModel(TreeNode root) {
+        super(root);
+    }
+
+    boolean isFiltered() {
+        return visibleChildren != null;
+    }
+
+    /**
+     * Show only the given nodes and the paths leading to them.
+     */
+    void setVisibleNodes(Collection<? extends TreeNode> nodes) {
+        Set<TreeNode> visible = new HashSet<>();
+        Set<TreeNode> parents = new HashSet<>();
+        for (TreeNode node : nodes) {
+            for (TreeNode current = node; current != null && visible.add(current); current = current.getParent()) {
+                if (current.getParent() != null) {
+                    parents.add(current.getParent());
+                }
+            }
+        }
+
+        // Keep the original child order of every parent on a visible path
+        Map<TreeNode, List<TreeNode>> children = new HashMap<>();
+        for (TreeNode parent : parents) {
+            List<TreeNode> shown = new ArrayList<>();
+            for (int i = 0; i < parent.getChildCount(); i++) {
+                TreeNode child = parent.getChildAt(i);
+                if (visible.contains(child)) {
+                    shown.add(child);
+                }
+            }
+            children.put(parent, shown);
+        }
+
+        visibleChildren = children;
+        reload();
+    }
+
+    void clearFilter() {
+        if (visibleChildren != null) {
+            visibleChildren = null;
+            reload();
+        }
+    }
+
+    @Override
+    public Object getChild(Object parent, int index) {
+        if (visibleChildren == null) {
+            return super.getChild(parent, index);
+        }
+        return visibleChildren.get((TreeNode) parent).get(index);
+    }
+
+    @Override
+    public int getChildCount(Object parent) {
+        if (visibleChildren == null) {
+            return super.getChildCount(parent);
+        }
+        List<TreeNode> children = visibleChildren.get((TreeNode) parent);
+        return children == null ? 0 : children.size();
+    }
+
+    @Override
+    public int getIndexOfChild(Object parent, Object child) {
+        if (visibleChildren == null) {
+            return super.getIndexOfChild(parent, child);
+        }
+        List<TreeNode> children = visibleChildren.get((TreeNode) parent);
+        return children == null ? -1 : children.indexOf(child);
+    }
+}
@@ -0,0 +1,150 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.PathWalker;
+import com.integer.copymate.core.StructureWriter;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.util.registry.Registry;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Decides which files the traversal should skip, so ignored subtrees are pruned before they are visited.
+ * <p>
+ * A front for the core {@link PathWalker} over {@link ProjectFileAccess}: it combines the project's
+ * excluded roots from {@link ProjectFileIndex}, every {@code .gitignore} between the project base
+ * directory and the file, and the user patterns from the {@code copymate.ignore.patterns} registry key,
+ * exactly as the command line does. Walks and structure rendering go through the same walker.
+ * <p>
+ * {@link #isIgnored} only looks at the file itself, not its ancestors: callers walk top-down and never
+ * descend into a directory that was reported as ignored. Must be called inside a read action.
+ */
+final class IgnoreMatcher {
+    private final VirtualFile baseDir;
+    private final ProjectFileAccess files;
+    private volatile PathWalker<VirtualFile> walker;
+
+    private IgnoreMatcher(VirtualFile baseDir, ProjectFileAccess files) {
+        this.baseDir = baseDir;
+        this.files = files;
+        this.walker = createWalker();
+    }
+
+    static IgnoreMatcher create(Project project) {
+        return new IgnoreMatcher(project.getBaseDir(), new ProjectFileAccess(ProjectFileIndex.getInstance(project)));
+    }
+
+    private PathWalker<VirtualFile> createWalker() {
+        String patterns = Registry.stringValue("copymate.ignore.patterns");
+        return PathWalker.create(baseDir, files, Arrays.asList(patterns.split(";")));
+    }
+
+    /**
+     * Forget the compiled {@code .gitignore} chains and read the registry patterns again, for a matcher
+     * that outlives changes to either.
+     */
+    void reload() {
+        walker = createWalker();
+    }
+
+    /**
+     * Forget the compiled {@code .gitignore} chains of a directory that is about to be deleted, moved or
+     * renamed, and of everything below it.
+     */
+    void forget(VirtualFile directory) {
+        walker.forget(directory);
+    }
+
+    /**
+     * @return the path relative to the project base directory, as shown in copied and exported text
+     */
+    String relativePath(VirtualFile file) {
+        return walker.relativePath(file);
+    }
+
+    /**
+     * {@link #relativePath} for the absolute path of a file that may no longer exist.
+     */
+    String relativePath(String path) {
+        return walker.relativize(path);
+    }
+
+    /**
+     * Like {@link #isIgnored}, but also checks every directory between the file and the base directory,
+     * for files that were not reached by a top-down walk.
+     */
+    boolean isIgnoredPath(VirtualFile file) {
+        for (VirtualFile current = file; current != null && !current.equals(baseDir); current = current.getParent()) {
+            if (isIgnored(current)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    boolean isIgnored(VirtualFile file) {
+        try {
+            return walker.isIgnored(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);  // ProjectFileAccess reads from the VFS and never throws
+        }
+    }
+
+    /**
+     * Replace every directory in the selection by the files beneath it, keeping selection order.
+     */
+    List<VirtualFile> expand(List<VirtualFile> selection) {
+        try {
+            return walker.expand(selection);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Render the "Copy Structure" text of a selection, limited by the structure registry keys.
+     *
+     * @param loadedChildren children of directories already known, e.g. loaded in the file tree; other
+     *                       directories are listed from the VFS
+     */
+    String renderStructure(Collection<VirtualFile> selection, boolean glyphs,
+                           Map<VirtualFile, List<VirtualFile>> loadedChildren) {
+        PathWalker<VirtualFile> walker = this.walker;
+        StringBuilder structure = new StringBuilder();
+        try {
+            new StructureWriter<>(
+                    walker,
+                    directory -> {
+                        List<VirtualFile> children = loadedChildren.get(directory);
+                        return children != null ? validOnly(children) : walker.listChildren(directory);
+                    },
+                    glyphs,
+                    Registry.intValue("copymate.structure.max.depth", 0),
+                    Registry.intValue("copymate.structure.max.entries", 0)
+            ).write(selection, structure);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return structure.toString();
+    }
+
+    /**
+     * Drop the files that were deleted since the children were collected.
+     */
+    private static List<VirtualFile> validOnly(List<VirtualFile> files) {
+        List<VirtualFile> valid = new ArrayList<>(files.size());
+        for (VirtualFile file : files) {
+            if (file.isValid()) {
+                valid.add(file);
+            }
+        }
+        return valid;
+    }
+}
@@ -0,0 +1,23 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+/**
+ * Produces the signature outline copied for a file in "Copy Methods Only" mode and offered to the
+ * token budget as a cheaper alternative to the full content.
+ * <p>
+ * Implementations are registered through the {@code com.integer.copy-mate.outlineExtractor} extension
+ * point, keyed by file type name and/or extensions. They are called from background threads, several
+ * files at a time, and must take a read action themselves if they need one. The copy task's indicator is
+ * the thread's global progress indicator, to bind long read actions to.
+ */
+public interface OutlineExtractor {
+    /**
+     * @return the outline, or null to leave the file to the next extractor registered for it
+     */
+    @Nullable
+    String extract(@NotNull Project project, @NotNull VirtualFile file);
+}
@@ -0,0 +1,66 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.extensions.BaseKeyedLazyInstance;
+import com.intellij.openapi.extensions.ExtensionPointName;
+import com.intellij.openapi.extensions.RequiredElement;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.util.xmlb.annotations.Attribute;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Registration of an {@link OutlineExtractor}:
+ * <pre>{@code
+ * <extensions defaultExtensionNs="com.integer.copy-mate">
+ *   <outlineExtractor fileType="Kotlin" extensions="kt;kts" implementationClass="..."/>
+ * </extensions>
+ * }</pre>
+ * A file matches when its file type has the given name or its extension is one of the
+ * semicolon-separated extensions; either attribute may be omitted.
+ */
+public final class OutlineExtractorBean extends BaseKeyedLazyInstance<OutlineExtractor> {
+    static final ExtensionPointName<OutlineExtractorBean> EP_NAME =
+            ExtensionPointName.create("com.integer.copy-mate.outlineExtractor");
+
+    @Attribute("fileType")
+    public String fileType;
+
+    @Attribute("extensions")
+    public String extensions;
+
+    @Attribute("implementationClass")
+    @RequiredElement
+    public String implementationClass;
+
+    private volatile Set<String> extensionSet;
+
+    @Override
+    protected @Nullable String getImplementationClassName() {
+        return implementationClass;
+    }
+
+    boolean matches(VirtualFile file) {
+        if (fileType != null && fileType.equals(file.getFileType().getName())) {
+            return true;
+        }
+        String extension = file.getExtension();
+        return extension != null && extensionSet().contains(extension.toLowerCase(Locale.ROOT));
+    }
+
+    private Set<String> extensionSet() {
+        Set<String> set = extensionSet;
+        if (set == null) {
+            set = extensions == null ? Set.of() : Arrays.stream(extensions.split(";"))
+                    .map(String::trim)
+                    .filter(extension -> !extension.isEmpty())
+                    .map(extension -> extension.toLowerCase(Locale.ROOT))
+                    .collect(Collectors.toUnmodifiableSet());
+            extensionSet = set;
+        }
+        return set;
+    }
+}
@@ -0,0 +1,62 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.diagnostic.ControlFlowException;
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+
+/**
+ * Looks up the {@link OutlineExtractor}s registered for a file, in extension order.
+ */
+final class OutlineExtractors {
+    private static final Logger LOG = Logger.getInstance(OutlineExtractors.class);
+
+    private OutlineExtractors() {
+    }
+
+    /**
+     * Whether any extractor is registered for the file, i.e. whether it has an outline level.
+     */
+    static boolean isSupported(VirtualFile file) {
+        for (OutlineExtractorBean bean : OutlineExtractorBean.EP_NAME.getExtensionList()) {
+            if (bean.matches(file)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The outline from the first matching extractor that produces one.
+     * Cancellation propagates; a failing extractor is reported as an exception rather than as outline
+     * text, so callers can show the error without caching it.
+     *
+     * @throws ExtractionException if the extractor responsible for the file failed
+     */
+    static String extract(Project project, VirtualFile file) throws ExtractionException {
+        for (OutlineExtractorBean bean : OutlineExtractorBean.EP_NAME.getExtensionList()) {
+            if (!bean.matches(file)) {
+                continue;
+            }
+            try {
+                String outline = bean.getInstance().extract(project, file);
+                if (outline != null) {
+                    return outline;
+                }
+            } catch (RuntimeException e) {
+                if (e instanceof ControlFlowException) {
+                    throw e;
+                }
+                LOG.warn("Outline extraction failed for " + file.getPath(), e);
+                throw new ExtractionException("Error extracting method signatures: " + e.getMessage(), e);
+            }
+        }
+        return "";
+    }
+
+    static final class ExtractionException extends Exception {
+        ExtractionException(String message, Throwable cause) {
+            super(message, cause);
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.DocumentAdapter;
+import com.intellij.ui.SearchTextField;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.intellij.util.ui.tree.TreeUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.*;
+import javax.swing.event.DocumentEvent;
+import javax.swing.tree.TreeNode;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The filter field above the file tree, backed by a {@link PathIndex} of the project's relative paths.
+ * <p>
+ * The index is built in the background so the tool window opens immediately; matches are revealed in
+ * the tree, loading only the directories on their paths. All methods must be called on the EDT.
+ */
+final class PathFilter {
+    private static final int MAX_FILTER_RESULTS = 500;
+
+    private final VirtualFile baseDir;
+    private final IgnoreMatcher ignoreMatcher;
+    private final FileTreeView fileTree;
+    private final Disposable parentDisposable;
+    private final SearchTextField filterField;
+    private PathIndex pathIndex;
+
+    PathFilter(VirtualFile baseDir, IgnoreMatcher ignoreMatcher, FileTreeView fileTree, Disposable parentDisposable) {
+        this.baseDir = baseDir;
+        this.ignoreMatcher = ignoreMatcher;
+        this.fileTree = fileTree;
+        this.parentDisposable = parentDisposable;
+
+        filterField = new SearchTextField(false);
+        filterField.getTextEditor().getEmptyText().setText("Indexing project files...");
+        filterField.addDocumentListener(new DocumentAdapter() {
+            @Override
+            protected void textChanged(@NotNull DocumentEvent e) {
+                apply();
+            }
+        });
+
+        // Index relative paths in the background so the panel opens immediately
+        rebuildPathIndex();
+    }
+
+    JComponent getComponent() {
+        return filterField;
+    }
+
+    /**
+     * @return the index, or null while the first one is being built
+     */
+    PathIndex getPathIndex() {
+        return pathIndex;
+    }
+
+    /**
+     * Index the relative paths from scratch; a burst of requests cancels all but the last rebuild.
+     * The previous index answers queries, and takes file system changes, until the new one is ready.
+     */
+    private void rebuildPathIndex() {
+        if (baseDir == null) {
+            return;
+        }
+        ReadAction.nonBlocking(() -> PathIndex.build(baseDir, ignoreMatcher))
+                .coalesceBy(this, PathIndex.class)
+                .finishOnUiThread(ModalityState.any(), index -> {
+                    pathIndex = index;
+                    filterField.getTextEditor().getEmptyText().setText(
+                            "Filter " + index.size() + " files by path");
+                    apply();
+                })
+                .expireWith(parentDisposable)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    /**
+     * Called after file system changes added, removed or renamed nodes or indexed paths.
+     */
+    void fileTreeChanged() {
+        if (pathIndex != null) {
+            filterField.getTextEditor().getEmptyText().setText("Filter " + pathIndex.size() + " files by path");
+        }
+        reapply();
+    }
+
+    /**
+     * Called after the ignore rules were reloaded; any file may have entered or left the index.
+     */
+    void ignoreRulesChanged() {
+        reapply();
+        rebuildPathIndex();
+    }
+
+    /**
+     * Search again if a filter is shown, after nodes were added, removed or checked.
+     */
+    void reapply() {
+        if (fileTree.getModel().isFiltered()) {
+            apply();
+        }
+    }
+
+    private void apply() {
+        FilteringTreeModel treeModel = fileTree.getModel();
+        String query = filterField.getText().trim();
+        if (query.isEmpty()) {
+            treeModel.clearFilter();
+            return;
+        }
+        if (pathIndex == null) {
+            return;  // Applied once the index is ready
+        }
+
+        List<TreeNode> matches = new ArrayList<>();
+        for (VirtualFile file : pathIndex.search(query, MAX_FILTER_RESULTS)) {
+            FileTreeNode node = fileTree.revealNode(file);
+            if (node != null) {
+                matches.add(node);
+            }
+        }
+        treeModel.setVisibleNodes(matches);
+        TreeUtil.expandAll(fileTree.getTree());
+    }
+}
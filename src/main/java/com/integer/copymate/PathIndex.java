@@ -0,0 +1,180 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.TrigramIndex;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+/**
+ * Searchable list of every non-ignored file under the project base directory, keyed by relative path.
+ * Built in the background when the tool window opens; each query is answered from the trigram index.
+ * <p>
+ * File system changes are applied as deltas: removed paths are masked out of the trigram index and added
+ * paths are kept aside and scanned linearly. Once the deltas grow large, the index is rebuilt from the
+ * paths it already holds, without walking the project again. Only the initial build runs in the
+ * background; {@link #add}, {@link #remove} and {@link #search} must be called on the EDT.
+ */
+final class PathIndex {
+    private static final int MIN_COMPACT_THRESHOLD = 1024;
+
+    private final VirtualFile baseDir;
+    private final IgnoreMatcher ignoreMatcher;
+    private List<VirtualFile> files;
+    private TrigramIndex index;
+
+    // Deltas since the trigram index was built
+    private NavigableMap<String, Integer> ids;
+    private final BitSet removed = new BitSet();
+    private final NavigableMap<String, VirtualFile> added = new TreeMap<>();
+
+    private PathIndex(VirtualFile baseDir, IgnoreMatcher ignoreMatcher, List<VirtualFile> files, List<String> paths) {
+        this.baseDir = baseDir;
+        this.ignoreMatcher = ignoreMatcher;
+        reset(files, paths);
+    }
+
+    /**
+     * Walk the base directory, skipping ignored subtrees. Must be called inside a (cancellable) read action.
+     */
+    static PathIndex build(VirtualFile baseDir, IgnoreMatcher ignoreMatcher) {
+        List<VirtualFile> files = new ArrayList<>();
+        List<String> paths = new ArrayList<>();
+        collect(baseDir, baseDir, ignoreMatcher, files, paths);
+        return new PathIndex(baseDir, ignoreMatcher, files, paths);
+    }
+
+    private static void collect(VirtualFile baseDir, VirtualFile root, IgnoreMatcher ignoreMatcher,
+                                List<VirtualFile> files, List<String> paths) {
+        int prefixLength = baseDir.getPath().length() + 1;
+        VfsUtilCore.visitChildrenRecursively(root, new VirtualFileVisitor<Void>(VirtualFileVisitor.NO_FOLLOW_SYMLINKS) {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+                ProgressManager.checkCanceled();
+                if (file.equals(baseDir)) {
+                    return true;
+                }
+                if (ignoreMatcher.isIgnored(file)) {
+                    return false;
+                }
+                if (!file.isDirectory()) {
+                    files.add(file);
+                    paths.add(file.getPath().substring(prefixLength));
+                }
+                return true;
+            }
+        });
+    }
+
+    private void reset(List<VirtualFile> files, List<String> paths) {
+        this.files = files;
+        this.index = TrigramIndex.build(paths);
+        this.ids = new TreeMap<>();
+        for (int id = 0; id < paths.size(); id++) {
+            ids.put(paths.get(id), id);
+        }
+        removed.clear();
+        added.clear();
+    }
+
+    int size() {
+        return ids.size() + added.size();
+    }
+
+    /**
+     * Add a file, or every non-ignored file below a directory. The caller checks that the file itself
+     * is not ignored; paths that are already indexed are left alone.
+     */
+    void add(VirtualFile file) {
+        List<VirtualFile> newFiles = new ArrayList<>();
+        List<String> newPaths = new ArrayList<>();
+        collect(baseDir, file, ignoreMatcher, newFiles, newPaths);
+        for (int i = 0; i < newFiles.size(); i++) {
+            if (!ids.containsKey(newPaths.get(i))) {
+                added.put(newPaths.get(i), newFiles.get(i));
+            }
+        }
+        compactIfNeeded();
+    }
+
+    /**
+     * Remove a file, or everything below a directory, by its relative path.
+     */
+    void remove(String relativePath) {
+        Integer id = ids.remove(relativePath);
+        if (id != null) {
+            removed.set(id);
+        }
+        added.remove(relativePath);
+
+        // '0' follows '/', so the sub map holds exactly the paths below the directory
+        Map<String, Integer> below = ids.subMap(relativePath + "/", relativePath + "0");
+        for (int belowId : below.values()) {
+            removed.set(belowId);
+        }
+        below.clear();
+        added.subMap(relativePath + "/", relativePath + "0").clear();
+        compactIfNeeded();
+    }
+
+    /**
+     * Re-index the current paths once the masked and linearly scanned entries would slow queries down.
+     */
+    private void compactIfNeeded() {
+        int deltas = removed.cardinality() + added.size();
+        if (deltas < Math.max(MIN_COMPACT_THRESHOLD, files.size() / 4)) {
+            return;
+        }
+        // Keep the traversal order of the indexed files, then the additions in path order
+        String[] paths = new String[files.size()];
+        for (Map.Entry<String, Integer> entry : ids.entrySet()) {
+            paths[entry.getValue()] = entry.getKey();
+        }
+        List<VirtualFile> liveFiles = new ArrayList<>(size());
+        List<String> livePaths = new ArrayList<>(size());
+        for (int id = 0; id < paths.length; id++) {
+            if (paths[id] != null) {
+                liveFiles.add(files.get(id));
+                livePaths.add(paths[id]);
+            }
+        }
+        liveFiles.addAll(added.values());
+        livePaths.addAll(added.keySet());
+        reset(liveFiles, livePaths);
+    }
+
+    /**
+     * @return files whose relative path contains the query, case-insensitive: indexed files in traversal
+     * order, then files added since
+     */
+    List<VirtualFile> search(String query, int limit) {
+        // Ask for enough extra ids to make up for the masked ones
+        int[] matches = index.search(query, limit + removed.cardinality());
+        List<VirtualFile> result = new ArrayList<>(Math.min(limit, matches.length + added.size()));
+        for (int i = 0; i < matches.length && result.size() < limit; i++) {
+            if (!removed.get(matches[i])) {
+                result.add(files.get(matches[i]));
+            }
+        }
+
+        String needle = query.toLowerCase(Locale.ROOT);
+        for (Map.Entry<String, VirtualFile> entry : added.entrySet()) {
+            if (result.size() >= limit) {
+                break;
+            }
+            if (entry.getKey().toLowerCase(Locale.ROOT).contains(needle)) {
+                result.add(entry.getValue());
+            }
+        }
+        return result;
+    }
+}
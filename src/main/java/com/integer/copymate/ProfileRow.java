@@ -0,0 +1,219 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.GitIgnoreRules;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.ui.ComboBox;
+import com.intellij.openapi.ui.Messages;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.ui.CheckedTreeNode;
+import com.intellij.util.concurrency.AppExecutorUtil;
+
+import javax.swing.*;
+import java.awt.*;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Selection profile chooser with apply, save and delete buttons.
+ * <p>
+ * Saving describes the checked part of the tree with as few paths and globs as possible; applying a
+ * profile checks exactly its files. Profiles are stored by {@link SelectionProfiles}.
+ */
+final class ProfileRow extends JPanel {
+    private final Project project;
+    private final VirtualFile baseDir;
+    private final IgnoreMatcher ignoreMatcher;
+    private final FileTreeView fileTree;
+    private final PathFilter pathFilter;
+    private final Runnable onSelectionChanged;
+    private final Disposable parentDisposable;
+    private final SelectionProfiles profiles;
+    private final ComboBox<String> profileComboBox;
+
+    /**
+     * @param onSelectionChanged called after a profile was applied to the tree
+     */
+    ProfileRow(Project project, VirtualFile baseDir, IgnoreMatcher ignoreMatcher, FileTreeView fileTree,
+               PathFilter pathFilter, Runnable onSelectionChanged, Disposable parentDisposable) {
+        super(new FlowLayout(FlowLayout.LEFT, 5, 0));
+        this.project = project;
+        this.baseDir = baseDir;
+        this.ignoreMatcher = ignoreMatcher;
+        this.fileTree = fileTree;
+        this.pathFilter = pathFilter;
+        this.onSelectionChanged = onSelectionChanged;
+        this.parentDisposable = parentDisposable;
+
+        profiles = SelectionProfiles.getInstance(project);
+        profileComboBox = new ComboBox<>(profiles.getProfileNames().toArray(new String[0]));
+        profileComboBox.setPreferredSize(new Dimension(180, profileComboBox.getPreferredSize().height));
+
+        JButton applyButton = new JButton("Apply");
+        applyButton.addActionListener(e -> {
+            String name = (String) profileComboBox.getSelectedItem();
+            if (name != null) {
+                applyProfile(name);
+            }
+        });
+
+        JButton saveButton = new JButton("Save As...");
+        saveButton.addActionListener(e -> saveProfile());
+
+        JButton deleteButton = new JButton("Delete");
+        deleteButton.addActionListener(e -> {
+            String name = (String) profileComboBox.getSelectedItem();
+            if (name != null) {
+                profiles.removeProfile(name);
+                profileComboBox.removeItem(name);
+            }
+        });
+
+        add(new JLabel("Profile:"));
+        add(profileComboBox);
+        add(applyButton);
+        add(saveButton);
+        add(deleteButton);
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+        setMaximumSize(getPreferredSize());
+    }
+
+    /**
+     * Start from the selection that was saved or applied last.
+     */
+    void restoreLastProfile() {
+        String lastProfile = profiles.getLastProfile();
+        if (lastProfile != null && profiles.findProfile(lastProfile) != null) {
+            profileComboBox.setSelectedItem(lastProfile);
+            applyProfile(lastProfile);
+        }
+    }
+
+    private void saveProfile() {
+        if (baseDir == null) {
+            return;
+        }
+        String name = Messages.showInputDialog(project, "Profile name:", "Save Selection Profile", null,
+                (String) profileComboBox.getSelectedItem(), null);
+        if (name == null || name.isBlank()) {
+            return;
+        }
+
+        SelectionProfiles.Profile profile = new SelectionProfiles.Profile();
+        profile.name = name.trim();
+        CheckedTreeNode rootNode = fileTree.getRootNode();
+        if (collectProfileEntries(rootNode, profile)) {
+            // Everything is selected: list the top-level entries
+            profile.paths.clear();
+            profile.globs.clear();
+            for (int i = 0; i < rootNode.getChildCount(); i++) {
+                profile.paths.add(((FileTreeNode) rootNode.getChildAt(i)).getFile().getName());
+            }
+        }
+        profiles.saveProfile(profile);
+
+        if (((DefaultComboBoxModel<String>) profileComboBox.getModel()).getIndexOf(profile.name) < 0) {
+            profileComboBox.addItem(profile.name);
+        }
+        profileComboBox.setSelectedItem(profile.name);
+    }
+
+    /**
+     * Describe the checked part of a node's subtree as compactly as possible: a fully checked directory
+     * becomes one path, and two or more sibling files that are all the files with their extension become
+     * one glob. Unchecked subtrees are skipped without being visited.
+     *
+     * @return true if the whole subtree is checked, in which case the caller records the node itself
+     */
+    private boolean collectProfileEntries(CheckedTreeNode node, SelectionProfiles.Profile profile) {
+        List<FileTreeNode> fullChildren = new ArrayList<>();
+        boolean allFull = node.getChildCount() > 0;
+
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (!(node.getChildAt(i) instanceof FileTreeNode)) {
+                allFull = allFull && ((CheckedTreeNode) node.getChildAt(i)).isChecked();  // Placeholder
+                continue;
+            }
+            FileTreeNode child = (FileTreeNode) node.getChildAt(i);
+            if (child.isSelectionUnit() || child.getCheckedUnits() == 0) {
+                if (child.isChecked() && child.isSelectionUnit()) {
+                    fullChildren.add(child);
+                } else {
+                    allFull = false;
+                }
+                continue;
+            }
+
+            SelectionProfiles.Profile childEntries = new SelectionProfiles.Profile();
+            if (collectProfileEntries(child, childEntries)) {
+                fullChildren.add(child);
+            } else {
+                allFull = false;
+                profile.paths.addAll(childEntries.paths);
+                profile.globs.addAll(childEntries.globs);
+            }
+        }
+        if (allFull) {
+            return true;
+        }
+
+        // Count every file per extension so a glob never selects more than was checked
+        Map<String, Integer> filesPerExtension = new LinkedHashMap<>();
+        Map<String, List<FileTreeNode>> checkedPerExtension = new LinkedHashMap<>();
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (node.getChildAt(i) instanceof FileTreeNode && !((FileTreeNode) node.getChildAt(i)).isDirectory()) {
+                String extension = ((FileTreeNode) node.getChildAt(i)).getFile().getExtension();
+                if (extension != null) {
+                    filesPerExtension.merge(extension, 1, Integer::sum);
+                }
+            }
+        }
+        for (FileTreeNode child : fullChildren) {
+            String extension = child.getFile().getExtension();
+            if (child.isDirectory() || extension == null) {
+                profile.paths.add(VfsUtilCore.getRelativePath(child.getFile(), baseDir, '/'));
+            } else {
+                checkedPerExtension.computeIfAbsent(extension, key -> new ArrayList<>()).add(child);
+            }
+        }
+        for (Map.Entry<String, List<FileTreeNode>> group : checkedPerExtension.entrySet()) {
+            List<FileTreeNode> files = group.getValue();
+            if (files.size() >= 2 && files.size() == filesPerExtension.get(group.getKey())) {
+                String directory = VfsUtilCore.getRelativePath(files.get(0).getFile().getParent(), baseDir, '/');
+                String prefix = directory == null || directory.isEmpty() ? "" : GitIgnoreRules.escape(directory) + "/";
+                profile.globs.add(prefix + "*." + GitIgnoreRules.escape(group.getKey()));
+            } else {
+                for (FileTreeNode file : files) {
+                    profile.paths.add(VfsUtilCore.getRelativePath(file.getFile(), baseDir, '/'));
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check exactly the files of a profile. The profile is resolved in the background; applying it loads
+     * only the directories on the way to its entries, and selected directories stay collapsed.
+     */
+    private void applyProfile(String name) {
+        SelectionProfiles.Profile profile = profiles.findProfile(name);
+        if (profile == null || baseDir == null) {
+            return;
+        }
+        profiles.setLastProfile(name);
+
+        ReadAction.nonBlocking(() -> SelectionProfiles.resolve(profile, baseDir, ignoreMatcher))
+                .finishOnUiThread(ModalityState.any(), files -> {
+                    fileTree.checkExactly(files);
+                    pathFilter.reapply();
+                    onSelectionChanged.run();
+                })
+                .expireWith(parentDisposable)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+}
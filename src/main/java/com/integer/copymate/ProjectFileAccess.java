@@ -0,0 +1,74 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.FileAccess;
+import com.intellij.openapi.fileEditor.impl.LoadTextUtil;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VFileProperty;
+import com.intellij.openapi.vfs.VirtualFile;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * {@link FileAccess} over the virtual file system, so the core walker and writers run on the project's
+ * files. The project's excluded folders are always left out. Listing a directory checks for cancellation,
+ * so walks inside a cancellable read action stop promptly. Must be used inside a read action.
+ */
+final class ProjectFileAccess implements FileAccess<VirtualFile> {
+    private final ProjectFileIndex fileIndex;
+
+    ProjectFileAccess(ProjectFileIndex fileIndex) {
+        this.fileIndex = fileIndex;
+    }
+
+    @Override
+    public String name(VirtualFile file) {
+        return file.getName();
+    }
+
+    @Override
+    public String path(VirtualFile file) {
+        return file.getPath();
+    }
+
+    @Override
+    public VirtualFile parent(VirtualFile file) {
+        return file.getParent();
+    }
+
+    @Override
+    public boolean exists(VirtualFile file) {
+        return file.isValid();
+    }
+
+    @Override
+    public boolean isDirectory(VirtualFile file) {
+        return file.isDirectory();
+    }
+
+    @Override
+    public List<VirtualFile> children(VirtualFile directory) {
+        ProgressManager.checkCanceled();
+        if (directory.is(VFileProperty.SYMLINK)) {
+            return List.of();  // Not followed, like the disk walker
+        }
+        return Arrays.asList(directory.getChildren());
+    }
+
+    @Override
+    public VirtualFile findFile(VirtualFile directory, String name) {
+        VirtualFile file = directory.findChild(name);
+        return file != null && !file.isDirectory() ? file : null;
+    }
+
+    @Override
+    public String loadText(VirtualFile file) {
+        return LoadTextUtil.loadText(file).toString();
+    }
+
+    @Override
+    public boolean isExcluded(VirtualFile file) {
+        return fileIndex.isExcluded(file);
+    }
+}
@@ -0,0 +1,91 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.application.NonBlockingReadAction;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.roots.ProjectFileIndex;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Finds the project classes a Java file refers to by resolving its type references through PSI.
+ * <p>
+ * Type references (declarations, {@code new}, casts, generics, annotations) are always resolved. Plain
+ * reference expressions are only resolved when they start with an upper-case letter, which is how a
+ * static member access such as {@code Utils.helper()} names its class; resolving every method call and
+ * variable would cost far more than it finds. Imports are skipped, so unused imports add nothing.
+ * Registered from {@code copymate-java.xml}, so it is only loaded when the Java plugin is available.
+ */
+public final class PsiJavaDependencyResolver implements DependencyResolver {
+
+    /**
+     * Resolve in a non-blocking read action bound to the calling task's indicator, so that cancelling
+     * the copy stops a deep closure.
+     */
+    @Override
+    public @NotNull Collection<VirtualFile> findDependencies(@NotNull Project project, @NotNull VirtualFile file) {
+        NonBlockingReadAction<Collection<VirtualFile>> action = ReadAction.nonBlocking(() -> resolve(project, file))
+                .expireWith(project);
+        ProgressIndicator indicator = ProgressManager.getGlobalProgressIndicator();
+        return (indicator != null ? action.wrapProgress(indicator) : action).executeSynchronously();
+    }
+
+    private static Collection<VirtualFile> resolve(Project project, VirtualFile file) {
+        if (!file.isValid()) {
+            return List.of();
+        }
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (!(psiFile instanceof PsiJavaFile)) {
+            return List.of();
+        }
+
+        ProjectFileIndex fileIndex = ProjectFileIndex.getInstance(project);
+        Set<VirtualFile> dependencies = new LinkedHashSet<>();
+        psiFile.accept(new JavaRecursiveElementWalkingVisitor() {
+            @Override
+            public void visitImportList(@NotNull PsiImportList list) {
+                // Not descending: imports are resolved where the imported names are used
+            }
+
+            @Override
+            public void visitPackageStatement(@NotNull PsiPackageStatement statement) {
+            }
+
+            @Override
+            public void visitReferenceElement(@NotNull PsiJavaCodeReferenceElement reference) {
+                super.visitReferenceElement(reference);
+                add(reference.resolve());
+            }
+
+            @Override
+            public void visitReferenceExpression(@NotNull PsiReferenceExpression expression) {
+                super.visitReferenceExpression(expression);
+                String name = expression.getReferenceName();
+                if (name != null && !name.isEmpty() && Character.isUpperCase(name.charAt(0))) {
+                    add(expression.resolve());
+                }
+            }
+
+            private void add(PsiElement target) {
+                if (!(target instanceof PsiClass)) {
+                    return;
+                }
+                PsiFile targetFile = target.getContainingFile();
+                VirtualFile targetVirtualFile = targetFile == null ? null : targetFile.getVirtualFile();
+                if (targetVirtualFile != null && !targetVirtualFile.equals(file)
+                        && fileIndex.isInSourceContent(targetVirtualFile)) {
+                    dependencies.add(targetVirtualFile);
+                }
+            }
+        });
+        return dependencies;
+    }
+}
@@ -0,0 +1,204 @@
+package com.integer.copymate;
+
+import com.intellij.openapi.application.NonBlockingReadAction;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressIndicator;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.psi.*;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * Builds the signature outline of a Java file from PSI.
+ * <p>
+ * Only stub-backed accessors are used (modifier lists, reference lists, parameter types), so for files
+ * that are not open in an editor the outline comes from the stub index without parsing the file or
+ * reading it from disk. Registered from {@code copymate-java.xml}, so it is only loaded when the Java
+ * plugin is available; the text scanner registered for Java files takes over otherwise.
+ */
+public final class PsiJavaOutlineExtractor implements OutlineExtractor {
+    private static final String INDENT = "    ";
+
+    /**
+     * Compute the outline inside a non-blocking read action, bound to the calling task's indicator so
+     * that cancelling the copy stops it.
+     *
+     * @return the outline, or null if the file is not a Java file known to PSI
+     */
+    @Override
+    public String extract(@NotNull Project project, @NotNull VirtualFile file) {
+        NonBlockingReadAction<String> action = ReadAction.nonBlocking(() -> buildOutline(project, file))
+                .expireWith(project);
+        ProgressIndicator indicator = ProgressManager.getGlobalProgressIndicator();
+        return (indicator != null ? action.wrapProgress(indicator) : action).executeSynchronously();
+    }
+
+    private static String buildOutline(Project project, VirtualFile file) {
+        if (!file.isValid()) {
+            return null;
+        }
+        PsiFile psiFile = PsiManager.getInstance(project).findFile(file);
+        if (!(psiFile instanceof PsiJavaFile)) {
+            return null;
+        }
+
+        PsiJavaFile javaFile = (PsiJavaFile) psiFile;
+        StringBuilder outline = new StringBuilder();
+        if (!javaFile.getPackageName().isEmpty()) {
+            outline.append("package ").append(javaFile.getPackageName()).append(";\n\n");
+        }
+        for (PsiClass psiClass : javaFile.getClasses()) {
+            appendClass(outline, psiClass, 0);
+            outline.append("\n");
+        }
+        return outline.toString();
+    }
+
+    private static void appendClass(StringBuilder outline, PsiClass psiClass, int level) {
+        indent(outline, level);
+        appendModifiers(outline, psiClass.getModifierList());
+        outline.append(classKeyword(psiClass)).append(' ').append(psiClass.getName());
+        appendTypeParameters(outline, psiClass.getTypeParameters());
+
+        if (psiClass.isRecord()) {
+            outline.append('(');
+            PsiRecordComponent[] components = psiClass.getRecordComponents();
+            for (int i = 0; i < components.length; i++) {
+                if (i > 0) {
+                    outline.append(", ");
+                }
+                outline.append(components[i].getType().getPresentableText()).append(' ').append(components[i].getName());
+            }
+            outline.append(')');
+        }
+
+        // Explicit reference lists only; implicit supertypes such as Enum or Record are left out
+        appendReferenceList(outline, " extends ", psiClass.getExtendsList());
+        appendReferenceList(outline, " implements ", psiClass.getImplementsList());
+        appendReferenceList(outline, " permits ", psiClass.getPermitsList());
+        outline.append(" {\n");
+
+        StringBuilder constants = new StringBuilder();
+        for (PsiField field : psiClass.getFields()) {
+            if (!field.isPhysical()) {
+                continue;  // Implicit members contributed by augment providers
+            }
+            if (field instanceof PsiEnumConstant) {
+                constants.append(constants.length() == 0 ? "" : ", ").append(field.getName());
+                continue;
+            }
+            indent(outline, level + 1);
+            appendModifiers(outline, field.getModifierList());
+            outline.append(field.getType().getPresentableText()).append(' ').append(field.getName()).append(";\n");
+        }
+        if (constants.length() > 0) {
+            indent(outline, level + 1);
+            outline.append(constants).append(";\n");
+        }
+
+        for (PsiMethod method : psiClass.getMethods()) {
+            if (method.isPhysical()) {
+                appendMethod(outline, method, level + 1);
+            }
+        }
+
+        for (PsiClass innerClass : psiClass.getInnerClasses()) {
+            appendClass(outline, innerClass, level + 1);
+        }
+
+        indent(outline, level);
+        outline.append("}\n");
+    }
+
+    private static void appendMethod(StringBuilder outline, PsiMethod method, int level) {
+        indent(outline, level);
+        appendModifiers(outline, method.getModifierList());
+        if (appendTypeParameters(outline, method.getTypeParameters())) {
+            outline.append(' ');
+        }
+
+        PsiType returnType = method.getReturnType();
+        if (returnType != null) {
+            outline.append(returnType.getPresentableText()).append(' ');
+        }
+        outline.append(method.getName()).append('(');
+
+        PsiParameter[] parameters = method.getParameterList().getParameters();
+        for (int i = 0; i < parameters.length; i++) {
+            if (i > 0) {
+                outline.append(", ");
+            }
+            outline.append(parameters[i].getType().getPresentableText()).append(' ').append(parameters[i].getName());
+        }
+        outline.append(')');
+        appendReferenceList(outline, " throws ", method.getThrowsList());
+
+        // Decided from modifiers so the method body is never loaded
+        boolean hasBody = !method.hasModifierProperty(PsiModifier.ABSTRACT)
+                && !method.hasModifierProperty(PsiModifier.NATIVE);
+        outline.append(hasBody ? " {}\n" : ";\n");
+    }
+
+    private static String classKeyword(PsiClass psiClass) {
+        if (psiClass.isAnnotationType()) {
+            return "@interface";
+        }
+        if (psiClass.isInterface()) {
+            return "interface";
+        }
+        if (psiClass.isEnum()) {
+            return "enum";
+        }
+        if (psiClass.isRecord()) {
+            return "record";
+        }
+        return "class";
+    }
+
+    private static void appendModifiers(StringBuilder outline, PsiModifierList modifierList) {
+        if (modifierList == null) {
+            return;
+        }
+        for (String modifier : PsiModifier.MODIFIERS) {
+            if (modifierList.hasExplicitModifier(modifier)) {
+                outline.append(modifier).append(' ');
+            }
+        }
+    }
+
+    private static boolean appendTypeParameters(StringBuilder outline, PsiTypeParameter[] typeParameters) {
+        if (typeParameters.length == 0) {
+            return false;
+        }
+        outline.append('<');
+        for (int i = 0; i < typeParameters.length; i++) {
+            if (i > 0) {
+                outline.append(", ");
+            }
+            outline.append(typeParameters[i].getName());
+            PsiClassType[] bounds = typeParameters[i].getExtendsListTypes();
+            for (int b = 0; b < bounds.length; b++) {
+                outline.append(b == 0 ? " extends " : " & ").append(bounds[b].getPresentableText());
+            }
+        }
+        outline.append('>');
+        return true;
+    }
+
+    private static void appendReferenceList(StringBuilder outline, String keyword, PsiReferenceList list) {
+        if (list == null) {
+            return;
+        }
+        PsiClassType[] types = list.getReferencedTypes();
+        for (int i = 0; i < types.length; i++) {
+            outline.append(i == 0 ? keyword : ", ").append(types[i].getPresentableText());
+        }
+    }
+
+    private static void indent(StringBuilder outline, int level) {
+        for (int i = 0; i < level; i++) {
+            outline.append(INDENT);
+        }
+    }
+}
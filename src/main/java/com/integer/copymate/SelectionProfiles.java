@@ -0,0 +1,162 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.GitIgnoreRules;
+import com.intellij.openapi.components.PersistentStateComponent;
+import com.intellij.openapi.components.Service;
+import com.intellij.openapi.components.State;
+import com.intellij.openapi.components.Storage;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Named file selections of a project, stored in {@code .idea/copyMate.xml}.
+ * <p>
+ * A profile is stored compactly as paths relative to the project base directory, each standing for a
+ * file or a whole directory, plus globs such as {@code src/util/*.java} for groups of sibling files.
+ * Resolving a profile only walks the directories a glob can match, never the whole project.
+ * <p>
+ * The accessors are synchronized, as action updates read the profiles on a background thread.
+ */
+@Service(Service.Level.PROJECT)
+@State(name = "CopyMateSelectionProfiles", storages = @Storage("copyMate.xml"))
+final class SelectionProfiles implements PersistentStateComponent<SelectionProfiles.ProfilesState> {
+    private ProfilesState state = new ProfilesState();
+
+    static SelectionProfiles getInstance(Project project) {
+        return project.getService(SelectionProfiles.class);
+    }
+
+    @Override
+    public synchronized ProfilesState getState() {
+        return state;
+    }
+
+    @Override
+    public synchronized void loadState(@NotNull ProfilesState state) {
+        this.state = state;
+    }
+
+    synchronized boolean hasProfiles() {
+        return !state.profiles.isEmpty();
+    }
+
+    synchronized List<String> getProfileNames() {
+        List<String> names = new ArrayList<>();
+        for (Profile profile : state.profiles) {
+            names.add(profile.name);
+        }
+        return names;
+    }
+
+    synchronized Profile findProfile(String name) {
+        for (Profile profile : state.profiles) {
+            if (profile.name.equals(name)) {
+                return profile;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Add a profile, replacing an existing one with the same name.
+     */
+    synchronized void saveProfile(Profile profile) {
+        state.profiles.removeIf(existing -> existing.name.equals(profile.name));
+        state.profiles.add(profile);
+        state.lastProfile = profile.name;
+    }
+
+    synchronized void removeProfile(String name) {
+        state.profiles.removeIf(existing -> existing.name.equals(name));
+        if (name.equals(state.lastProfile)) {
+            state.lastProfile = null;
+        }
+    }
+
+    /**
+     * @return the profile that was saved or applied last, or null
+     */
+    synchronized String getLastProfile() {
+        return state.lastProfile;
+    }
+
+    synchronized void setLastProfile(String name) {
+        state.lastProfile = name;
+    }
+
+    /**
+     * Resolve a profile to the files and directories it selects, in profile order.
+     * Directories are returned as such and not expanded. Must be called inside a read action.
+     */
+    static List<VirtualFile> resolve(Profile profile, VirtualFile baseDir, IgnoreMatcher ignoreMatcher) {
+        List<VirtualFile> selected = new ArrayList<>();
+        for (String path : profile.paths) {
+            VirtualFile file = baseDir.findFileByRelativePath(path);
+            if (file != null) {
+                selected.add(file);
+            }
+        }
+        for (String glob : profile.globs) {
+            collectGlobMatches(glob, baseDir, ignoreMatcher, selected);
+        }
+        return selected;
+    }
+
+    private static void collectGlobMatches(String glob, VirtualFile baseDir, IgnoreMatcher ignoreMatcher,
+                                           List<VirtualFile> selected) {
+        // Only the directory before the first wildcard segment has to be walked
+        int wildcard = GitIgnoreRules.indexOfWildcard(glob);
+        int slash = glob.lastIndexOf('/', wildcard);
+        VirtualFile start = slash < 0
+                ? baseDir
+                : baseDir.findFileByRelativePath(GitIgnoreRules.unescape(glob.substring(0, slash)));
+        if (start == null || !start.isDirectory()) {
+            return;
+        }
+
+        Pattern pattern = Pattern.compile(GitIgnoreRules.toRegex(glob));
+        boolean recursive = glob.indexOf('/', wildcard) >= 0 || glob.contains("**");
+        VfsUtilCore.visitChildrenRecursively(start, new VirtualFileVisitor<Void>(VirtualFileVisitor.NO_FOLLOW_SYMLINKS) {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+                if (file.equals(start)) {
+                    return true;
+                }
+                if (ignoreMatcher.isIgnored(file)) {
+                    return false;
+                }
+                String relativePath = VfsUtilCore.getRelativePath(file, baseDir, '/');
+                if (!file.isDirectory() && relativePath != null && pattern.matcher(relativePath).matches()) {
+                    selected.add(file);
+                }
+                return file.isDirectory() && recursive;
+            }
+        });
+    }
+
+    /**
+     * Serialized state: all profiles and the name of the last used one.
+     */
+    public static class ProfilesState {
+        public List<Profile> profiles = new ArrayList<>();
+        public String lastProfile;
+    }
+
+    /**
+     * One named selection.
+     */
+    public static class Profile {
+        public String name = "";
+        // Files and whole directories, relative to the project base directory
+        public List<String> paths = new ArrayList<>();
+        // Globs over relative paths, for sibling files selected together
+        public List<String> globs = new ArrayList<>();
+    }
+}
@@ -0,0 +1,218 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.TokenEstimator;
+import com.intellij.openapi.Disposable;
+import com.intellij.openapi.application.ModalityState;
+import com.intellij.openapi.application.ReadAction;
+import com.intellij.openapi.progress.ProgressManager;
+import com.intellij.openapi.util.text.StringUtil;
+import com.intellij.openapi.vfs.VfsUtilCore;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.openapi.vfs.VirtualFileVisitor;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import org.jetbrains.annotations.NotNull;
+
+import javax.swing.tree.TreeNode;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Keeps the checked file count and byte size of the selection up to date as nodes are checked.
+ * <p>
+ * Only selection units carry a contribution: files, and directories whose children were never loaded.
+ * When a unit's checked state changes, the difference is added to the node and its ancestors, so the
+ * totals never require a rescan of the tree. The totals of an unloaded directory are computed once in
+ * the background and applied when they arrive. Loading a directory hands its contribution over to the
+ * new child nodes. Nodes that leave or join the tree after a file system change take their aggregates
+ * with them. All methods must be called on the EDT.
+ */
+final class SelectionSummary {
+
+    private final IgnoreMatcher ignoreMatcher;
+    private final Disposable parentDisposable;
+    private final Runnable onChange;
+    private final Map<FileTreeNode, Object> pendingTotals = new HashMap<>();
+
+    private int checkedUnits;
+    private long checkedFiles;
+    private long checkedBytes;
+
+    SelectionSummary(IgnoreMatcher ignoreMatcher, Disposable parentDisposable, Runnable onChange) {
+        this.ignoreMatcher = ignoreMatcher;
+        this.parentDisposable = parentDisposable;
+        this.onChange = onChange;
+    }
+
+    /**
+     * Called for every node whose checked state changed.
+     */
+    void nodeStateChanged(Object node) {
+        if (node instanceof FileTreeNode) {
+            sync((FileTreeNode) node);
+            onChange.run();
+        }
+    }
+
+    /**
+     * Load a directory's children, moving its contribution onto them.
+     *
+     * @return true if the node structure changed
+     */
+    boolean loadChildren(FileTreeNode node) {
+        if (!node.loadChildren()) {
+            return false;
+        }
+        sync(node);
+        for (int i = 0; i < node.getChildCount(); i++) {
+            if (node.getChildAt(i) instanceof FileTreeNode) {
+                sync((FileTreeNode) node.getChildAt(i));
+            }
+        }
+        onChange.run();
+        return true;
+    }
+
+    /**
+     * Bring the node's own contribution in line with its current checked and loaded state.
+     */
+    void sync(FileTreeNode node) {
+        boolean counts = node.isChecked() && node.isSelectionUnit();
+        long files = 0;
+        long bytes = 0;
+        if (counts) {
+            if (!node.isDirectory()) {
+                files = 1;
+                bytes = node.getFile().getLength();
+            } else if (node.hasSubtreeTotals()) {
+                files = node.getSubtreeFiles();
+                bytes = node.getSubtreeBytes();
+            } else {
+                requestTotals(node);
+            }
+        }
+
+        int unitDelta = (counts ? 1 : 0) - (node.isCounted() ? 1 : 0);
+        long fileDelta = files - node.getCountedFiles();
+        long byteDelta = bytes - node.getCountedBytes();
+        if (unitDelta == 0 && fileDelta == 0 && byteDelta == 0) {
+            return;
+        }
+        node.setCounted(counts, files, bytes);
+
+        for (TreeNode current = node; current instanceof FileTreeNode; current = current.getParent()) {
+            ((FileTreeNode) current).addToAggregates(unitDelta, fileDelta, byteDelta);
+        }
+        checkedUnits += unitDelta;
+        checkedFiles += fileDelta;
+        checkedBytes += byteDelta;
+    }
+
+    /**
+     * Subtract a subtree from its ancestors and the totals; call before the node is detached.
+     * Totals still being computed for unloaded directories in the subtree are dropped.
+     */
+    void nodeRemoved(FileTreeNode node) {
+        addToAncestors(node, -node.getCheckedUnits(), -node.getCheckedFiles(), -node.getCheckedBytes());
+        pendingTotals.keySet().removeIf(node::isNodeDescendant);
+    }
+
+    /**
+     * Add a subtree to its ancestors and the totals; call after the node was attached.
+     * A new node has empty aggregates and is counted from its own checked state.
+     */
+    void nodeAdded(FileTreeNode node) {
+        addToAncestors(node, node.getCheckedUnits(), node.getCheckedFiles(), node.getCheckedBytes());
+        sync(node);
+        onChange.run();
+    }
+
+    private void addToAncestors(FileTreeNode node, int units, long files, long bytes) {
+        for (TreeNode current = node.getParent(); current instanceof FileTreeNode; current = current.getParent()) {
+            ((FileTreeNode) current).addToAggregates(units, files, bytes);
+        }
+        checkedUnits += units;
+        checkedFiles += files;
+        checkedBytes += bytes;
+    }
+
+    int getCheckedUnits() {
+        return checkedUnits;
+    }
+
+    /**
+     * @return e.g. "12 files / 1.4 MB / ~360,000 tokens"
+     */
+    String describe() {
+        if (checkedUnits == 0) {
+            return "No files selected";
+        }
+        String text = checkedFiles + (checkedFiles == 1 ? " file / " : " files / ")
+                + StringUtil.formatFileSize(checkedBytes) + " / ~"
+                + String.format("%,d", TokenEstimator.estimateFromBytes(checkedBytes)) + " tokens";
+        return pendingTotals.isEmpty() ? text : text + " (counting...)";
+    }
+
+    /**
+     * Recount an unloaded directory whose content changed on disk. A count already running for the
+     * directory is cancelled.
+     */
+    void invalidateTotals(FileTreeNode node) {
+        pendingTotals.remove(node);
+        node.clearSubtreeTotals();
+        sync(node);
+        onChange.run();
+    }
+
+    /**
+     * Apply a file added, removed or resized below an unloaded directory without recounting the directory.
+     * Nothing needs to be done while the totals are unknown: a count still running is restarted by the
+     * write action that changed the file, and sees the change.
+     */
+    void adjustTotals(FileTreeNode directory, long fileDelta, long byteDelta) {
+        if (directory.hasSubtreeTotals()) {
+            directory.setSubtreeTotals(directory.getSubtreeFiles() + fileDelta, directory.getSubtreeBytes() + byteDelta);
+            sync(directory);
+            onChange.run();
+        }
+    }
+
+    private void requestTotals(FileTreeNode node) {
+        if (pendingTotals.containsKey(node)) {
+            return;
+        }
+        Object request = new Object();
+        pendingTotals.put(node, request);
+        VirtualFile directory = node.getFile();
+        ReadAction.nonBlocking(() -> computeTotals(directory))
+                .coalesceBy(this, node)
+                .finishOnUiThread(ModalityState.any(), totals -> {
+                    if (!pendingTotals.remove(node, request)) {
+                        return;  // Removed from the tree or invalidated meanwhile
+                    }
+                    node.setSubtreeTotals(totals[0], totals[1]);
+                    sync(node);
+                    onChange.run();
+                })
+                .expireWith(parentDisposable)
+                .submit(AppExecutorUtil.getAppExecutorService());
+    }
+
+    private long[] computeTotals(VirtualFile directory) {
+        long[] totals = new long[2];
+        VfsUtilCore.visitChildrenRecursively(directory, new VirtualFileVisitor<Void>(VirtualFileVisitor.NO_FOLLOW_SYMLINKS) {
+            @Override
+            public boolean visitFile(@NotNull VirtualFile file) {
+                ProgressManager.checkCanceled();
+                if (!file.equals(directory) && ignoreMatcher.isIgnored(file)) {
+                    return false;
+                }
+                if (!file.isDirectory()) {
+                    totals[0]++;
+                    totals[1] += file.getLength();
+                }
+                return true;
+            }
+        });
+        return totals;
+    }
+}
@@ -0,0 +1,74 @@
+package com.integer.copymate;
+
+import com.integer.copymate.core.ContentLoader;
+import com.integer.copymate.core.GoOutlineExtractor;
+import com.integer.copymate.core.JavaSignatureExtractor;
+import com.integer.copymate.core.KotlinOutlineExtractor;
+import com.integer.copymate.core.PythonOutlineExtractor;
+import com.integer.copymate.core.TypeScriptOutlineExtractor;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.vfs.VirtualFile;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+/**
+ * Outline extractors that scan the editor/VFS text of a file in a single pass, without PSI, so they work
+ * in every IDE whether or not a plugin for the language is installed. The nested classes are the
+ * built-in registrations in {@code plugin.xml}.
+ */
+public abstract class TextOutlineExtractor implements OutlineExtractor {
+
+    /**
+     * Binary files and the size cap are handled like in the copied content: a binary file yields the
+     * binary marker, a file above the cap is scanned in its head and tail window.
+     */
+    @Override
+    public String extract(@NotNull Project project, @NotNull VirtualFile file) {
+        ContentLoader.Loaded loaded;
+        try {
+            loaded = FileContentLoader.load(file);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return loaded.isBinary() ? loaded.getText() : outline(loaded.getText());
+    }
+
+    protected abstract String outline(CharSequence text);
+
+    public static final class Java extends TextOutlineExtractor {
+        @Override
+        protected String outline(CharSequence text) {
+            return JavaSignatureExtractor.extract(text);
+        }
+    }
+
+    public static final class Kotlin extends TextOutlineExtractor {
+        @Override
+        protected String outline(CharSequence text) {
+            return KotlinOutlineExtractor.extract(text);
+        }
+    }
+
+    public static final class Python extends TextOutlineExtractor {
+        @Override
+        protected String outline(CharSequence text) {
+            return PythonOutlineExtractor.extract(text);
+        }
+    }
+
+    public static final class TypeScript extends TextOutlineExtractor {
+        @Override
+        protected String outline(CharSequence text) {
+            return TypeScriptOutlineExtractor.extract(text);
+        }
+    }
+
+    public static final class Go extends TextOutlineExtractor {
+        @Override
+        protected String outline(CharSequence text) {
+            return GoOutlineExtractor.extract(text);
+        }
+    }
+}
@@ -0,0 +1,40 @@
+package com.integer.copymate;
+
+import com.intellij.ui.JBIntSpinner;
+import com.intellij.ui.components.JBCheckBox;
+
+import javax.swing.*;
+import java.awt.*;
+
+/**
+ * "Fit Into Token Budget" checkbox with the budget next to it.
+ */
+final class TokenBudgetRow extends JPanel {
+    private static final int DEFAULT_TOKEN_BUDGET = 100_000;
+
+    private final JBCheckBox tokenBudgetCheckbox;
+    private final JBIntSpinner tokenBudgetSpinner;
+
+    TokenBudgetRow() {
+        super(new FlowLayout(FlowLayout.LEFT, 0, 0));
+        tokenBudgetCheckbox = new JBCheckBox("Fit Into Token Budget");
+        tokenBudgetCheckbox.setToolTipText("When enabled, files are copied in full, as signatures or as path only so the result stays within the budget");
+        tokenBudgetSpinner = new JBIntSpinner(DEFAULT_TOKEN_BUDGET, 1_000, 10_000_000, 1_000);
+        tokenBudgetSpinner.setEnabled(false);
+        tokenBudgetCheckbox.addItemListener(e -> tokenBudgetSpinner.setEnabled(tokenBudgetCheckbox.isSelected()));
+
+        add(tokenBudgetCheckbox);
+        add(Box.createHorizontalStrut(5));
+        add(tokenBudgetSpinner);
+        add(new JLabel(" tokens"));
+        setAlignmentX(Component.LEFT_ALIGNMENT);
+        setMaximumSize(getPreferredSize());
+    }
+
+    /**
+     * @return the budget in tokens, 0 when the option is off
+     */
+    int getTokenBudget() {
+        return tokenBudgetCheckbox.isSelected() ? tokenBudgetSpinner.getNumber() : 0;
+    }
+}
@@ -0,0 +1,89 @@
+package com.integer.copymate;
+
+import com.intellij.util.diff.Diff;
+import com.intellij.util.diff.FilesTooBigForDiffException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Formats the line differences between two texts as a unified diff with three lines of context.
+ */
+final class UnifiedDiff {
+    private static final int CONTEXT_LINES = 3;
+
+    private UnifiedDiff() {
+    }
+
+    /**
+     * @return the unified diff, empty if the texts have the same lines
+     * @throws FilesTooBigForDiffException if the texts are too large for the platform diff
+     */
+    static String format(String path, String before, String after) throws FilesTooBigForDiffException {
+        String[] oldLines = before.split("\n", -1);
+        String[] newLines = after.split("\n", -1);
+
+        List<Diff.Change> changes = new ArrayList<>();
+        for (Diff.Change change = Diff.buildChanges(oldLines, newLines); change != null; change = change.link) {
+            changes.add(change);
+        }
+        if (changes.isEmpty()) {
+            return "";
+        }
+
+        StringBuilder diff = new StringBuilder();
+        diff.append("--- a/").append(path).append('\n');
+        diff.append("+++ b/").append(path).append('\n');
+
+        int first = 0;
+        while (first < changes.size()) {
+            // Changes whose context would overlap share one hunk
+            int last = first;
+            while (last + 1 < changes.size()
+                    && changes.get(last + 1).line0 - end0(changes.get(last)) <= 2 * CONTEXT_LINES) {
+                last++;
+            }
+            appendHunk(diff, oldLines, newLines, changes.subList(first, last + 1));
+            first = last + 1;
+        }
+        return diff.toString();
+    }
+
+    private static void appendHunk(StringBuilder diff, String[] oldLines, String[] newLines, List<Diff.Change> hunk) {
+        Diff.Change firstChange = hunk.get(0);
+        Diff.Change lastChange = hunk.get(hunk.size() - 1);
+
+        int start0 = Math.max(0, firstChange.line0 - CONTEXT_LINES);
+        int start1 = firstChange.line1 - (firstChange.line0 - start0);
+        int end0 = Math.min(oldLines.length, end0(lastChange) + CONTEXT_LINES);
+        int end1 = lastChange.line1 + lastChange.inserted + (end0 - end0(lastChange));
+
+        diff.append("@@ -").append(range(start0, end0 - start0))
+                .append(" +").append(range(start1, end1 - start1))
+                .append(" @@\n");
+
+        int position = start0;
+        for (Diff.Change change : hunk) {
+            appendLines(diff, ' ', oldLines, position, change.line0);
+            appendLines(diff, '-', oldLines, change.line0, end0(change));
+            appendLines(diff, '+', newLines, change.line1, change.line1 + change.inserted);
+            position = end0(change);
+        }
+        appendLines(diff, ' ', oldLines, position, end0);
+    }
+
+    private static int end0(Diff.Change change) {
+        return change.line0 + change.deleted;
+    }
+
+    private static String range(int start, int length) {
+        // An empty range names the line before it, as in GNU diff
+        return (length == 0 ? start : start + 1) + "," + length;
+    }
+
+    private static void appendLines(StringBuilder diff, char prefix, String[] lines, int from, int to) {
+        for (int i = from; i < to; i++) {
+            diff.append(prefix).append(lines[i]).append('\n');
+        }
+    }
+}